@@ -0,0 +1,27 @@
+package com.team1160.assistant;
+
+import com.team1160.assistant.commands.CommandBase;
+import com.team1160.assistant.hal.ButtonListener;
+
+/**
+ * Starts a command when its button is pressed, the same as whenPressed but
+ * driven by InputSampler's edge events instead of a Trigger polling the
+ * button every tick. The command goes to whichever scheduler the robot is
+ * using, see CommandBase.schedule().
+ */
+public class ButtonBinding implements ButtonListener {
+
+    private final int button;
+    private final CommandBase command;
+
+    public ButtonBinding(int button, CommandBase command){
+        this.button = button;
+        this.command = command;
+    }
+
+    public void buttonChanged(int button, boolean pressed, long timestamp){
+        if(pressed && button == this.button){
+            command.schedule();
+        }
+    }
+}
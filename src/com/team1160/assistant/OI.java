@@ -1,33 +1,22 @@
 package com.team1160.assistant;
 
-import com.team1160.assistant.commands.Pistons.extendPiston;
-import com.team1160.assistant.commands.Pistons.retractPiston;
-import com.team1160.assistant.commands.Shooter.tensionAdd;
-import com.team1160.assistant.commands.Shooter.tensionLetGo;
-import com.team1160.assistant.commands.Shooter.tensionRelease;
-import com.team1160.assistant.commands.vision.visionCommand;
-import com.team1160.assistant.commands.vision.visionDoNothing;
-import edu.wpi.first.wpilibj.Joystick;
-import edu.wpi.first.wpilibj.buttons.Button;
-import edu.wpi.first.wpilibj.buttons.JoystickButton;
+import com.team1160.assistant.commands.CommandBase;
+import com.team1160.assistant.hal.InputSampler;
+import com.team1160.assistant.hal.RobotHardware;
 
 /**
  * This class is the glue that binds the controls on the physical operator
  * interface to the commands and command groups that allow control of the robot.
+ *
+ * The joystick is read once per tick through an InputSampler (see sample()),
+ * and buttons start their commands from its press events. Which button runs
+ * which command is listed in RobotActions.bind(), shared with the simulator,
+ * and CommandBase.init() passes each one to bind().
  */
 public class OI {
     
-    //JOYSTICK
-    private Joystick stick;
-    
-    //BUTTONS
-    private Button extendPiston;
-    private Button retractPiston;
-    private Button addTension;
-    private Button releaseTension;
-    private Button letGo;
-    private Button track;
-    private Button stopTrack;
+    //JOYSTICK, SAMPLED ONCE PER TICK
+    private InputSampler stick;
     
     private static OI instance;
     
@@ -40,36 +29,21 @@ public class OI {
     }
     
     private OI(){
-        stick = new Joystick(RobotMap.JOY_PORT);
-        initButtons();
+        stick = new InputSampler(RobotHardware.getInstance().joystick(RobotMap.JOY_PORT));
     }
     
-    private void initButtons(){
-        
-        extendPiston = new JoystickButton(stick, RobotMap.EXTEND_PISTON_BUT);
-        retractPiston = new JoystickButton(stick, RobotMap.RETRACT_PISTON_BUT);
-        addTension = new JoystickButton(stick, RobotMap.ADD_TENSION_BUT);
-        releaseTension = new JoystickButton(stick, RobotMap.RELEASE_TENSION_BUT);
-        letGo = new JoystickButton(stick, RobotMap.LET_GO_BUT);
-        track = new JoystickButton(stick, RobotMap.VISION_TRACK_BUT);
-        stopTrack = new JoystickButton(stick, RobotMap.STOP_VISION_TRACK_BUT);
-        tieButtons();
+    //STARTS THE COMMAND EVERY TIME THE BUTTON IS PRESSED
+    public void bind(int button, CommandBase command){
+        stick.addListener(new ButtonBinding(button, command));
     }
     
-    private void tieButtons(){
-        
-        extendPiston.whenPressed(new extendPiston());
-        retractPiston.whenPressed(new retractPiston());
-        addTension.whenPressed(new tensionAdd());
-        releaseTension.whenPressed(new tensionRelease());
-        letGo.whenPressed(new tensionLetGo());
-        track.whenPressed(new visionCommand());
-        stopTrack.whenPressed(new visionDoNothing());
-        
+    //TAKES THIS TICK'S JOYSTICK SNAPSHOT AND STARTS COMMANDS FOR NEW PRESSES
+    public void sample(long now){
+        stick.sample(now);
     }
     
     //JOYSTICK GETTER FUNCTION
-    public Joystick getJoystick(){
+    public InputSampler getJoystick(){
         return stick;
     }   
 }
\ No newline at end of file
@@ -34,6 +34,56 @@ public class RobotMap {
     public static final int ADD_TENSION = 0;
     public static final int RELEASE_TENSION = 0;
     
+    //---AUTONOMOUS--- (see AutonomousParams, times in microseconds)
+    //OFF, AUTONOMOUS ONLY STARTS VISION. THE ROUTINE AND THESE DEFAULTS HAVEN'T BEEN TRIED ON THE FIELD
+    public static final boolean AUTO_ROUTINE_ENABLED = false;
+    public static final double AUTO_DRIVE_SPEED = 0.6;
+    public static final long AUTO_DRIVE_MICROS = 1500000;
+    public static final long AUTO_WIND_MICROS = 2000000;
+    public static final long AUTO_FIRE_MICROS = 500000;
+    public static final long AUTO_HOT_TIMEOUT_MICROS = 6000000; //fire anyway after this
+
+    //---OUTPUT BUFFERING--- (see BufferedHardware)
+    public static final double OUTPUT_DEADBAND = 0.01; //motor changes smaller than this aren't written
+    public static final int OUTPUT_REFRESH_TICKS = 50; //write everything once a second anyway
+
+    //---LOOP TIMING---
+    public static final long LOOP_PERIOD_MICROS = 20000; //DRIVER STATION PACKETS EVERY 20MS
+
+    //---CONTROL LOOP--- (see PeriodicLoop, ShooterMechanism)
+    public static final long CONTROL_PERIOD_MICROS = 5000; //200HZ
+    public static final boolean TENSION_CLOSED_LOOP = false; //the pot isn't wired yet, the buttons use ADD_TENSION/RELEASE_TENSION
+    public static final int TENSION_POT_CHAN = 2;
+    public static final double TENSION_SLACK_VOLTS = 0.5; //pot reading with the winch slack
+    public static final double TENSION_WOUND_VOLTS = 4.5; //and fully wound
+    public static final double TENSION_POT_MARGIN_VOLTS = 0.25; //readings further outside that range stop the winch
+    //Tension setpoints, 0 slack to 1 fully wound
+    public static final double TENSION_WOUND = 1.0;
+    public static final double TENSION_SLACK = 0.0;
+    public static final double TENSION_KP = 4.0;
+    public static final double TENSION_KI = 0.5;
+    public static final double TENSION_KD = 0.0;
+    public static final double TENSION_KF = 0.0; //power per unit of tension to hold against the spring
+    public static final double TENSION_MAX_POWER = 0.3; //untuned, raise once tried on the real winch
+
+    //---MEMORY WATCHDOG--- (see MemoryWatchdog)
+    public static final long WATCHDOG_PAUSE_MICROS = 2000; //a control tick this late across a collection is a gc pause
+    public static final int WATCHDOG_MAX_IMAGES = 8; //NIVision images alive at once before it's called a leak
+
+    //---COMMANDS--- (see FastScheduler, SchedulerBenchmark)
+    //Off, teleop stays on the WPILib Scheduler until the FastScheduler has been tried on the field
+    public static final boolean FAST_SCHEDULER = false;
+    public static final int MAX_COMMANDS = 64; //command objects the FastScheduler can hold
+    public static final int BENCHMARK_COMMANDS = 300; //registered commands in the test mode benchmark
+    public static final int BENCHMARK_TICKS = 2000;
+
+    //---TELEMETRY--- (see RobotTelemetry, read with tools TelemetryReceiver)
+    public static final boolean TELEMETRY_ENABLED = true;
+    public static final String TELEMETRY_ADDRESS = "datagram://10.11.60.5:1190"; //driver station, a port the field passes
+    public static final int TELEMETRY_EVERY_N_TICKS = 1; //1 for every 20ms tick
+    public static final int TELEMETRY_BATCH_SAMPLES = 10; //samples per packet
+    public static final int TELEMETRY_BATCHES = 8; //packets waiting to be sent before samples are dropped
+
     //---JOYSTICK BUTTONS---
     public static final int VISION_TRACK_BUT = 2;
     public static final int STOP_VISION_TRACK_BUT = 3;
@@ -52,10 +102,23 @@ public class RobotMap {
      * ---YOU HAVE BEEN WARNED--
      *-------------------------*/
     
+    public static final int X_IMAGE_RES = 320;
     public static final int Y_IMAGE_RES = 240;
     public static final double VIEW_ANGLE = 41.7; //Axis 206 camera
     public static final double PI = 3.141592653;
 
+    //HSV threshold for the retroreflective tape (0-255 scale)
+    public static final int HUE_LOW = 136;
+    public static final int HUE_HIGH = 182;
+    public static final int SAT_LOW = 45;
+    public static final int SAT_HIGH = 255;
+    public static final int VAL_LOW = 116;
+    public static final int VAL_HIGH = 255;
+    //0 converts every pixel to HSV, 16 or 24 looks colours up in a ColorTable.
+    //24 gives the same mask as 0. 16 is opt-in: it classifies 0.776% of all colours
+    //differently from 0, the ones right on a threshold edge (ThresholdBenchmark)
+    public static final int COLOR_TABLE_BITS = 0;
+
     //Score limits used for target identification
     public static final int  RECTANGULARITY_LIMIT = 40;
     public static final int ASPECT_RATIO_LIMIT = 55;
@@ -70,6 +133,39 @@ public class RobotMap {
 
     //Maximum number of particles to process
     public static final int MAX_PARTICLES = 8;
+
+    //Tuned threshold, filter and score limits, written by the tools' VisionTuner.
+    //Read over the values above at startup if the file is there
+    public static final String VISION_CONFIG_FILE = "file:///vision/vision.cfg";
+
+    //Vision threads, shared by every camera. Each one has a frame buffer
+    public static final int VISION_WORKERS = 1;
+    //More Axis cameras beside the main one, each with its own pipeline
+    public static final String[] EXTRA_CAMERA_ADDRESSES = {};
+
+    //Debug frame capture, written in the background by FrameRecorder
+    public static final String RECORD_DIRECTORY = "file:///vision/";
+    public static final boolean RECORD_TO_CAPTURE_FILE = true; //false for one PPM per frame
+    public static final String RECORD_CAPTURE_FILE = "file:///vision/match.cap";
+    public static final int RECORD_BUDGET_BYTES = 2 * 1024 * 1024; //memory for frames waiting to be written
+    public static final long RECORD_FILE_MAX_BYTES = 32 * 1024 * 1024; //capture file stops growing here
+    public static final int RECORD_EVERY_N = 0; //0 to turn periodic capture off
+    public static final boolean RECORD_ON_DETECTION = false;
+    public static final boolean RECORD_MASKS = false;
+
+    //Region of interest tracking: after a confident pair only a padded window
+    //around it is processed, with a full frame scan every ROI_MAX_FRAMES
+    public static final boolean ROI_ENABLED = true;
+    public static final int ROI_PADDING = 16; //pixels around the target pair
+    public static final int ROI_SCORE_MINIMUM = 150; //totalScore needed to lock (0-300)
+    public static final int ROI_MAX_FRAMES = 10;
+
+    //Target fusion: hot is called once HOT_VOTES_NEEDED of the last
+    //HOT_VOTE_WINDOW frames agree, distance goes through an alpha-beta filter
+    public static final int HOT_VOTE_WINDOW = 5;
+    public static final int HOT_VOTES_NEEDED = 3;
+    public static final double DISTANCE_ALPHA = 0.5;
+    public static final double DISTANCE_BETA = 0.1;
     
     
     
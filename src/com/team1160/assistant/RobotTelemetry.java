@@ -0,0 +1,87 @@
+package com.team1160.assistant;
+
+import com.team1160.assistant.control.PeriodicLoop;
+import com.team1160.assistant.mechanisms.DriveMechanism;
+import com.team1160.assistant.mechanisms.PneumaticMechanism;
+import com.team1160.assistant.mechanisms.ShooterMechanism;
+import com.team1160.assistant.util.LoopProfiler;
+import com.team1160.assistant.util.Telemetry;
+import com.team1160.assistant.util.TelemetrySink;
+import com.team1160.assistant.vision.TargetReport;
+
+/**
+ * The channels the robot streams to the dashboard, read straight off the
+ * mechanisms, the newest vision report, the loop profiler and the control
+ * loop once per tick.
+ * Keeps no WPILib classes so the simulator can stream the same thing.
+ */
+public class RobotTelemetry {
+
+    public static final String[] CHANNELS = {
+        "drive left", "drive right", "shooter", "piston extended", "compressor",
+        "target found", "target hot", "distance", "score", "hot decided", "fused hot",
+        "hot confidence", "filtered distance", "report age ms",
+        "loop us", "loop period us", "overruns",
+        "tension", "tension setpoint", "control jitter us", "control overruns"
+    };
+
+    //INDEXES INTO CHANNELS
+    private static final int LEFT = 0, RIGHT = 1, SHOOTER = 2, PISTON = 3, COMPRESSOR = 4,
+            FOUND = 5, HOT = 6, DISTANCE = 7, SCORE = 8, DECIDED = 9, FUSED_HOT = 10,
+            CONFIDENCE = 11, FILTERED = 12, AGE = 13,
+            LOOP = 14, PERIOD = 15, OVERRUNS = 16,
+            TENSION = 17, SETPOINT = 18, JITTER = 19, CONTROL_OVERRUNS = 20;
+
+    private final Telemetry telemetry;
+    private final DriveMechanism drive;
+    private final ShooterMechanism shooter;
+    private final PneumaticMechanism pneumatics;
+    private final PeriodicLoop control;
+
+    public RobotTelemetry(TelemetrySink sink, DriveMechanism drive, ShooterMechanism shooter, PneumaticMechanism pneumatics,
+            PeriodicLoop control){
+        telemetry = new Telemetry(CHANNELS, RobotMap.TELEMETRY_BATCH_SAMPLES, RobotMap.TELEMETRY_EVERY_N_TICKS,
+                RobotMap.TELEMETRY_BATCHES, sink);
+        this.drive = drive;
+        this.shooter = shooter;
+        this.pneumatics = pneumatics;
+        this.control = control;
+    }
+
+    /**
+     * Takes one sample. Call from the main robot thread after the outputs for
+     * the tick have been set.
+     */
+    public void sample(long now, TargetReport report){
+        Telemetry t = telemetry;
+        t.set(LEFT, drive.getLeft());
+        t.set(RIGHT, drive.getRight());
+        t.set(SHOOTER, shooter.getPower());
+        t.set(PISTON, pneumatics.isExtended());
+        t.set(COMPRESSOR, pneumatics.isCompressorEnabled());
+
+        t.set(FOUND, report.found);
+        t.set(HOT, report.hot);
+        t.set(DISTANCE, report.distance);
+        t.set(SCORE, report.score);
+        t.set(DECIDED, report.hotDecided);
+        t.set(FUSED_HOT, report.fusedHot);
+        t.set(CONFIDENCE, report.hotConfidence);
+        t.set(FILTERED, report.filteredDistance);
+        t.set(AGE, report.sequence < 0 ? -1 : report.age(now) / 1000.0);
+
+        t.set(LOOP, LoopProfiler.getLastLoop());
+        t.set(PERIOD, LoopProfiler.getLastPeriod());
+        t.set(OVERRUNS, LoopProfiler.getOverruns());
+
+        t.set(TENSION, shooter.getTension());
+        t.set(SETPOINT, shooter.isClosedLoop() ? shooter.getSetpoint() : -1);
+        t.set(JITTER, control.getLastJitter());
+        t.set(CONTROL_OVERRUNS, control.getOverruns());
+        t.commit(now);
+    }
+
+    public Telemetry getTelemetry(){
+        return telemetry;
+    }
+}
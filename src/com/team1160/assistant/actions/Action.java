@@ -0,0 +1,57 @@
+package com.team1160.assistant.actions;
+
+/**
+ * What one of the robot's commands does, without WPILib: the life cycle of a
+ * Command, working only on mechanisms and hal interfaces. On the robot
+ * CommandBase wraps each one in a WPILib Command, and the simulator runs the
+ * same objects on its own FastScheduler, so what is simulated is what the
+ * robot runs.
+ *
+ * Every action needs one subsystem, named by one of the constants below.
+ */
+public abstract class Action {
+
+    //THE SUBSYSTEM AN ACTION NEEDS, ALSO AN INDEX
+    public static final int DRIVETRAIN = 0;
+    public static final int PNEUMATICS = 1;
+    public static final int SHOOTER = 2;
+    public static final int VISION = 3;
+    public static final int SUBSYSTEMS = 4;
+
+    private final String name;
+    private final int subsystem;
+
+    /**
+     * @param name What the command was called, for the profiler
+     * @param subsystem DRIVETRAIN, PNEUMATICS, SHOOTER or VISION
+     */
+    protected Action(String name, int subsystem){
+        this.name = name;
+        this.subsystem = subsystem;
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    public int getSubsystem(){
+        return subsystem;
+    }
+
+    public void initialize(){
+    }
+
+    public void execute(){
+    }
+
+    //FALSE RUNS IT UNTIL SOMETHING ELSE TAKES THE SUBSYSTEM
+    public boolean isFinished(){
+        return false;
+    }
+
+    public void end(){
+    }
+
+    public void interrupted(){
+    }
+}
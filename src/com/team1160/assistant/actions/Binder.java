@@ -0,0 +1,14 @@
+package com.team1160.assistant.actions;
+
+/**
+ * Takes the actions RobotActions.bind() hands out and turns them into
+ * commands on whatever scheduler is in use.
+ */
+public interface Binder {
+
+    //RUN WHENEVER NOTHING ELSE HAS THE ACTION'S SUBSYSTEM
+    public void setDefault(Action action);
+
+    //STARTED EVERY TIME THE BUTTON IS PRESSED
+    public void bind(int button, Action action);
+}
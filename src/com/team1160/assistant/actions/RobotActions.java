@@ -0,0 +1,160 @@
+package com.team1160.assistant.actions;
+
+import com.team1160.assistant.RobotMap;
+import com.team1160.assistant.hal.JoystickInput;
+import com.team1160.assistant.mechanisms.DriveMechanism;
+import com.team1160.assistant.mechanisms.PneumaticMechanism;
+import com.team1160.assistant.mechanisms.ShooterMechanism;
+import com.team1160.assistant.vision.Tracker;
+
+/**
+ * Every command the robot has, and which buttons and defaults they are
+ * bound to, built on the mechanisms and joystick it is given. CommandBase
+ * makes the robot's commands from this and HeadlessRobot makes the
+ * simulator's, so there is one copy of each to keep up to date.
+ *
+ * The methods are named after the command classes they replace, and each
+ * call makes a new action.
+ */
+public class RobotActions {
+
+    private final DriveMechanism drive;
+    private final PneumaticMechanism pneumatics;
+    private final ShooterMechanism shooter;
+    private final Tracker vision;
+    private final JoystickInput stick;
+
+    public RobotActions(DriveMechanism drive, PneumaticMechanism pneumatics, ShooterMechanism shooter,
+            Tracker vision, JoystickInput stick){
+        this.drive = drive;
+        this.pneumatics = pneumatics;
+        this.shooter = shooter;
+        this.vision = vision;
+        this.stick = stick;
+    }
+
+    /**
+     * Hands the binder the default commands and then the OI buttons, in the
+     * order the robot has always set them up.
+     */
+    public void bind(Binder binder){
+        binder.setDefault(arcadeDrive());
+        binder.setDefault(startCompressor());
+        binder.setDefault(neutral());
+        binder.setDefault(visionDoNothing());
+
+        binder.bind(RobotMap.EXTEND_PISTON_BUT, extendPiston());
+        binder.bind(RobotMap.RETRACT_PISTON_BUT, retractPiston());
+        binder.bind(RobotMap.ADD_TENSION_BUT, tensionAdd());
+        binder.bind(RobotMap.RELEASE_TENSION_BUT, tensionRelease());
+        binder.bind(RobotMap.LET_GO_BUT, tensionLetGo());
+        binder.bind(RobotMap.VISION_TRACK_BUT, visionCommand());
+        binder.bind(RobotMap.STOP_VISION_TRACK_BUT, visionDoNothing());
+    }
+
+    //---DRIVE---
+    public Action arcadeDrive(){
+        return new Action("arcadeDrive", Action.DRIVETRAIN){
+            public void execute(){
+                drive.arcadeDrive(stick.getX(), stick.getY());
+            }
+        };
+    }
+
+    //---PISTONS---
+    public Action extendPiston(){
+        return new Action("extendPiston", Action.PNEUMATICS){
+            public void initialize(){
+                pneumatics.extendPiston();
+            }
+
+            public boolean isFinished(){
+                return true;
+            }
+        };
+    }
+
+    public Action retractPiston(){
+        return new Action("retractPiston", Action.PNEUMATICS){
+            public void initialize(){
+                pneumatics.retractPiston();
+            }
+
+            public boolean isFinished(){
+                return true;
+            }
+        };
+    }
+
+    public Action startCompressor(){
+        return new Action("startCompressor", Action.PNEUMATICS){
+            public void initialize(){
+                pneumatics.start();
+            }
+
+            public boolean isFinished(){
+                return true;
+            }
+        };
+    }
+
+    //---SHOOTER---
+    public Action neutral(){
+        return new Action("neutral", Action.SHOOTER){
+            public void execute(){
+                shooter.neutral();
+            }
+        };
+    }
+
+    //A NEW SETPOINT FOR THE CONTROL LOOP, OR THE OPEN LOOP POWER WITHOUT THE POT
+    public Action tensionAdd(){
+        return new Action("tensionAdd", Action.SHOOTER){
+            public void initialize(){
+                shooter.addTension();
+            }
+        };
+    }
+
+    public Action tensionRelease(){
+        return new Action("tensionRelease", Action.SHOOTER){
+            public void initialize(){
+                shooter.releaseTension();
+            }
+        };
+    }
+
+    public Action tensionLetGo(){
+        return new Action("tensionLetGo", Action.SHOOTER){
+            public void execute(){
+                shooter.letGo();
+            }
+        };
+    }
+
+    //---VISION---
+    //THE VISION THREADS DO THE WORK, RESULTS ARE IN Vision.getLatest()
+    public Action visionCommand(){
+        return new Action("visionCommand", Action.VISION){
+            public void initialize(){
+                vision.startTracking();
+            }
+
+            public void end(){
+                vision.stopTracking();
+            }
+
+            public void interrupted(){
+                vision.stopTracking();
+            }
+        };
+    }
+
+    public Action visionDoNothing(){
+        return new Action("visionDoNothing", Action.VISION){
+            public void initialize(){
+                vision.stopTracking();
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.team1160.assistant.autonomous;
+
+import com.team1160.assistant.RobotMap;
+
+/**
+ * Everything the autonomous routine can be tuned by. Starts out with the
+ * RobotMap values; the parameter sweep in the tools tries other ones.
+ */
+public class AutonomousParams {
+
+    //DRIVE FORWARD INTO THE ZONE
+    public double driveSpeed = RobotMap.AUTO_DRIVE_SPEED;
+    public long driveMicros = RobotMap.AUTO_DRIVE_MICROS;
+
+    //WIND THE SHOOTER WHILE DRIVING, WITH tensionAdd
+    public long windMicros = RobotMap.AUTO_WIND_MICROS;
+
+    //FIRE, WITH tensionLetGo
+    public long fireMicros = RobotMap.AUTO_FIRE_MICROS;
+    public long hotTimeoutMicros = RobotMap.AUTO_HOT_TIMEOUT_MICROS;
+
+    public AutonomousParams copy(){
+        AutonomousParams p = new AutonomousParams();
+        p.driveSpeed = driveSpeed;
+        p.driveMicros = driveMicros;
+        p.windMicros = windMicros;
+        p.fireMicros = fireMicros;
+        p.hotTimeoutMicros = hotTimeoutMicros;
+        return p;
+    }
+
+    public String toString(){
+        return "drive " + driveSpeed + " for " + driveMicros / 1000 + "ms, wind for " + windMicros / 1000
+                + "ms, let go for " + fireMicros / 1000 + "ms, hot timeout " + hotTimeoutMicros / 1000 + "ms";
+    }
+}
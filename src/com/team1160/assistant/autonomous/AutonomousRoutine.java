@@ -0,0 +1,149 @@
+package com.team1160.assistant.autonomous;
+
+import com.team1160.assistant.actions.Action;
+import com.team1160.assistant.actions.RobotActions;
+import com.team1160.assistant.hal.JoystickInput;
+import com.team1160.assistant.mechanisms.DriveMechanism;
+import com.team1160.assistant.mechanisms.ShooterMechanism;
+import com.team1160.assistant.vision.TargetReport;
+
+/**
+ * One-ball autonomous: drive forward into the zone while winding the
+ * shooter, then fire as soon as the goal is called hot, or after the hot
+ * timeout if it never is.
+ *
+ * It runs the same actions as the teleop commands, from RobotActions:
+ * arcadeDrive on a joystick the routine pushes itself, and tensionAdd,
+ * neutral and tensionLetGo on the shooter. So the winch powers are the
+ * commands' own, and only the timing is tuned here.
+ *
+ * Works on mechanisms and is handed the time and the vision report every
+ * step, so it holds no references to singletons or clocks and any number of
+ * copies can run side by side in the simulator.
+ */
+public class AutonomousRoutine {
+
+    //STATES
+    public static final int DRIVING = 0;
+    public static final int WAITING = 1;
+    public static final int FIRING = 2;
+    public static final int DONE = 3;
+
+    //A HOT CALL OLDER THAN THIS IS IGNORED, MICROSECONDS
+    public static final long HOT_MAX_AGE = 500000;
+
+    private final AutonomousParams params;
+    private final Stick stick = new Stick();
+    private final Action drive;
+    private final Action wind;
+    private final Action neutral;
+    private final Action letGo;
+    private Action shooting;
+
+    private int state;
+    private long start = -1;
+    private long firedAt = -1;
+
+    public AutonomousRoutine(AutonomousParams params, DriveMechanism drive, ShooterMechanism shooter){
+        this.params = params;
+        //ONLY THE DRIVE AND SHOOTER ACTIONS ARE USED, THEY DON'T NEED PNEUMATICS OR VISION
+        RobotActions actions = new RobotActions(drive, null, shooter, null, stick);
+        this.drive = actions.arcadeDrive();
+        wind = actions.tensionAdd();
+        neutral = actions.neutral();
+        letGo = actions.tensionLetGo();
+    }
+
+    /**
+     * Call every packet during autonomous.
+     *
+     * @param now Microseconds, any clock as long as it is the same every call
+     * @param report The newest fused vision report
+     */
+    public void step(long now, TargetReport report){
+        step(now, isHot(report, now));
+    }
+
+    //TRUE IF THE REPORT CALLS THE GOAL HOT AND IS RECENT ENOUGH TO BELIEVE
+    public static boolean isHot(TargetReport report, long now){
+        return report.hotDecided && report.fusedHot && report.age(now) < HOT_MAX_AGE;
+    }
+
+    /**
+     * @param hot True once vision has called the goal in front of us hot
+     */
+    public void step(long now, boolean hot){
+        if(start < 0){
+            start = now;
+        }
+        long t = now - start;
+
+        switch(state){
+            case DRIVING:
+                stick.y = t < params.driveMicros ? -params.driveSpeed : 0;
+                shoot(t < params.windMicros ? wind : neutral);
+                if(t >= params.driveMicros && t >= params.windMicros){
+                    state = WAITING;
+                }
+                break;
+            case WAITING:
+                stick.y = 0;
+                shoot(neutral);
+                if(hot || t >= params.hotTimeoutMicros){
+                    state = FIRING;
+                    firedAt = t;
+                    shoot(letGo);
+                }
+                break;
+            case FIRING:
+                if(t - firedAt >= params.fireMicros){
+                    shoot(neutral);
+                    state = DONE;
+                }
+                break;
+            default:
+                break;
+        }
+        drive.execute();
+        shooting.execute();
+    }
+
+    //HANDS THE SHOOTER TO ANOTHER ACTION, THE WAY THE SCHEDULER WOULD
+    private void shoot(Action action){
+        if(action == shooting){
+            return;
+        }
+        if(shooting != null){
+            shooting.interrupted();
+        }
+        shooting = action;
+        action.initialize();
+    }
+
+    public int getState(){
+        return state;
+    }
+
+    //MICROSECONDS FROM THE FIRST STEP TO THE SHOT, -1 BEFORE IT
+    public long getFiredAt(){
+        return firedAt;
+    }
+
+    //WHAT THE ROUTINE HAS arcadeDrive DRIVING WITH
+    private static class Stick implements JoystickInput {
+
+        double y;
+
+        public double getX(){
+            return 0;
+        }
+
+        public double getY(){
+            return y;
+        }
+
+        public boolean getRawButton(int button){
+            return false;
+        }
+    }
+}
@@ -1,29 +1,177 @@
 package com.team1160.assistant.commands;
 
 import com.team1160.assistant.OI;
+import com.team1160.assistant.RobotMap;
+import com.team1160.assistant.actions.Action;
+import com.team1160.assistant.actions.Binder;
+import com.team1160.assistant.actions.RobotActions;
+import com.team1160.assistant.scheduler.FastCommand;
+import com.team1160.assistant.scheduler.FastScheduler;
 import com.team1160.assistant.subsystems.*;
+import com.team1160.assistant.util.Clock;
+import com.team1160.assistant.util.LatencyHistogram;
+import com.team1160.assistant.util.LoopProfiler;
+import com.team1160.assistant.util.MemoryWatchdog;
 import com.team1160.assistant.vision.Vision;
 import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Subsystem;
 
 /**
- * The base for all commands. All atomic commands should subclass CommandBase.
- * CommandBase stores creates and stores each control system. To access a
- * subsystem elsewhere in your code in your code use CommandBase.exampleSubsystem
+ * The WPILib side of every command. CommandBase creates and stores each
+ * control system, and init() makes one CommandBase per Action from
+ * RobotActions, bound to the buttons and defaults listed there. The actions
+ * hold what the commands do, without WPILib, so the simulator runs the same
+ * code; a CommandBase only passes Command's calls on to its action.
+ *
+ * execute() times the action's execute() into a histogram per command, see
+ * LoopProfiler, and marks it as what the robot is doing in case a GC pause
+ * hits, see MemoryWatchdog.
+ *
+ * Every command is also registered with a FastScheduler, with a resource bit
+ * for each subsystem it requires(). schedule() starts it on that when
+ * RobotMap.FAST_SCHEDULER is on and on the WPILib Scheduler when it isn't.
+ * The FastScheduler calls the command's methods directly and doesn't go
+ * through Command's own bookkeeping, so commands must not rely on
+ * isRunning(), timeouts or timeSinceInitialized().
  * @author Author
  */
-public abstract class CommandBase extends Command {
+public class CommandBase extends Command implements FastCommand {
 
     protected static Drivetrain drivetrain;
     protected static Pneumatics airsystem;
     protected static Shooter shoot;
     protected static Vision vision;
 
+    private static final FastScheduler scheduler = new FastScheduler(RobotMap.MAX_COMMANDS);
+    //INDEXED BY THE Action SUBSYSTEM CONSTANTS
+    private static final Subsystem[] subsystems = new Subsystem[Action.SUBSYSTEMS];
+    private static final CommandBase[] defaults = new CommandBase[Action.SUBSYSTEMS];
+
+    private final Action action;
+    private final int slot;
+    private int requirements;
+    private final LatencyHistogram executeTime;
+    private final int activity;
+
     public static void init() {
         
         drivetrain = Drivetrain.getInstance();
         airsystem = Pneumatics.getInstance();
         shoot = Shooter.getInstance();
         vision = Vision.getInstance();
-        OI.getInstance();
+        subsystems[Action.DRIVETRAIN] = drivetrain;
+        subsystems[Action.PNEUMATICS] = airsystem;
+        subsystems[Action.SHOOTER] = shoot;
+        subsystems[Action.VISION] = vision;
+        for(int i = 0; i < Action.SUBSYSTEMS; i++){
+            scheduler.addResource(subsystems[i]);
+        }
+        final OI oi = OI.getInstance();
+        RobotActions actions = new RobotActions(drivetrain.getMechanism(), airsystem.getMechanism(),
+                shoot.getMechanism(), vision, oi.getJoystick());
+        actions.bind(new Binder() {
+            //THE SUBSYSTEMS HAND THESE TO THE WPILIB SCHEDULER IN initDefaultCommand()
+            public void setDefault(Action action) {
+                CommandBase command = new CommandBase(action);
+                defaults[action.getSubsystem()] = command;
+                scheduler.setDefaultCommand(command.getSlot());
+            }
+
+            public void bind(int button, Action action) {
+                oi.bind(button, new CommandBase(action));
+            }
+        });
+    }
+
+    /**
+     * @param subsystem One of the Action subsystem constants
+     * @return The default command init() made for it
+     */
+    public static CommandBase getDefault(int subsystem) {
+        return defaults[subsystem];
+    }
+
+    public CommandBase(Action action) {
+        super(action.getName());
+        this.action = action;
+        slot = scheduler.register(this);
+        executeTime = LoopProfiler.forName(action.getName());
+        activity = MemoryWatchdog.define(action.getName());
+        requires(subsystems[action.getSubsystem()]);
+    }
+
+    public static FastScheduler getScheduler() {
+        return scheduler;
+    }
+
+    //STARTS THE COMMAND ON WHICHEVER SCHEDULER THE ROBOT IS USING
+    public final void schedule() {
+        if(RobotMap.FAST_SCHEDULER){
+            scheduler.start(slot);
+        } else {
+            start();
+        }
+    }
+
+    protected synchronized void requires(Subsystem subsystem) {
+        super.requires(subsystem);
+        requirements |= scheduler.getResourceBit(subsystem);
+    }
+
+    //THIS COMMAND'S SLOT IN getScheduler()
+    public final int getSlot() {
+        return slot;
+    }
+
+    public int getRequirements() {
+        return requirements;
+    }
+
+    public final void fastInitialize() {
+        initialize();
+    }
+
+    public final void fastExecute() {
+        execute();
+    }
+
+    public final boolean fastIsFinished() {
+        return isFinished();
+    }
+
+    public final void fastEnd() {
+        end();
+    }
+
+    public final void fastInterrupted() {
+        interrupted();
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    protected void initialize() {
+        action.initialize();
+    }
+
+    protected final void execute() {
+        long start = Clock.micros();
+        MemoryWatchdog.enter(activity);
+        action.execute();
+        MemoryWatchdog.enter(MemoryWatchdog.ROBOT_LOOP);
+        LoopProfiler.recordCommand(executeTime, Clock.micros() - start);
+    }
+
+    protected boolean isFinished() {
+        return action.isFinished();
+    }
+
+    protected void end() {
+        action.end();
+    }
+
+    protected void interrupted() {
+        action.interrupted();
     }
 }
\ No newline at end of file
@@ -0,0 +1,207 @@
+package com.team1160.assistant.commands;
+
+import com.team1160.assistant.actions.Action;
+import com.team1160.assistant.scheduler.FastCommand;
+import com.team1160.assistant.scheduler.FastScheduler;
+import com.team1160.assistant.util.Clock;
+import com.team1160.assistant.util.LatencyHistogram;
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Scheduler;
+import edu.wpi.first.wpilibj.command.Subsystem;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * Times a tick of the WPILib Scheduler against a tick of a FastScheduler with
+ * the same few hundred commands registered on both, for test mode on the
+ * robot. The commands do nothing but count, so what's timed is the
+ * schedulers. Every tick starts a couple of them, the way button presses
+ * would, from one precomputed sequence so both schedulers see the same
+ * starts, interruptions and finishes.
+ *
+ * Memory use is Runtime.freeMemory() before and after each run with a gc()
+ * first, so it's only a rough count of what the run allocated.
+ *
+ * The robot's own subsystems are registered with the same Scheduler, so the
+ * stock run also runs their default commands. The fast run registers the
+ * same default commands, so both tick the same set; outputs aren't flushed
+ * in test mode so nothing moves. Call it after CommandBase.init().
+ */
+public class SchedulerBenchmark {
+
+    private static final int SUBSYSTEMS = 8;
+    private static final int STARTS_PER_TICK = 2;
+
+    private final BenchCommand[] commands;
+    private final FastScheduler fast;
+    private final int[] starts;
+    private final int ticks;
+
+    public SchedulerBenchmark(int commandCount, int ticks){
+        this.ticks = ticks;
+        fast = new FastScheduler(commandCount + Action.SUBSYSTEMS);
+        //THE ROBOT'S SUBSYSTEMS FIRST, SO THE BITS MATCH THE ONES ITS DEFAULT COMMANDS GOT IN CommandBase
+        for(int i = 0; i < Action.SUBSYSTEMS; i++){
+            fast.addResource(CommandBase.getScheduler().getResource(i));
+            fast.setDefaultCommand(fast.register(CommandBase.getDefault(i)));
+        }
+        BenchSubsystem[] subsystems = new BenchSubsystem[SUBSYSTEMS];
+        int[] bits = new int[SUBSYSTEMS];
+        for(int i = 0; i < SUBSYSTEMS; i++){
+            subsystems[i] = new BenchSubsystem();
+            bits[i] = fast.addResource(subsystems[i]);
+        }
+        //ONE SUBSYSTEM EACH, EVERY THIRD ONE A SECOND, RUNNING FOR 1 TO 5 TICKS
+        commands = new BenchCommand[commandCount];
+        for(int i = 0; i < commandCount; i++){
+            BenchCommand c = new BenchCommand(i % 5 + 1);
+            c.need(subsystems[i % SUBSYSTEMS], bits[i % SUBSYSTEMS]);
+            if(i % 3 == 0){
+                int second = (i / SUBSYSTEMS + 1 + i) % SUBSYSTEMS;
+                c.need(subsystems[second], bits[second]);
+            }
+            c.slot = fast.register(c);
+            commands[i] = c;
+        }
+        Random random = new Random(1160);
+        starts = new int[ticks * STARTS_PER_TICK];
+        for(int i = 0; i < starts.length; i++){
+            starts[i] = random.nextInt(commandCount);
+        }
+    }
+
+    public void run(PrintStream out){
+        out.println("---SCHEDULER BENCHMARK--- " + commands.length + " commands on " + SUBSYSTEMS
+                + " subsystems, " + ticks + " ticks, " + STARTS_PER_TICK + " starts per tick");
+        LatencyHistogram stock = new LatencyHistogram("Scheduler tick");
+        long stockBytes = runStock(stock);
+        long stockExecutes = executes();
+        LatencyHistogram quick = new LatencyHistogram("FastScheduler tick");
+        long quickBytes = runFast(quick);
+        out.println(stock.summary() + ", about " + stockBytes + " bytes, " + stockExecutes + " executes");
+        out.println(quick.summary() + ", about " + quickBytes + " bytes, " + executes() + " executes");
+    }
+
+    private long runStock(LatencyHistogram time){
+        Scheduler scheduler = Scheduler.getInstance();
+        //LIVEWINDOW TURNS THE SCHEDULER OFF IN TEST MODE
+        scheduler.enable();
+        reset();
+        long free = freeMemory();
+        int next = 0;
+        for(int t = 0; t < ticks; t++){
+            long start = Clock.micros();
+            for(int i = 0; i < STARTS_PER_TICK; i++){
+                commands[starts[next++]].start();
+            }
+            scheduler.run();
+            time.record(Clock.micros() - start);
+        }
+        long used = free - Runtime.getRuntime().freeMemory();
+        scheduler.removeAll();
+        scheduler.disable();
+        return used;
+    }
+
+    private long runFast(LatencyHistogram time){
+        reset();
+        long free = freeMemory();
+        int next = 0;
+        for(int t = 0; t < ticks; t++){
+            long start = Clock.micros();
+            for(int i = 0; i < STARTS_PER_TICK; i++){
+                fast.start(commands[starts[next++]].slot);
+            }
+            fast.run();
+            time.record(Clock.micros() - start);
+        }
+        long used = free - Runtime.getRuntime().freeMemory();
+        fast.cancelAll();
+        return used;
+    }
+
+    private void reset(){
+        for(int i = 0; i < commands.length; i++){
+            commands[i].executes = 0;
+        }
+    }
+
+    private long executes(){
+        long total = 0;
+        for(int i = 0; i < commands.length; i++){
+            total += commands[i].executes;
+        }
+        return total;
+    }
+
+    private static long freeMemory(){
+        System.gc();
+        return Runtime.getRuntime().freeMemory();
+    }
+
+    private static class BenchSubsystem extends Subsystem {
+
+        protected void initDefaultCommand(){
+        }
+    }
+
+    //RUNS FOR length EXECUTES, OR UNTIL SOMETHING TAKES ITS SUBSYSTEMS
+    private static class BenchCommand extends Command implements FastCommand {
+
+        private final int length;
+        private int requirements;
+        int slot;
+        int left;
+        long executes;
+
+        BenchCommand(int length){
+            this.length = length;
+        }
+
+        void need(Subsystem subsystem, int bit){
+            requires(subsystem);
+            requirements |= bit;
+        }
+
+        protected void initialize(){
+            left = length;
+        }
+
+        protected void execute(){
+            left--;
+            executes++;
+        }
+
+        protected boolean isFinished(){
+            return left <= 0;
+        }
+
+        protected void end(){
+        }
+
+        protected void interrupted(){
+        }
+
+        public int getRequirements(){
+            return requirements;
+        }
+
+        public void fastInitialize(){
+            initialize();
+        }
+
+        public void fastExecute(){
+            execute();
+        }
+
+        public boolean fastIsFinished(){
+            return isFinished();
+        }
+
+        public void fastEnd(){
+        }
+
+        public void fastInterrupted(){
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.team1160.assistant.control;
+
+/**
+ * Something a PeriodicLoop runs every period, on the loop's thread. update()
+ * must be quick and must not allocate or block, everything else on the loop
+ * waits for it.
+ */
+public interface ControlTask {
+
+    /**
+     * @param now Microseconds
+     * @param dt Seconds since the previous update(), the loop period on the
+     * first
+     */
+    public void update(long now, double dt);
+}
@@ -0,0 +1,75 @@
+package com.team1160.assistant.control;
+
+/**
+ * PID with a feedforward term proportional to the setpoint. Keeps a few
+ * doubles between calls and never allocates, so it can run in the control
+ * loop.
+ *
+ * The derivative is taken on the measurement, not the error, so a setpoint
+ * change doesn't kick the output, and the integral stops growing while the
+ * output is pinned at a limit so it doesn't wind up.
+ *
+ * Not synchronized, call from one thread.
+ */
+public class PIDController {
+
+    private final double kP, kI, kD, kF;
+    private double minOutput = -1, maxOutput = 1;
+
+    private double integral;
+    private double lastMeasurement;
+    private boolean first = true;
+    private double error;
+
+    public PIDController(double kP, double kI, double kD, double kF){
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+        this.kF = kF;
+    }
+
+    public void setOutputRange(double min, double max){
+        minOutput = min;
+        maxOutput = max;
+    }
+
+    /**
+     * @param dt Seconds since the last call
+     * @return The output, within the output range
+     */
+    public double calculate(double setpoint, double measurement, double dt){
+        error = setpoint - measurement;
+        double derivative = 0;
+        if(!first && dt > 0){
+            derivative = -(measurement - lastMeasurement) / dt;
+        }
+        first = false;
+        lastMeasurement = measurement;
+
+        double grown = integral + error * dt;
+        double raw = kF * setpoint + kP * error + kI * grown + kD * derivative;
+        double out = raw;
+        if(out > maxOutput){
+            out = maxOutput;
+        } else if(out < minOutput){
+            out = minOutput;
+        }
+        //ONLY INTEGRATE WHILE UNSATURATED, OR WHEN THE ERROR PULLS BACK OFF THE LIMIT
+        if(out == raw || (raw > maxOutput && error < 0) || (raw < minOutput && error > 0)){
+            integral = grown;
+        }
+        return out;
+    }
+
+    //FORGETS THE INTEGRAL AND THE LAST MEASUREMENT, FOR A NEW SETPOINT OR AFTER A PAUSE
+    public void reset(){
+        integral = 0;
+        error = 0;
+        first = true;
+    }
+
+    //SETPOINT MINUS MEASUREMENT AT THE LAST calculate()
+    public double getError(){
+        return error;
+    }
+}
@@ -0,0 +1,211 @@
+package com.team1160.assistant.control;
+
+import com.team1160.assistant.util.Clock;
+import com.team1160.assistant.util.EventLog;
+import com.team1160.assistant.util.EventRing;
+import com.team1160.assistant.util.LatencyHistogram;
+import java.io.PrintStream;
+import java.util.Vector;
+
+/**
+ * Runs ControlTasks at a fixed rate on a thread of its own at the highest
+ * priority, so closed-loop control keeps its timing whatever the scheduler,
+ * vision or the driver station packets are doing.
+ *
+ * Ticks are due on a fixed grid, one period after the last one was due and
+ * not one period after it ran, so a late tick doesn't push the rest back.
+ * The VM only sleeps in whole milliseconds and the loop rounds up, so a tick
+ * can start up to a millisecond late; how late each one started is recorded
+ * as jitter. A tick that runs past the next one's start is an overrun, and
+ * periods missed completely are skipped instead of run back to back.
+ *
+ * The grid is only trusted while the clock behaves. If it goes backwards, or
+ * a tick comes due more than RESYNC_PERIODS periods late, the grid starts
+ * again from now, and the loop never sleeps longer than one period, so a
+ * clock that jumps can't park the thread with the motors left running.
+ *
+ * The statistics are written only by the loop thread. Reading them from
+ * another thread gives a slightly stale but usable answer, and reset() is
+ * carried out by the loop at its next tick.
+ *
+ * tick() runs the tasks once without the thread, for the simulator.
+ */
+public class PeriodicLoop implements Runnable {
+
+    private static final int OVERRUN = EventLog.define(EventLog.CONTROL, EventLog.WARN,
+            "control loop overrun: tick took {i}us, {i} periods skipped");
+    private static final int RESYNC = EventLog.define(EventLog.CONTROL, EventLog.WARN,
+            "control loop clock jumped {i}us from the tick due, starting the grid again");
+
+    //THIS MANY PERIODS LATE AND THE GRID IS STARTED AGAIN
+    private static final int RESYNC_PERIODS = 4;
+
+    private final String name;
+    private final long period;
+    private final Vector tasks = new Vector();
+    private ControlTask[] run = new ControlTask[0];
+
+    private final LatencyHistogram jitter;
+    private final LatencyHistogram work;
+    private EventRing log = EventRing.DISCARD;
+    private long last = -1;
+    private long ticks, overruns, skipped;
+    private long lastJitter, lastWork;
+    private volatile boolean resetPending;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param periodMicros Time from one tick to the next
+     */
+    public PeriodicLoop(String name, long periodMicros){
+        this.name = name;
+        this.period = periodMicros;
+        jitter = new LatencyHistogram(name + " jitter");
+        work = new LatencyHistogram(name + " tick");
+    }
+
+    //RUN IN THE ORDER ADDED
+    public synchronized void add(ControlTask task){
+        tasks.addElement(task);
+        ControlTask[] r = new ControlTask[tasks.size()];
+        tasks.copyInto(r);
+        run = r;
+    }
+
+    /**
+     * Sends overrun warnings to a ring of its own. Until this is called they
+     * are only counted.
+     */
+    public void setLog(EventRing ring){
+        log = ring;
+    }
+
+    public synchronized void start(){
+        if(running){
+            return;
+        }
+        running = true;
+        thread = new Thread(this, name);
+        //ABOVE THE MAIN ROBOT THREAD AND EVERYTHING ELSE
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    public synchronized void stop(){
+        running = false;
+    }
+
+    public boolean isRunning(){
+        return running;
+    }
+
+    public void run(){
+        long due = Clock.micros();
+        last = -1;
+        while(running){
+            long now = Clock.micros();
+            long wait = due - now;
+            if(wait > period || wait < -RESYNC_PERIODS * period){
+                log.log(RESYNC, -wait);
+                due = now;
+                wait = 0;
+            }
+            if(wait > 0){
+                try {
+                    //NEVER MORE THAN A PERIOD, WHATEVER THE CLOCK SAYS
+                    Thread.sleep((Math.min(wait, period) + 999) / 1000);
+                } catch (InterruptedException ex) {
+                }
+                continue;
+            }
+            lastJitter = now - due;
+            tick(now);
+            long end = Clock.micros();
+            lastWork = end - now;
+            jitter.record(lastJitter);
+            work.record(lastWork);
+            due += period;
+            if(end > due){
+                overruns++;
+                long missed = (end - due) / period;
+                skipped += missed;
+                due += missed * period;
+                log.log(OVERRUN, lastWork, missed);
+            }
+        }
+    }
+
+    /**
+     * Runs every task once.
+     *
+     * @param now Microseconds
+     */
+    public void tick(long now){
+        if(resetPending){
+            resetPending = false;
+            jitter.reset();
+            work.reset();
+            ticks = overruns = skipped = 0;
+        }
+        double dt = last < 0 ? period / 1e6 : (now - last) / 1e6;
+        last = now;
+        ControlTask[] r = run;
+        for(int i = 0; i < r.length; i++){
+            r[i].update(now, dt);
+        }
+        ticks++;
+    }
+
+    //CLEARS THE STATISTICS AT THE NEXT TICK, AT THE START OF A MATCH
+    public void reset(){
+        resetPending = true;
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    public long getPeriod(){
+        return period;
+    }
+
+    //HOW LATE EACH TICK STARTED, MICROSECONDS
+    public LatencyHistogram getJitter(){
+        return jitter;
+    }
+
+    //HOW LONG EACH TICK RAN, MICROSECONDS
+    public LatencyHistogram getWork(){
+        return work;
+    }
+
+    public long getTicks(){
+        return ticks;
+    }
+
+    //TICKS THAT RAN INTO THE NEXT ONE, AND PERIODS LOST TO THEM
+    public long getOverruns(){
+        return overruns;
+    }
+
+    public long getSkipped(){
+        return skipped;
+    }
+
+    public long getLastJitter(){
+        return lastJitter;
+    }
+
+    public long getLastWork(){
+        return lastWork;
+    }
+
+    public void dump(PrintStream out){
+        out.println("---" + name.toUpperCase() + " LOOP--- " + ticks + " ticks of " + period + "us, "
+                + overruns + " overruns, " + skipped + " periods skipped");
+        out.println(jitter.summary());
+        out.println(work.summary());
+    }
+}
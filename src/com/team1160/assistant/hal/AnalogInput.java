@@ -0,0 +1,10 @@
+package com.team1160.assistant.hal;
+
+/**
+ * An analog sensor on the analog module, like a potentiometer, read in
+ * volts (0 to 5).
+ */
+public interface AnalogInput {
+
+    public double getVoltage();
+}
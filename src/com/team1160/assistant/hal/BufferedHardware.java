@@ -0,0 +1,249 @@
+package com.team1160.assistant.hal;
+
+import com.team1160.assistant.util.Clock;
+import com.team1160.assistant.util.LatencyHistogram;
+import java.util.Vector;
+
+/**
+ * Wraps another RobotHardware so that outputs only remember what they were
+ * told during a tick, and flush() writes them all out together at the end of
+ * it, in the order they were created. An output that ends the tick where it
+ * was last written, or a motor within the deadband of it, isn't written at
+ * all, and several sets in one tick become one write. Reads see the value
+ * last set, written or not.
+ *
+ * A motor being told to stop is always written, however small the change,
+ * and every refreshTicks ticks everything is written regardless in case a
+ * write went missing.
+ *
+ * With an input source set, every set() is tagged with the timestamp of the
+ * joystick snapshot current at the time, and each write that goes out
+ * records how long ago that snapshot was taken: the input to actuator
+ * latency.
+ *
+ * Joysticks and analog inputs pass straight through, and so does
+ * unbuffered(), for outputs driven from another thread. Only the main robot
+ * thread should set the buffered outputs and flush.
+ */
+public class BufferedHardware extends RobotHardware {
+
+    private final RobotHardware hardware;
+    private final double deadband;
+    private final int refreshTicks;
+    private final Vector outputs = new Vector();
+    private Buffered[] order = new Buffered[0];
+
+    private InputSampler input;
+    private LatencyHistogram inputLatency;
+
+    private int tick;
+    private long requested, written, saved;
+
+    /**
+     * @param deadband Smallest motor change worth a write
+     * @param refreshTicks Write everything every this many flushes, 0 never
+     */
+    public BufferedHardware(RobotHardware hardware, double deadband, int refreshTicks){
+        this.hardware = hardware;
+        this.deadband = deadband;
+        this.refreshTicks = refreshTicks;
+    }
+
+    public MotorOutput motor(int slot, int channel){
+        return (MotorOutput) add(new BufferedMotor(hardware.motor(slot, channel)));
+    }
+
+    public SolenoidOutput solenoid(int channel){
+        return (SolenoidOutput) add(new BufferedSolenoid(hardware.solenoid(channel)));
+    }
+
+    public CompressorOutput compressor(int pressureSwitchChannel, int relayChannel){
+        return (CompressorOutput) add(new BufferedCompressor(hardware.compressor(pressureSwitchChannel, relayChannel)));
+    }
+
+    public JoystickInput joystick(int port){
+        return hardware.joystick(port);
+    }
+
+    public AnalogInput analog(int channel){
+        return hardware.analog(channel);
+    }
+
+    public RobotHardware unbuffered(){
+        return hardware.unbuffered();
+    }
+
+    /**
+     * Tags writes with the snapshots of this sampler from now on and records
+     * their latency into the histogram. Pass null when the outputs aren't
+     * driven by the joystick, like in autonomous.
+     */
+    public void setInputSource(InputSampler input, LatencyHistogram inputLatency){
+        this.input = input;
+        this.inputLatency = inputLatency;
+    }
+
+    //TIMESTAMP OF THE SNAPSHOT A set() NOW COMES FROM, -1 FOR NONE
+    long inputStamp(){
+        InputSampler in = input;
+        return in == null ? -1 : in.getTimestamp();
+    }
+
+    private synchronized Buffered add(Buffered b){
+        outputs.addElement(b);
+        order = new Buffered[outputs.size()];
+        outputs.copyInto(order);
+        return b;
+    }
+
+    /**
+     * Writes this tick's changes to the real outputs. Call once at the end of
+     * every periodic method.
+     */
+    public void flush(){
+        tick++;
+        boolean refresh = refreshTicks > 0 && tick % refreshTicks == 0;
+        LatencyHistogram latency = input == null ? null : inputLatency;
+        long now = latency == null ? 0 : Clock.micros();
+        Buffered[] o = order;
+        for(int i = 0; i < o.length; i++){
+            Buffered b = o[i];
+            int requests = b.requests;
+            b.requests = 0;
+            boolean wrote = b.flush(refresh || b.neverWritten);
+            if(wrote){
+                b.neverWritten = false;
+                written++;
+                if(latency != null && b.stamp >= 0 && requests > 0){
+                    latency.record(now - b.stamp);
+                }
+            }
+            if(requests > 0){
+                requested += requests;
+                saved += wrote ? requests - 1 : requests;
+            }
+        }
+    }
+
+    //SET CALLS MADE, WRITES ACTUALLY DONE, AND SET CALLS THAT NEEDED NO WRITE
+    public long getRequested(){
+        return requested;
+    }
+
+    public long getWritten(){
+        return written;
+    }
+
+    public long getSaved(){
+        return saved;
+    }
+
+    public String toString(){
+        return "outputs: " + requested + " sets, " + written + " writes, " + saved + " saved";
+    }
+
+    private abstract class Buffered {
+        int requests;
+        boolean neverWritten = true;
+        long stamp = -1;
+
+        void request(){
+            requests++;
+            stamp = inputStamp();
+        }
+
+        //WRITE IF CHANGED (OR forced), TRUE IF IT WROTE
+        abstract boolean flush(boolean force);
+    }
+
+    private class BufferedMotor extends Buffered implements MotorOutput {
+        private final MotorOutput out;
+        private double value, last;
+
+        BufferedMotor(MotorOutput out){
+            this.out = out;
+        }
+
+        public void set(double speed){
+            value = speed;
+            request();
+        }
+
+        public double get(){
+            return value;
+        }
+
+        boolean flush(boolean force){
+            double change = value - last;
+            if(!force && (change == 0 || (value != 0 && change < deadband && change > -deadband))){
+                return false;
+            }
+            out.set(value);
+            last = value;
+            return true;
+        }
+    }
+
+    private class BufferedSolenoid extends Buffered implements SolenoidOutput {
+        private final SolenoidOutput out;
+        private boolean value, last;
+
+        BufferedSolenoid(SolenoidOutput out){
+            this.out = out;
+        }
+
+        public void set(boolean on){
+            value = on;
+            request();
+        }
+
+        public boolean get(){
+            return value;
+        }
+
+        boolean flush(boolean force){
+            if(!force && value == last){
+                return false;
+            }
+            out.set(value);
+            last = value;
+            return true;
+        }
+    }
+
+    private class BufferedCompressor extends Buffered implements CompressorOutput {
+        private final CompressorOutput out;
+        private boolean value, last;
+
+        BufferedCompressor(CompressorOutput out){
+            this.out = out;
+        }
+
+        public void start(){
+            value = true;
+            request();
+        }
+
+        public void stop(){
+            value = false;
+            request();
+        }
+
+        public boolean enabled(){
+            return value;
+        }
+
+        boolean flush(boolean force){
+            if(!force && value == last){
+                return false;
+            }
+            if(value){
+                out.start();
+            } else {
+                out.stop();
+            }
+            last = value;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.team1160.assistant.hal;
+
+/**
+ * Told about button edges by InputSampler, once per edge.
+ */
+public interface ButtonListener {
+
+    /**
+     * @param pressed True on the press, false on the release
+     * @param timestamp When the sample that saw it was taken, microseconds
+     */
+    public void buttonChanged(int button, boolean pressed, long timestamp);
+}
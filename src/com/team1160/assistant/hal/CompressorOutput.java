@@ -0,0 +1,13 @@
+package com.team1160.assistant.hal;
+
+/**
+ * A compressor run off its pressure switch once started.
+ */
+public interface CompressorOutput {
+
+    public void start();
+
+    public void stop();
+
+    public boolean enabled();
+}
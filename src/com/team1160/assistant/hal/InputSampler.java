@@ -0,0 +1,101 @@
+package com.team1160.assistant.hal;
+
+import java.util.Vector;
+
+/**
+ * Reads a joystick once per tick into a snapshot so everything that runs in
+ * that tick sees the same input, and knows how old it is. Reads through this
+ * class come from the snapshot, never from the joystick itself.
+ *
+ * Buttons are kept as a bit mask. Each sample compares it with the previous
+ * one and hands every press and release to the listeners, so bindings react
+ * to edges instead of polling every button every tick.
+ */
+public class InputSampler implements JoystickInput {
+
+    public static final int BUTTONS = 12;
+
+    private final JoystickInput stick;
+    private final Vector listeners = new Vector();
+    private ButtonListener[] dispatch = new ButtonListener[0];
+
+    private double x, y;
+    private int buttons, pressed, released;
+    private long timestamp = -1;
+    private long sequence;
+
+    public InputSampler(JoystickInput stick){
+        this.stick = stick;
+    }
+
+    /**
+     * Takes a new snapshot and fires the button edges since the last one.
+     *
+     * @param now Microseconds, stored as the snapshot's timestamp
+     */
+    public void sample(long now){
+        x = stick.getX();
+        y = stick.getY();
+        int b = 0;
+        for(int i = 1; i <= BUTTONS; i++){
+            if(stick.getRawButton(i)){
+                b |= 1 << i;
+            }
+        }
+        pressed = b & ~buttons;
+        released = buttons & ~b;
+        buttons = b;
+        timestamp = now;
+        sequence++;
+
+        int changed = pressed | released;
+        if(changed != 0){
+            ButtonListener[] d = dispatch;
+            for(int i = 1; i <= BUTTONS; i++){
+                if((changed & (1 << i)) == 0){
+                    continue;
+                }
+                boolean down = (pressed & (1 << i)) != 0;
+                for(int j = 0; j < d.length; j++){
+                    d[j].buttonChanged(i, down, now);
+                }
+            }
+        }
+    }
+
+    public synchronized void addListener(ButtonListener listener){
+        listeners.addElement(listener);
+        dispatch = new ButtonListener[listeners.size()];
+        listeners.copyInto(dispatch);
+    }
+
+    public double getX(){
+        return x;
+    }
+
+    public double getY(){
+        return y;
+    }
+
+    public boolean getRawButton(int button){
+        return button > 0 && button <= BUTTONS && (buttons & (1 << button)) != 0;
+    }
+
+    //EDGES FROM THE LAST SAMPLE ONLY
+    public boolean wasPressed(int button){
+        return (pressed & (1 << button)) != 0;
+    }
+
+    public boolean wasReleased(int button){
+        return (released & (1 << button)) != 0;
+    }
+
+    //MICROSECONDS, -1 BEFORE THE FIRST SAMPLE
+    public long getTimestamp(){
+        return timestamp;
+    }
+
+    public long getSequence(){
+        return sequence;
+    }
+}
@@ -0,0 +1,14 @@
+package com.team1160.assistant.hal;
+
+/**
+ * The parts of a joystick the robot reads. Buttons are numbered from 1 like
+ * on the driver station.
+ */
+public interface JoystickInput {
+
+    public double getX();
+
+    public double getY();
+
+    public boolean getRawButton(int button);
+}
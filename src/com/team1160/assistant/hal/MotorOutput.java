@@ -0,0 +1,11 @@
+package com.team1160.assistant.hal;
+
+/**
+ * A speed controller, -1 to 1.
+ */
+public interface MotorOutput {
+
+    public void set(double speed);
+
+    public double get();
+}
@@ -0,0 +1,44 @@
+package com.team1160.assistant.hal;
+
+/**
+ * Makes every motor controller, solenoid, compressor and joystick the robot
+ * uses. Subsystems ask the installed instance for their hardware instead of
+ * constructing WPILib classes, so a simulator can install its own before
+ * anything is built. On the robot nothing needs installing, the first
+ * getInstance() falls back to the real WPILib hardware.
+ */
+public abstract class RobotHardware {
+
+    private static RobotHardware instance;
+
+    public static synchronized RobotHardware getInstance(){
+        if(instance == null){
+            instance = new WPILibHardware();
+        }
+        return instance;
+    }
+
+    //CALL BEFORE ANY SUBSYSTEM OR MECHANISM IS CREATED
+    public static synchronized void setInstance(RobotHardware hardware){
+        instance = hardware;
+    }
+
+    public abstract MotorOutput motor(int slot, int channel);
+
+    public abstract SolenoidOutput solenoid(int channel);
+
+    public abstract CompressorOutput compressor(int pressureSwitchChannel, int relayChannel);
+
+    public abstract JoystickInput joystick(int port);
+
+    public abstract AnalogInput analog(int channel);
+
+    /**
+     * Hardware for outputs written from a thread of their own, like the
+     * control loop, that can't wait for the main thread to flush them. The
+     * same as this unless this buffers.
+     */
+    public RobotHardware unbuffered(){
+        return this;
+    }
+}
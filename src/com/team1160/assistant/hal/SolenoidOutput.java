@@ -0,0 +1,11 @@
+package com.team1160.assistant.hal;
+
+/**
+ * A single solenoid valve.
+ */
+public interface SolenoidOutput {
+
+    public void set(boolean on);
+
+    public boolean get();
+}
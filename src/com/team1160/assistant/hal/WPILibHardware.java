@@ -0,0 +1,121 @@
+package com.team1160.assistant.hal;
+
+import edu.wpi.first.wpilibj.AnalogChannel;
+import edu.wpi.first.wpilibj.Compressor;
+import edu.wpi.first.wpilibj.Jaguar;
+import edu.wpi.first.wpilibj.Joystick;
+import edu.wpi.first.wpilibj.Solenoid;
+
+/**
+ * The real hardware on the cRIO: Jaguars, solenoids and the compressor on the
+ * digital sidecar, sensors on the analog module, joysticks from the driver
+ * station. Each adapter just
+ * forwards to the WPILib object.
+ */
+public class WPILibHardware extends RobotHardware {
+
+    public MotorOutput motor(int slot, int channel){
+        return new JaguarOutput(new Jaguar(slot, channel));
+    }
+
+    public SolenoidOutput solenoid(int channel){
+        return new WPILibSolenoid(new Solenoid(channel));
+    }
+
+    public CompressorOutput compressor(int pressureSwitchChannel, int relayChannel){
+        return new WPILibCompressor(new Compressor(pressureSwitchChannel, relayChannel));
+    }
+
+    public JoystickInput joystick(int port){
+        return new WPILibJoystick(new Joystick(port));
+    }
+
+    public AnalogInput analog(int channel){
+        return new WPILibAnalog(new AnalogChannel(channel));
+    }
+
+    private static class JaguarOutput implements MotorOutput {
+        private final Jaguar jaguar;
+
+        JaguarOutput(Jaguar jaguar){
+            this.jaguar = jaguar;
+        }
+
+        public void set(double speed){
+            jaguar.set(speed);
+        }
+
+        public double get(){
+            return jaguar.get();
+        }
+    }
+
+    private static class WPILibSolenoid implements SolenoidOutput {
+        private final Solenoid solenoid;
+
+        WPILibSolenoid(Solenoid solenoid){
+            this.solenoid = solenoid;
+        }
+
+        public void set(boolean on){
+            solenoid.set(on);
+        }
+
+        public boolean get(){
+            return solenoid.get();
+        }
+    }
+
+    private static class WPILibCompressor implements CompressorOutput {
+        private final Compressor compressor;
+
+        WPILibCompressor(Compressor compressor){
+            this.compressor = compressor;
+        }
+
+        public void start(){
+            compressor.start();
+        }
+
+        public void stop(){
+            compressor.stop();
+        }
+
+        public boolean enabled(){
+            return compressor.enabled();
+        }
+    }
+
+    private static class WPILibJoystick implements JoystickInput {
+        private final Joystick stick;
+
+        WPILibJoystick(Joystick stick){
+            this.stick = stick;
+        }
+
+        public double getX(){
+            return stick.getX();
+        }
+
+        public double getY(){
+            return stick.getY();
+        }
+
+        public boolean getRawButton(int button){
+            return stick.getRawButton(button);
+        }
+    }
+
+    private static class WPILibAnalog implements AnalogInput {
+        private final AnalogChannel channel;
+
+        WPILibAnalog(AnalogChannel channel){
+            this.channel = channel;
+        }
+
+        public double getVoltage(){
+            //OVERSAMPLED AND AVERAGED BY THE FPGA, QUIETER THAN ONE SAMPLE
+            return channel.getAverageVoltage();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.team1160.assistant.mechanisms;
+
+import com.team1160.assistant.RobotMap;
+import com.team1160.assistant.hal.MotorOutput;
+import com.team1160.assistant.hal.RobotHardware;
+
+/**
+ * The drive base without the WPILib Subsystem around it, so the same code
+ * runs on the robot through Drivetrain and in the simulator.
+ */
+public class DriveMechanism {
+
+    protected final MotorOutput left, right;
+
+    public DriveMechanism(MotorOutput left, MotorOutput right){
+        this.left = left;
+        this.right = right;
+    }
+
+    //THE DRIVE MOTORS AS WIRED IN RobotMap
+    public static DriveMechanism create(RobotHardware hw){
+        MotorOutput right = hw.motor(RobotMap.LEFT_JAG_MOTOR_SLOT, RobotMap.LEFT_JAG_MOTOR_CHAN);
+        MotorOutput left = hw.motor(RobotMap.RIGHT_JAG_MOTOR_SLOT, RobotMap.LEFT_JAG_MOTOR_CHAN);
+        return new DriveMechanism(left, right);
+    }
+
+    //STANDARD DRIVE CODE
+    public void arcadeDrive(double x, double y){
+        left.set(x - y);
+        right.set(x + y);
+    }
+
+    public void stop(){
+        left.set(0);
+        right.set(0);
+    }
+
+    //WHAT THE MOTORS WERE LAST SET TO
+    public double getLeft(){
+        return left.get();
+    }
+
+    public double getRight(){
+        return right.get();
+    }
+}
@@ -0,0 +1,49 @@
+package com.team1160.assistant.mechanisms;
+
+import com.team1160.assistant.RobotMap;
+import com.team1160.assistant.hal.CompressorOutput;
+import com.team1160.assistant.hal.RobotHardware;
+import com.team1160.assistant.hal.SolenoidOutput;
+
+/**
+ * Compressor and the two solenoids driving the piston, behind the Pneumatics
+ * subsystem.
+ */
+public class PneumaticMechanism {
+
+    protected final CompressorOutput compressor;
+    protected final SolenoidOutput extend, retract;
+
+    public PneumaticMechanism(CompressorOutput compressor, SolenoidOutput extend, SolenoidOutput retract){
+        this.compressor = compressor;
+        this.extend = extend;
+        this.retract = retract;
+    }
+
+    public static PneumaticMechanism create(RobotHardware hw){
+        return new PneumaticMechanism(hw.compressor(RobotMap.COMPRESSOR_SWITCH_CHAN, RobotMap.COMPRESSOR_SWITCH_CHAN),
+                hw.solenoid(RobotMap.SOLENOID_ONE), hw.solenoid(RobotMap.SOLENOID_TWO));
+    }
+
+    public void extendPiston(){
+        extend.set(true);
+        retract.set(false);
+    }
+
+    public void retractPiston(){
+        extend.set(false);
+        retract.set(true);
+    }
+
+    public void start(){
+        compressor.start();
+    }
+
+    public boolean isExtended(){
+        return extend.get();
+    }
+
+    public boolean isCompressorEnabled(){
+        return compressor.enabled();
+    }
+}
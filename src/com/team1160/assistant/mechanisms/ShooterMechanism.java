@@ -0,0 +1,170 @@
+package com.team1160.assistant.mechanisms;
+
+import com.team1160.assistant.RobotMap;
+import com.team1160.assistant.control.ControlTask;
+import com.team1160.assistant.control.PIDController;
+import com.team1160.assistant.hal.AnalogInput;
+import com.team1160.assistant.hal.MotorOutput;
+import com.team1160.assistant.hal.RobotHardware;
+
+/**
+ * The tensioning motor behind the Shooter subsystem, and the pot on the
+ * winch that measures the tension.
+ *
+ * Nothing here writes the motor directly. Commands and autonomous ask for a
+ * tension (closed loop, through a PID on the pot) or a power (open loop),
+ * and update() works out the output and writes it, from the control loop's
+ * thread. So the motor comes from the unbuffered hardware, and is only
+ * written when the output changes.
+ *
+ * Closed loop is only used when it was allowed at construction
+ * (RobotMap.TENSION_CLOSED_LOOP); otherwise the tension buttons run the winch
+ * open loop at ADD_TENSION and RELEASE_TENSION. A pot reading outside its
+ * plausible range, as an unplugged pot gives, stops the winch instead of
+ * letting the PID drive it flat out.
+ */
+public class ShooterMechanism implements ControlTask {
+
+    protected final MotorOutput motor;
+    protected final AnalogInput pot;
+    protected final PIDController pid;
+    private final boolean closedLoopAllowed;
+
+    //WHAT WAS ASKED FOR, SET BY THE MAIN THREAD AND READ BY THE LOOP
+    private volatile boolean closedLoop;
+    private volatile double setpoint;
+    private volatile double power;
+    private volatile int requests;
+
+    //THE LOOP'S OWN STATE
+    private int seen;
+    private boolean written;
+    private volatile double output;
+    private volatile double tension;
+    private volatile long potFaults;
+
+    public ShooterMechanism(MotorOutput motor, AnalogInput pot){
+        this(motor, pot, RobotMap.TENSION_CLOSED_LOOP);
+    }
+
+    /**
+     * @param closedLoopAllowed False and setTension() only stops the winch
+     */
+    public ShooterMechanism(MotorOutput motor, AnalogInput pot, boolean closedLoopAllowed){
+        this.motor = motor;
+        this.pot = pot;
+        this.closedLoopAllowed = closedLoopAllowed;
+        pid = new PIDController(RobotMap.TENSION_KP, RobotMap.TENSION_KI, RobotMap.TENSION_KD, RobotMap.TENSION_KF);
+        pid.setOutputRange(-RobotMap.TENSION_MAX_POWER, RobotMap.TENSION_MAX_POWER);
+    }
+
+    public static ShooterMechanism create(RobotHardware hw){
+        return new ShooterMechanism(hw.unbuffered().motor(RobotMap.SHOOT_MOTOR_SLOT, RobotMap.SHOOT_MOTOR_CHAN),
+                hw.analog(RobotMap.TENSION_POT_CHAN));
+    }
+
+    public void neutral(){
+        set(0);
+    }
+
+    public void addTension(){
+        if(closedLoopAllowed){
+            setTension(RobotMap.TENSION_WOUND);
+        } else {
+            set(RobotMap.ADD_TENSION);
+        }
+    }
+
+    public void releaseTension(){
+        if(closedLoopAllowed){
+            setTension(RobotMap.TENSION_SLACK);
+        } else {
+            set(RobotMap.RELEASE_TENSION);
+        }
+    }
+
+    public void letGo(){
+        set(RobotMap.LET_GO);
+    }
+
+    //RUN THE WINCH AT ANY POWER, FOR AUTONOMOUS
+    public void set(double power){
+        if(!closedLoop && power == this.power){
+            return;
+        }
+        this.power = power;
+        closedLoop = false;
+        requests++;
+    }
+
+    //HOLD A TENSION, 0 SLACK TO 1 FULLY WOUND
+    public void setTension(double tension){
+        if(!closedLoopAllowed){
+            set(0);
+            return;
+        }
+        if(closedLoop && tension == setpoint){
+            return;
+        }
+        setpoint = tension;
+        closedLoop = true;
+        requests++;
+    }
+
+    public void update(long now, double dt){
+        double volts = pot.getVoltage();
+        double t = (volts - RobotMap.TENSION_SLACK_VOLTS)
+                / (RobotMap.TENSION_WOUND_VOLTS - RobotMap.TENSION_SLACK_VOLTS);
+        tension = t;
+        int r = requests;
+        if(r != seen){
+            //A NEW REQUEST STARTS THE PID AFRESH
+            seen = r;
+            pid.reset();
+        }
+        double out = power;
+        if(closedLoop){
+            if(plausible(volts)){
+                out = pid.calculate(setpoint, t, dt);
+            } else {
+                //NO TRUSTWORTHY MEASUREMENT, HOLD STILL AND START AFRESH WHEN IT COMES BACK
+                out = 0;
+                potFaults++;
+                pid.reset();
+            }
+        }
+        if(!written || out != output){
+            motor.set(out);
+            output = out;
+            written = true;
+        }
+    }
+
+    private static boolean plausible(double volts){
+        return volts >= RobotMap.TENSION_SLACK_VOLTS - RobotMap.TENSION_POT_MARGIN_VOLTS
+                && volts <= RobotMap.TENSION_WOUND_VOLTS + RobotMap.TENSION_POT_MARGIN_VOLTS;
+    }
+
+    //WHAT update() LAST WROTE TO THE MOTOR
+    public double getPower(){
+        return output;
+    }
+
+    //TENSION THE POT READ AT THE LAST update()
+    public double getTension(){
+        return tension;
+    }
+
+    public double getSetpoint(){
+        return setpoint;
+    }
+
+    public boolean isClosedLoop(){
+        return closedLoop;
+    }
+
+    //CONTROL TICKS THE WINCH WAS STOPPED FOR AN IMPLAUSIBLE POT READING
+    public long getPotFaults(){
+        return potFaults;
+    }
+}
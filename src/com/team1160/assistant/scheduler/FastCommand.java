@@ -0,0 +1,29 @@
+package com.team1160.assistant.scheduler;
+
+/**
+ * A command a FastScheduler can run, with the same life cycle as a WPILib
+ * Command: initialize once, execute every tick until finished, then end, or
+ * interrupted if something else takes its resources first. The methods are
+ * only called by the scheduler.
+ */
+public interface FastCommand {
+
+    /**
+     * @return The FastScheduler resource bits this command holds while it
+     * runs, 0 for none
+     */
+    public int getRequirements();
+
+    //FALSE AND NOTHING ELSE CAN TAKE THE RESOURCES UNTIL IT FINISHES
+    public boolean isInterruptible();
+
+    public void fastInitialize();
+
+    public void fastExecute();
+
+    public boolean fastIsFinished();
+
+    public void fastEnd();
+
+    public void fastInterrupted();
+}
@@ -0,0 +1,288 @@
+package com.team1160.assistant.scheduler;
+
+/**
+ * Runs FastCommands the way the WPILib Scheduler runs Commands, without its
+ * collections. Every resource (a subsystem) is one bit of an int and every
+ * command holds a mask of them, so finding out whether a command can start
+ * is one AND against the mask of busy resources. Commands are registered
+ * once, up front, and get a slot number; the running and pending commands
+ * are slot numbers in arrays sized for every registered command, so start()
+ * and run() never allocate.
+ *
+ * Starting a command interrupts whatever holds its resources, unless one of
+ * those isn't interruptible, in which case the start is dropped. Starting a
+ * command that is already running does nothing. A resource with nothing
+ * running gets its default command back at the end of run().
+ *
+ * Commands started between ticks, by button events, are taken in at the
+ * start of the next run() and execute in it, a tick sooner than
+ * Scheduler.run(), which adds them after running everything else.
+ *
+ * Only register() and addResource() are synchronized, the rest must be called
+ * from one thread (the main robot thread).
+ */
+public class FastScheduler {
+
+    public static final int MAX_RESOURCES = 32;
+
+    private final FastCommand[] commands;
+    private int commandCount;
+    //PER SLOT
+    private final boolean[] running;
+    private final boolean[] initialized;
+    private final boolean[] queued;
+    private final boolean[] listed;
+    private final int[] held;
+
+    private final Object[] resources = new Object[MAX_RESOURCES];
+    private int resourceCount;
+    //PER RESOURCE, SLOTS OR -1
+    private final int[] owner = new int[MAX_RESOURCES];
+    private final int[] defaults = new int[MAX_RESOURCES];
+    private int busy;
+    private int defaultMask;
+
+    //SLOTS IN THE ORDER THEY STARTED, CAN STILL HOLD ONES CANCELLED SINCE THE LAST run()
+    private final int[] active;
+    private int activeCount;
+    private final int[] pending;
+    private int pendingCount;
+
+    private long executes, interrupts, rejected;
+
+    /**
+     * @param maxCommands How many commands can be registered
+     */
+    public FastScheduler(int maxCommands){
+        commands = new FastCommand[maxCommands];
+        running = new boolean[maxCommands];
+        initialized = new boolean[maxCommands];
+        queued = new boolean[maxCommands];
+        listed = new boolean[maxCommands];
+        held = new int[maxCommands];
+        active = new int[maxCommands];
+        pending = new int[maxCommands];
+        for(int i = 0; i < MAX_RESOURCES; i++){
+            owner[i] = -1;
+            defaults[i] = -1;
+        }
+    }
+
+    /**
+     * @return The bit for the resource, to OR into command requirements
+     */
+    public synchronized int addResource(Object resource){
+        int bit = getResourceBit(resource);
+        if(bit != 0){
+            return bit;
+        }
+        if(resourceCount == MAX_RESOURCES){
+            throw new IllegalStateException("too many scheduler resources");
+        }
+        resources[resourceCount] = resource;
+        return 1 << resourceCount++;
+    }
+
+    //THE RESOURCE WITH BIT 1 << index
+    public Object getResource(int index){
+        return resources[index];
+    }
+
+    //0 IF IT WAS NEVER ADDED
+    public int getResourceBit(Object resource){
+        for(int i = 0; i < resourceCount; i++){
+            if(resources[i] == resource){
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return The command's slot, for start() and cancel()
+     */
+    public synchronized int register(FastCommand command){
+        if(commandCount == commands.length){
+            throw new IllegalStateException("too many scheduled commands");
+        }
+        commands[commandCount] = command;
+        return commandCount++;
+    }
+
+    /**
+     * Makes a registered command the default for every resource it requires.
+     */
+    public void setDefaultCommand(int slot){
+        int mask = commands[slot].getRequirements();
+        for(int i = 0; i < resourceCount; i++){
+            if((mask & (1 << i)) != 0){
+                defaults[i] = slot;
+            }
+        }
+        defaultMask |= mask;
+    }
+
+    //QUEUES THE COMMAND FOR THE NEXT run(), A SECOND START BEFORE THEN IS IGNORED
+    public void start(int slot){
+        if(!queued[slot]){
+            queued[slot] = true;
+            pending[pendingCount++] = slot;
+        }
+    }
+
+    //INTERRUPTS THE COMMAND IF IT'S RUNNING
+    public void cancel(int slot){
+        if(running[slot]){
+            interrupt(slot);
+        }
+    }
+
+    //INTERRUPTS EVERYTHING AND FORGETS PENDING STARTS, FOR DISABLE
+    public void cancelAll(){
+        for(int i = 0; i < activeCount; i++){
+            cancel(active[i]);
+        }
+        for(int i = 0; i < pendingCount; i++){
+            queued[pending[i]] = false;
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * One tick: takes in the pending starts, runs every command once and ends
+     * the finished ones, then starts default commands on idle resources.
+     */
+    public void run(){
+        //pendingCount IS READ EVERY TIME, AN interrupted() CAN START SOMETHING
+        for(int i = 0; i < pendingCount; i++){
+            int slot = pending[i];
+            queued[slot] = false;
+            admit(slot);
+        }
+        pendingCount = 0;
+
+        int kept = 0;
+        for(int i = 0; i < activeCount; i++){
+            int slot = active[i];
+            if(running[slot]){
+                FastCommand c = commands[slot];
+                if(!initialized[slot]){
+                    initialized[slot] = true;
+                    c.fastInitialize();
+                }
+                c.fastExecute();
+                executes++;
+                if(running[slot] && c.fastIsFinished()){
+                    running[slot] = false;
+                    release(slot);
+                    c.fastEnd();
+                }
+            }
+            if(running[slot]){
+                active[kept++] = slot;
+            } else {
+                listed[slot] = false;
+            }
+        }
+        activeCount = kept;
+
+        int idle = defaultMask & ~busy;
+        for(int i = 0; idle != 0 && i < resourceCount; i++){
+            if((idle & (1 << i)) != 0 && (busy & (1 << i)) == 0){
+                admit(defaults[i]);
+            }
+        }
+    }
+
+    private void admit(int slot){
+        if(running[slot]){
+            return;
+        }
+        int need = commands[slot].getRequirements();
+        int conflict = need & busy;
+        if(conflict != 0){
+            //EVERYTHING IN THE WAY HAS TO GIVE WAY, OR THE START IS DROPPED
+            for(int i = 0; i < resourceCount; i++){
+                if((conflict & (1 << i)) != 0 && !commands[owner[i]].isInterruptible()){
+                    rejected++;
+                    return;
+                }
+            }
+            for(int i = 0; i < resourceCount; i++){
+                if((conflict & (1 << i)) != 0 && owner[i] >= 0){
+                    interrupt(owner[i]);
+                }
+            }
+        }
+        running[slot] = true;
+        initialized[slot] = false;
+        held[slot] = need;
+        busy |= need;
+        for(int i = 0; need != 0 && i < resourceCount; i++){
+            if((need & (1 << i)) != 0){
+                owner[i] = slot;
+            }
+        }
+        if(!listed[slot]){
+            listed[slot] = true;
+            active[activeCount++] = slot;
+        }
+    }
+
+    private void interrupt(int slot){
+        running[slot] = false;
+        release(slot);
+        interrupts++;
+        //LIKE Command.removed(), ONLY IF IT GOT AS FAR AS initialize()
+        if(initialized[slot]){
+            initialized[slot] = false;
+            commands[slot].fastInterrupted();
+        }
+    }
+
+    private void release(int slot){
+        int mask = held[slot];
+        busy &= ~mask;
+        for(int i = 0; mask != 0 && i < resourceCount; i++){
+            if((mask & (1 << i)) != 0){
+                owner[i] = -1;
+            }
+        }
+        held[slot] = 0;
+    }
+
+    public boolean isRunning(int slot){
+        return running[slot];
+    }
+
+    //RESOURCE BITS HELD BY RUNNING COMMANDS
+    public int getBusy(){
+        return busy;
+    }
+
+    public int getCommandCount(){
+        return commandCount;
+    }
+
+    public int getActiveCount(){
+        return activeCount;
+    }
+
+    public long getExecutes(){
+        return executes;
+    }
+
+    public long getInterrupts(){
+        return interrupts;
+    }
+
+    //STARTS DROPPED BECAUSE A RESOURCE WAS HELD BY AN UNINTERRUPTIBLE COMMAND
+    public long getRejected(){
+        return rejected;
+    }
+
+    public String toString(){
+        return "scheduler: " + commandCount + " commands, " + resourceCount + " resources, "
+                + executes + " executes, " + interrupts + " interrupts, " + rejected + " rejected starts";
+    }
+}
@@ -1,10 +1,9 @@
 package com.team1160.assistant.subsystems;
 
-import com.team1160.assistant.OI;
-import com.team1160.assistant.RobotMap;
-import com.team1160.assistant.commands.Drive.arcadeDrive;
-import edu.wpi.first.wpilibj.Jaguar;
-import edu.wpi.first.wpilibj.Joystick;
+import com.team1160.assistant.actions.Action;
+import com.team1160.assistant.commands.CommandBase;
+import com.team1160.assistant.hal.RobotHardware;
+import com.team1160.assistant.mechanisms.DriveMechanism;
 import edu.wpi.first.wpilibj.command.Subsystem;
 
 
@@ -12,8 +11,7 @@ public class Drivetrain extends Subsystem{
 
     
     //LOCAL VARIABLES - WILL BE ASSIGNED VIA CHECKS
-    protected Jaguar rightJ, leftJ; //JAGUAR
-    protected Joystick stick; //JOYSTICK
+    protected DriveMechanism drive; //THE DRIVE CODE ITSELF
     protected static Drivetrain instance = null; //INSTANCE OF DRIVETRAIN CLASS
     
     //METHOD CALLED BY COMMANDBASE TO RETRIEVE INSTANCE OF DT
@@ -30,28 +28,15 @@ public class Drivetrain extends Subsystem{
     //CONSTRUCTOR - IS CALLED ONCE, ONLY BY GETINSTANCE
     private Drivetrain(){
         //JAGUAR INITIALIZATION
-        rightJ = new Jaguar(RobotMap.LEFT_JAG_MOTOR_SLOT, RobotMap.LEFT_JAG_MOTOR_CHAN);
-        leftJ = new Jaguar(RobotMap.RIGHT_JAG_MOTOR_SLOT, RobotMap.LEFT_JAG_MOTOR_CHAN);
+        drive = DriveMechanism.create(RobotHardware.getInstance());
     }
     
     protected void initDefaultCommand() {
         //DEFAULT COMMAND CLASS WILL CALL
-        this.setDefaultCommand(new arcadeDrive());
+        this.setDefaultCommand(CommandBase.getDefault(Action.DRIVETRAIN));
     }
-    
-    public void arcadeDrive(){
-        //MAKE SURE JOYSTICK HAS BEEN INITIALIZED
-        if(stick == null){
-            stick = OI.getInstance().getJoystick();
-        }
-        
-        //STANDARD DRIVE CODE
-        leftJ.set(stick.getX()-stick.getY());
-	rightJ.set(stick.getX()+stick.getY());
-        
-    }
-    
-    
-    
 
+    public DriveMechanism getMechanism(){
+        return drive;
+    }
 }
\ No newline at end of file
@@ -1,16 +1,14 @@
 package com.team1160.assistant.subsystems;
 
-import com.team1160.assistant.RobotMap;
-import com.team1160.assistant.commands.Pistons.startCompressor;
-import edu.wpi.first.wpilibj.Compressor;
-import edu.wpi.first.wpilibj.Solenoid;
+import com.team1160.assistant.actions.Action;
+import com.team1160.assistant.commands.CommandBase;
+import com.team1160.assistant.hal.RobotHardware;
+import com.team1160.assistant.mechanisms.PneumaticMechanism;
 import edu.wpi.first.wpilibj.command.Subsystem;
 
 public class Pneumatics extends Subsystem{
     
-    protected Compressor compress;
-    protected Solenoid solenOne;
-    protected Solenoid solenTwo;
+    protected PneumaticMechanism pneumatics;
     protected static Pneumatics instance;
     
     public static Pneumatics getInstance() {
@@ -21,28 +19,14 @@ public class Pneumatics extends Subsystem{
     }
     
     private Pneumatics(){
-        compress = new Compressor(RobotMap.COMPRESSOR_SWITCH_CHAN, RobotMap.COMPRESSOR_SWITCH_CHAN);
-        solenOne = new Solenoid(RobotMap.SOLENOID_ONE);
-        solenTwo = new Solenoid(RobotMap.SOLENOID_TWO);
+        pneumatics = PneumaticMechanism.create(RobotHardware.getInstance());
     }
     
     protected void initDefaultCommand() {
-        this.setDefaultCommand(new startCompressor());
+        this.setDefaultCommand(CommandBase.getDefault(Action.PNEUMATICS));
     }
-    
-    public void extendPiston(){
-        solenOne.set(true);
-        solenTwo.set(false);
-    }
-    
-    public void retractPiston(){
-        solenOne.set(false);
-        solenTwo.set(true);
-    }
-    
-    public void start(){
-        compress.start();
+
+    public PneumaticMechanism getMechanism(){
+        return pneumatics;
     }
-    
-    
 }
\ No newline at end of file
@@ -1,8 +1,9 @@
 package com.team1160.assistant.subsystems;
 
-import com.team1160.assistant.RobotMap;
-import com.team1160.assistant.commands.Shooter.neutral;
-import edu.wpi.first.wpilibj.Jaguar;
+import com.team1160.assistant.actions.Action;
+import com.team1160.assistant.commands.CommandBase;
+import com.team1160.assistant.hal.RobotHardware;
+import com.team1160.assistant.mechanisms.ShooterMechanism;
 import edu.wpi.first.wpilibj.command.Subsystem;
 
 
@@ -11,7 +12,7 @@ public class Shooter extends Subsystem{
     
     protected static Shooter instance;
     
-    protected Jaguar jagM;
+    protected ShooterMechanism shooter;
     
     public static Shooter getInstance(){
         if(instance == null){
@@ -21,27 +22,14 @@ public class Shooter extends Subsystem{
     }
     
     private Shooter(){
-        jagM = new Jaguar(RobotMap.SHOOT_MOTOR_SLOT, RobotMap.SHOOT_MOTOR_CHAN);
+        shooter = ShooterMechanism.create(RobotHardware.getInstance());
     }
     
     protected void initDefaultCommand() {
-        this.setDefaultCommand(new neutral());
+        this.setDefaultCommand(CommandBase.getDefault(Action.SHOOTER));
     }
-    
-    public void neutrals(){
-        jagM.set(0);
-    }
-    
-    public void addTension(){
-        jagM.set(RobotMap.ADD_TENSION);
-    }
-    
-    public void releaseTension(){
-        jagM.set(RobotMap.RELEASE_TENSION);
-    }
-    
-    public void letGo(){
-        jagM.set(RobotMap.LET_GO);
+
+    public ShooterMechanism getMechanism(){
+        return shooter;
     }
-    
 }
\ No newline at end of file
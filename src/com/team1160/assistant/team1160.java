@@ -1,6 +1,25 @@
 package com.team1160.assistant;
 
+import com.team1160.assistant.autonomous.AutonomousParams;
+import com.team1160.assistant.autonomous.AutonomousRoutine;
 import com.team1160.assistant.commands.CommandBase;
+import com.team1160.assistant.commands.SchedulerBenchmark;
+import com.team1160.assistant.control.PeriodicLoop;
+import com.team1160.assistant.hal.BufferedHardware;
+import com.team1160.assistant.hal.RobotHardware;
+import com.team1160.assistant.hal.WPILibHardware;
+import com.team1160.assistant.subsystems.Drivetrain;
+import com.team1160.assistant.subsystems.Pneumatics;
+import com.team1160.assistant.subsystems.Shooter;
+import com.team1160.assistant.util.Clock;
+import com.team1160.assistant.util.DatagramTelemetrySink;
+import com.team1160.assistant.util.EventLog;
+import com.team1160.assistant.util.EventRing;
+import com.team1160.assistant.util.FPGAClock;
+import com.team1160.assistant.util.LatencyHistogram;
+import com.team1160.assistant.util.LoopProfiler;
+import com.team1160.assistant.util.MemoryWatchdog;
+import com.team1160.assistant.vision.TargetReport;
 import com.team1160.assistant.vision.Vision;
 import edu.wpi.first.wpilibj.IterativeRobot;
 import edu.wpi.first.wpilibj.command.Scheduler;
@@ -8,21 +27,124 @@ import edu.wpi.first.wpilibj.command.Scheduler;
 public class team1160 extends IterativeRobot {
     
     Vision vision;
+    AutonomousRoutine auto;
+    BufferedHardware outputs;
+    RobotTelemetry telemetry;
+    PeriodicLoop control;
+    SchedulerBenchmark benchmark;
+
+    private static final int AUTONOMOUS = MemoryWatchdog.define("autonomous");
+    private static final LatencyHistogram autonomousTime = LoopProfiler.forName("autonomous");
     
     public void robotInit(){        
-        vision = new Vision();
+        Clock.setSource(new FPGAClock());
+        EventLog.start();
+        EventRing loopLog = EventLog.createRing("loop", 64);
+        LoopProfiler.setLog(loopLog);
+        MemoryWatchdog.setLog(loopLog);
+        //EVERY OUTPUT IS WRITTEN ONCE PER TICK AT MOST, BY flush()
+        outputs = new BufferedHardware(new WPILibHardware(), RobotMap.OUTPUT_DEADBAND, RobotMap.OUTPUT_REFRESH_TICKS);
+        RobotHardware.setInstance(outputs);
+        vision = Vision.getInstance();
         Version.getInstance();
         CommandBase.init();
+        //CLOSED LOOP CONTROL AT ITS OWN RATE, COMMANDS ONLY CHANGE ITS SETPOINTS
+        control = new PeriodicLoop("control", RobotMap.CONTROL_PERIOD_MICROS);
+        EventRing controlLog = EventLog.createRing("control", 64);
+        control.setLog(controlLog);
+        control.add(Shooter.getInstance().getMechanism());
+        //GC PAUSES SHOW UP AS THIS LOOP STARTING LATE
+        control.add(MemoryWatchdog.createPauseDetector(RobotMap.CONTROL_PERIOD_MICROS, controlLog));
+        control.start();
+        if(RobotMap.TELEMETRY_ENABLED){
+            telemetry = new RobotTelemetry(new DatagramTelemetrySink(RobotMap.TELEMETRY_ADDRESS),
+                    Drivetrain.getInstance().getMechanism(), Shooter.getInstance().getMechanism(),
+                    Pneumatics.getInstance().getMechanism(), control);
+            telemetry.getTelemetry().start();
+        }
     }
     
-    public void autonomous(){
+    public void autonomousInit(){
+        LoopProfiler.reset();
+        MemoryWatchdog.reset();
+        control.reset();
+        outputs.setInputSource(null, null);
         vision.autonomous = true;
-        vision.vision(true);
+        vision.startTracking();
+        if(RobotMap.AUTO_ROUTINE_ENABLED){
+            auto = new AutonomousRoutine(new AutonomousParams(), Drivetrain.getInstance().getMechanism(),
+                    Shooter.getInstance().getMechanism());
+        }
+    }
+
+    public void autonomousPeriodic(){
+        LoopProfiler.loopStart();
+        long now = Clock.micros();
+        TargetReport report = vision.getLatest();
+        if(auto != null){
+            //TIMED LIKE A COMMAND, SO AN OVERRUN NAMES IT
+            MemoryWatchdog.enter(AUTONOMOUS);
+            auto.step(now, report);
+            MemoryWatchdog.enter(MemoryWatchdog.ROBOT_LOOP);
+            LoopProfiler.recordCommand(autonomousTime, Clock.micros() - now);
+        }
+        outputs.flush();
+        sampleTelemetry(now, report);
+        LoopProfiler.loopEnd();
+    }
+    
+    public void teleopInit(){
+        vision.stopTracking();
+        outputs.setInputSource(OI.getInstance().getJoystick(), LoopProfiler.forName("input to output"));
     }
     
     public void teleopPeriodic(){
         vision.autonomous = false;
-        Scheduler.getInstance().run();
+        LoopProfiler.loopStart();
+        //ONE JOYSTICK SNAPSHOT FOR THE WHOLE TICK, BUTTON PRESSES START THEIR COMMANDS HERE
+        OI.getInstance().sample(Clock.micros());
+        if(RobotMap.FAST_SCHEDULER){
+            CommandBase.getScheduler().run();
+        } else {
+            Scheduler.getInstance().run();
+        }
+        outputs.flush();
+        sampleTelemetry(Clock.micros(), vision.getLatest());
+        LoopProfiler.loopEnd();
+    }
+
+    private void sampleTelemetry(long now, TargetReport report){
+        if(telemetry != null){
+            telemetry.sample(now, report);
+        }
+    }
+
+    //TEST MODE TIMES THE TWO SCHEDULERS AGAINST EACH OTHER, RUN IT ON BLOCKS
+    public void testInit(){
+        //MADE ONCE, ITS SUBSYSTEMS STAY REGISTERED WITH THE WPILIB SCHEDULER
+        if(benchmark == null){
+            benchmark = new SchedulerBenchmark(RobotMap.BENCHMARK_COMMANDS, RobotMap.BENCHMARK_TICKS);
+        }
+        benchmark.run(System.out);
+    }
+
+    public void disabledInit(){
+        //THE MOTORS ARE OFF WHILE DISABLED, DON'T LET THE PID WIND UP AGAINST THEM
+        Shooter.getInstance().getMechanism().neutral();
+        //THE WPILIB SCHEDULER CANCELS ITS COMMANDS WHEN IT NEXT RUNS DISABLED, DO THE SAME
+        CommandBase.getScheduler().cancelAll();
+        //END OF THE MATCH (OR OF A PRACTICE RUN), PRINT HOW THE LOOPS DID
+        if(LoopProfiler.getLoop().getCount() > 0){
+            LoopProfiler.dump(System.out);
+            System.out.println(outputs);
+            control.dump(System.out);
+            MemoryWatchdog.dump(System.out);
+            System.out.println(CommandBase.getScheduler());
+        }
+        if(telemetry != null){
+            telemetry.getTelemetry().flush();
+            System.out.println(telemetry.getTelemetry());
+        }
     }
     
 }
\ No newline at end of file
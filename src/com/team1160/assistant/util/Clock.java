@@ -0,0 +1,34 @@
+package com.team1160.assistant.util;
+
+/**
+ * Source of timestamps for code that has to run both on the cRIO and on a
+ * desktop machine. Everything is in microseconds. On the robot robotInit()
+ * swaps in the FPGA clock, off the robot the default falls back to
+ * System.currentTimeMillis() unless a tool installs something better.
+ */
+public abstract class Clock {
+
+    private static Clock source = new Clock(){
+        public long now(){
+            return System.currentTimeMillis() * 1000;
+        }
+    };
+
+    //CURRENT TIME IN MICROSECONDS FROM THE INSTALLED SOURCE
+    public static long micros(){
+        return source.now();
+    }
+
+    public static void setSource(Clock clock){
+        source = clock;
+    }
+
+    public static Clock getSource(){
+        return source;
+    }
+
+    /**
+     * @return the current time of this clock in microseconds
+     */
+    public abstract long now();
+}
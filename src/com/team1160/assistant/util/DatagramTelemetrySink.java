@@ -0,0 +1,44 @@
+package com.team1160.assistant.util;
+
+import java.io.IOException;
+import javax.microedition.io.Connector;
+import javax.microedition.io.Datagram;
+import javax.microedition.io.DatagramConnection;
+
+/**
+ * Sends telemetry packets as UDP datagrams from the cRIO. The connection and
+ * the datagram are made on the first send and reused after that.
+ */
+public class DatagramTelemetrySink implements TelemetrySink {
+
+    private final String address;
+    private DatagramConnection connection;
+    private Datagram datagram;
+
+    /**
+     * @param address Datagram URL to send to, for example
+     * "datagram://10.11.60.5:1190"
+     */
+    public DatagramTelemetrySink(String address){
+        this.address = address;
+    }
+
+    public void send(byte[] data, int length) throws IOException {
+        if(connection == null){
+            connection = (DatagramConnection) Connector.open(address, Connector.WRITE);
+            datagram = connection.newDatagram(data.length);
+        }
+        datagram.setData(data, 0, length);
+        connection.send(datagram);
+    }
+
+    public void close(){
+        if(connection != null){
+            try {
+                connection.close();
+            } catch (IOException ex) {
+            }
+            connection = null;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.team1160.assistant.util;
+
+import java.io.PrintStream;
+
+/**
+ * Cheap logging for the vision and control loops. Instead of building strings
+ * on the hot path, code logs an event number and up to four numbers into a
+ * preallocated EventRing, and a minimum priority thread turns the records
+ * into text later.
+ *
+ * Events are defined once, usually in a static initializer, with the
+ * subsystem and level they belong to and a format where {i} prints the next
+ * field as an integer and {f} as a double:
+ *
+ *     static final int SHOT = EventLog.define(EventLog.SHOOTER, EventLog.INFO, "shot at tension {f}");
+ *     ...
+ *     log.log(SHOT, EventLog.d(tension));
+ *
+ * Turning levels or subsystems off recomputes one flag per event, so a
+ * disabled event costs a single array load and branch.
+ */
+public class EventLog {
+
+    //LEVELS
+    public static final int DEBUG = 0;
+    public static final int INFO = 1;
+    public static final int WARN = 2;
+    public static final int ERROR = 3;
+
+    //SUBSYSTEMS
+    public static final int ROBOT = 0;
+    public static final int VISION = 1;
+    public static final int DRIVE = 2;
+    public static final int SHOOTER = 3;
+    public static final int PNEUMATICS = 4;
+    public static final int CONTROL = 5;
+
+    private static final String[] LEVEL_NAMES = {"DEBUG", "INFO", "WARN", "ERROR"};
+    private static final String[] SUBSYSTEM_NAMES = {"ROBOT", "VISION", "DRIVE", "SHOOTER", "PNEUMATICS", "CONTROL"};
+
+    public static final int MAX_EVENTS = 256;
+    private static final int MAX_RINGS = 16;
+
+    //HOW OFTEN THE DRAIN THREAD EMPTIES THE RINGS, MILLISECONDS
+    private static final long DRAIN_PERIOD = 20;
+
+    //CHECKED ON EVERY log() CALL
+    static final boolean[] enabled = new boolean[MAX_EVENTS];
+
+    private static final int[] eventSubsystem = new int[MAX_EVENTS];
+    private static final int[] eventLevel = new int[MAX_EVENTS];
+    private static final String[] eventFormat = new String[MAX_EVENTS];
+    private static int eventCount;
+
+    private static int levelMask = (1 << INFO) | (1 << WARN) | (1 << ERROR);
+    private static int subsystemMask = 0xFFFFFFFF;
+
+    private static final EventRing[] rings = new EventRing[MAX_RINGS];
+    private static volatile int ringCount;
+
+    private static PrintStream out = System.out;
+    private static Thread drainer;
+    private static volatile boolean draining;
+
+    /**
+     * Registers an event type.
+     *
+     * @return The event id to pass to EventRing.log()
+     */
+    public static synchronized int define(int subsystem, int level, String format){
+        if(eventCount == MAX_EVENTS){
+            throw new IllegalStateException("too many log events");
+        }
+        int id = eventCount++;
+        eventSubsystem[id] = subsystem;
+        eventLevel[id] = level;
+        eventFormat[id] = format;
+        enabled[id] = isOn(subsystem, level);
+        return id;
+    }
+
+    /**
+     * Creates a ring for one producing thread. Every thread that logs needs its
+     * own ring, they are not safe to share.
+     *
+     * @param capacity Number of records the ring holds before dropping
+     */
+    public static synchronized EventRing createRing(String name, int capacity){
+        if(ringCount == MAX_RINGS){
+            throw new IllegalStateException("too many log rings");
+        }
+        EventRing ring = new EventRing(name, capacity);
+        rings[ringCount] = ring;
+        ringCount++;
+        return ring;
+    }
+
+    //BIT PER LEVEL, 1 << DEBUG ETC.
+    public static synchronized void setLevelMask(int mask){
+        levelMask = mask;
+        refresh();
+    }
+
+    //BIT PER SUBSYSTEM, 1 << VISION ETC.
+    public static synchronized void setSubsystemMask(int mask){
+        subsystemMask = mask;
+        refresh();
+    }
+
+    /**
+     * Enables everything at the given level and above.
+     */
+    public static void setMinimumLevel(int level){
+        setLevelMask(~((1 << level) - 1) & 0xF);
+    }
+
+    public static boolean isEnabled(int event){
+        return enabled[event];
+    }
+
+    private static boolean isOn(int subsystem, int level){
+        return (levelMask & (1 << level)) != 0 && (subsystemMask & (1 << subsystem)) != 0;
+    }
+
+    private static void refresh(){
+        for(int i = 0; i < eventCount; i++){
+            enabled[i] = isOn(eventSubsystem[i], eventLevel[i]);
+        }
+    }
+
+    //STORES A DOUBLE IN A LOG FIELD, PRINT IT WITH {f}
+    public static long d(double value){
+        return Double.doubleToLongBits(value);
+    }
+
+    /**
+     * Starts the thread that prints the rings to the console.
+     */
+    public static synchronized void start(){
+        start(System.out);
+    }
+
+    public static synchronized void start(PrintStream stream){
+        out = stream;
+        if(draining){
+            return;
+        }
+        draining = true;
+        drainer = new Thread(new Runnable(){
+            public void run(){
+                StringBuffer line = new StringBuffer(128);
+                while(draining){
+                    drainAll(line);
+                    try {
+                        Thread.sleep(DRAIN_PERIOD);
+                    } catch (InterruptedException ex) {
+                    }
+                }
+                drainAll(line);
+            }
+        }, "eventlog");
+        drainer.setPriority(Thread.MIN_PRIORITY);
+        drainer.start();
+    }
+
+    public static synchronized void stop(){
+        draining = false;
+    }
+
+    /**
+     * Prints everything waiting in the rings. The drain thread calls this, it
+     * is also handy at the end of a match or in tools without the thread.
+     */
+    public static void drainAll(StringBuffer line){
+        int n = ringCount;
+        for(int i = 0; i < n; i++){
+            EventRing ring = rings[i];
+            while(ring.drainOne(line)){
+                out.println(line.toString());
+            }
+            int dropped = ring.takeDropped();
+            if(dropped > 0){
+                out.println("[eventlog] " + ring.getName() + " dropped " + dropped + " events");
+            }
+        }
+    }
+
+    /**
+     * Turns one record back into text.
+     */
+    static void format(StringBuffer line, String ring, int event, long time, long[] fields, int offset){
+        line.setLength(0);
+        line.append('[');
+        line.append(time / 1000000).append('.');
+        long frac = time % 1000000;
+        for(long p = 100000; p > frac && p > 1; p /= 10){
+            line.append('0');
+        }
+        line.append(frac).append(' ');
+        line.append(SUBSYSTEM_NAMES[eventSubsystem[event]]).append(' ');
+        line.append(LEVEL_NAMES[eventLevel[event]]).append(' ');
+        line.append(ring).append("] ");
+
+        String format = eventFormat[event];
+        int field = 0;
+        int i = 0;
+        while(i < format.length()){
+            char c = format.charAt(i);
+            if(c == '{' && i + 2 < format.length() && format.charAt(i + 2) == '}' && field < EventRing.FIELDS){
+                char kind = format.charAt(i + 1);
+                long value = fields[offset + field++];
+                if(kind == 'f'){
+                    line.append(Double.longBitsToDouble(value));
+                } else {
+                    line.append(value);
+                }
+                i += 3;
+            } else {
+                line.append(c);
+                i++;
+            }
+        }
+    }
+}
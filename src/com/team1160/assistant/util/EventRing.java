@@ -0,0 +1,113 @@
+package com.team1160.assistant.util;
+
+/**
+ * Fixed size ring of binary log records for a single producing thread. Each
+ * record is the event id, a timestamp and four long fields packed into a
+ * preallocated long array. The producer only moves head and the EventLog
+ * drain thread only moves tail, so neither ever locks or waits. When the ring
+ * is full new records are counted and thrown away.
+ */
+public class EventRing {
+
+    public static final int FIELDS = 4;
+
+    //NOT REGISTERED AND ZERO CAPACITY, FOR CODE THAT HAS NOWHERE TO LOG
+    public static final EventRing DISCARD = new EventRing("discard", 0);
+    private static final int STRIDE = FIELDS + 2;
+
+    private final String name;
+    private final int capacity;
+    private final long[] records;
+
+    //RECORDS EVER WRITTEN AND READ, THE SLOT IS THE COUNT MOD capacity
+    private volatile int head;
+    private volatile int tail;
+    private volatile int dropped;
+    private int reportedDropped; //DRAIN THREAD ONLY
+
+    private final long[] fields = new long[FIELDS];
+
+    EventRing(String name, int capacity){
+        this.name = name;
+        this.capacity = capacity;
+        this.records = new long[capacity * STRIDE];
+    }
+
+    public void log(int event){
+        if(!EventLog.enabled[event]) return;
+        put(event, 0, 0, 0, 0);
+    }
+
+    public void log(int event, long a){
+        if(!EventLog.enabled[event]) return;
+        put(event, a, 0, 0, 0);
+    }
+
+    public void log(int event, long a, long b){
+        if(!EventLog.enabled[event]) return;
+        put(event, a, b, 0, 0);
+    }
+
+    public void log(int event, long a, long b, long c){
+        if(!EventLog.enabled[event]) return;
+        put(event, a, b, c, 0);
+    }
+
+    public void log(int event, long a, long b, long c, long d){
+        if(!EventLog.enabled[event]) return;
+        put(event, a, b, c, d);
+    }
+
+    private void put(int event, long a, long b, long c, long d){
+        int h = head;
+        if(h - tail == capacity){
+            dropped++;
+            return;
+        }
+        int i = (h % capacity) * STRIDE;
+        records[i] = event;
+        records[i + 1] = Clock.micros();
+        records[i + 2] = a;
+        records[i + 3] = b;
+        records[i + 4] = c;
+        records[i + 5] = d;
+        head = h + 1;
+    }
+
+    /**
+     * Formats the oldest record into line. Only the drain thread calls this.
+     *
+     * @return False if the ring is empty
+     */
+    boolean drainOne(StringBuffer line){
+        int t = tail;
+        if(t == head){
+            return false;
+        }
+        int i = (t % capacity) * STRIDE;
+        int event = (int) records[i];
+        long time = records[i + 1];
+        for(int f = 0; f < FIELDS; f++){
+            fields[f] = records[i + 2 + f];
+        }
+        tail = t + 1;
+        EventLog.format(line, name, event, time, fields, 0);
+        return true;
+    }
+
+    //DROPPED COUNT SINCE THE LAST CALL
+    int takeDropped(){
+        int total = dropped;
+        int n = total - reportedDropped;
+        reportedDropped = total;
+        return n;
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    public int size(){
+        return head - tail;
+    }
+}
@@ -0,0 +1,28 @@
+package com.team1160.assistant.util;
+
+import edu.wpi.first.wpilibj.Utility;
+
+/**
+ * Microsecond clock backed by the FPGA timer. Only usable on the cRIO.
+ *
+ * The FPGA counter is 32 bits and wraps about every 71.6 minutes, which a
+ * robot left on through practice will see. Everything reading Clock expects
+ * it never to go backwards, so each wrap is counted and added back on.
+ */
+public class FPGAClock extends Clock {
+
+    private static final long WRAP = 1L << 32;
+
+    private long lastRaw = -1;
+    private long wraps;
+
+    //SYNCHRONIZED, EVERY THREAD READS THE CLOCK AND A WRAP MUST BE COUNTED ONCE
+    public synchronized long now(){
+        long raw = Utility.getFPGATime() & (WRAP - 1);
+        if(raw < lastRaw){
+            wraps += WRAP;
+        }
+        lastRaw = raw;
+        return raw + wraps;
+    }
+}
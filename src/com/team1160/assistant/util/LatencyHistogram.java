@@ -0,0 +1,135 @@
+package com.team1160.assistant.util;
+
+/**
+ * Fixed size histogram of durations in microseconds. Buckets are log-linear:
+ * every power of two is split into 8 equal buckets, so any value is kept to
+ * within 12.5% from 1 microsecond up to about 18 minutes in 232 ints.
+ * Recording is a few shifts and compares and never allocates. Other
+ * non-negative quantities, like bytes, can be kept with their own unit.
+ *
+ * Not synchronized. Record from one thread; reading from another thread
+ * gives a slightly stale but usable answer.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_BIT = 30;
+    private static final long MAX_VALUE = (1L << (MAX_BIT + 1)) - 1;
+    public static final int BUCKETS = (MAX_BIT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final String name;
+    private final String unit;
+    private final int[] counts = new int[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public LatencyHistogram(String name){
+        this(name, "us");
+    }
+
+    //FOR VALUES THAT AREN'T MICROSECONDS, unit IS PRINTED AFTER EACH ONE
+    public LatencyHistogram(String name, String unit){
+        this.name = name;
+        this.unit = unit;
+    }
+
+    public void record(long micros){
+        if(micros < 0){
+            micros = 0;
+        } else if(micros > MAX_VALUE){
+            micros = MAX_VALUE;
+        }
+        counts[bucket(micros)]++;
+        count++;
+        sum += micros;
+        if(micros < min) min = micros;
+        if(micros > max) max = micros;
+    }
+
+    static int bucket(long v){
+        if(v < SUB_BUCKETS){
+            return (int) v;
+        }
+        int msb = highestBit(v);
+        return (msb - SUB_BITS + 1) * SUB_BUCKETS + (int) ((v >> (msb - SUB_BITS)) & (SUB_BUCKETS - 1));
+    }
+
+    //LARGEST VALUE THAT LANDS IN BUCKET i
+    static long bucketTop(int i){
+        if(i < SUB_BUCKETS){
+            return i;
+        }
+        int msb = i / SUB_BUCKETS + SUB_BITS - 1;
+        int shift = msb - SUB_BITS;
+        return ((long) (SUB_BUCKETS + i % SUB_BUCKETS) << shift) + (1L << shift) - 1;
+    }
+
+    private static int highestBit(long v){
+        int bit = 0;
+        if(v >= 1L << 16){ v >>= 16; bit += 16; }
+        if(v >= 1L << 8){ v >>= 8; bit += 8; }
+        if(v >= 1L << 4){ v >>= 4; bit += 4; }
+        if(v >= 1L << 2){ v >>= 2; bit += 2; }
+        if(v >= 1L << 1){ bit += 1; }
+        return bit;
+    }
+
+    /**
+     * @param percent 0 to 100
+     * @return The upper edge of the bucket holding that percentile, never more
+     * than the largest value recorded
+     */
+    public long percentile(double percent){
+        if(count == 0){
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percent / 100);
+        if(rank < 1){
+            rank = 1;
+        }
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++){
+            seen += counts[i];
+            if(seen >= rank){
+                return Math.min(bucketTop(i), max);
+            }
+        }
+        return max;
+    }
+
+    public void reset(){
+        for(int i = 0; i < BUCKETS; i++){
+            counts[i] = 0;
+        }
+        count = sum = max = 0;
+        min = Long.MAX_VALUE;
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    public long getCount(){
+        return count;
+    }
+
+    public long getMax(){
+        return max;
+    }
+
+    public long getMin(){
+        return count == 0 ? 0 : min;
+    }
+
+    public double getMean(){
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public String summary(){
+        return name + ": n=" + count + " p50=" + percentile(50) + unit + " p99=" + percentile(99)
+                + unit + " max=" + max + unit + " mean=" + (long) getMean() + unit;
+    }
+}
@@ -0,0 +1,130 @@
+package com.team1160.assistant.util;
+
+import com.team1160.assistant.RobotMap;
+import java.io.PrintStream;
+import java.util.Vector;
+
+/**
+ * Timing for the main robot loop. teleopPeriodic() and autonomousPeriodic()
+ * bracket each tick with loopStart() and loopEnd(), and every command, and
+ * the autonomous routine, records its own time into a histogram from
+ * forName(). Ticks that take longer than the
+ * loop period are counted and logged as they happen, the percentiles can be
+ * read at any time and dump() prints everything at the end of a match.
+ * Each tick is also handed to MemoryWatchdog, which tells a GC pause from a
+ * tick that was just slow.
+ *
+ * Only the main robot thread should record.
+ */
+public class LoopProfiler {
+
+    private static final int OVERRUN = EventLog.define(EventLog.ROBOT, EventLog.WARN,
+            "loop overrun: {i}us, worst command this tick {i}us");
+
+    private static final Vector histograms = new Vector();
+    private static final LatencyHistogram loop = forName("loop");
+    private static final LatencyHistogram period = forName("loop period");
+
+    private static EventRing log = EventRing.DISCARD;
+    private static long loopStart;
+    private static long lastStart = -1;
+    private static long overruns;
+    private static long lastLoop, lastPeriod;
+    private static long worstCommand;
+
+    /**
+     * Finds or makes the histogram with the given name. Look it up once and
+     * keep it, the lookup walks a list.
+     */
+    public static synchronized LatencyHistogram forName(String name){
+        for(int i = 0; i < histograms.size(); i++){
+            LatencyHistogram h = (LatencyHistogram) histograms.elementAt(i);
+            if(h.getName().equals(name)){
+                return h;
+            }
+        }
+        LatencyHistogram h = new LatencyHistogram(name);
+        histograms.addElement(h);
+        return h;
+    }
+
+    /**
+     * Sends overrun warnings to a ring of their own. Until this is called
+     * they are only counted.
+     */
+    public static void setLog(EventRing ring){
+        log = ring;
+    }
+
+    public static void loopStart(){
+        loopStart = Clock.micros();
+        if(lastStart >= 0){
+            lastPeriod = loopStart - lastStart;
+            period.record(lastPeriod);
+        }
+        lastStart = loopStart;
+        worstCommand = 0;
+        MemoryWatchdog.tickStart(loopStart);
+    }
+
+    public static void loopEnd(){
+        long took = Clock.micros() - loopStart;
+        lastLoop = took;
+        loop.record(took);
+        MemoryWatchdog.tickEnd(took);
+        if(took > RobotMap.LOOP_PERIOD_MICROS){
+            overruns++;
+            log.log(OVERRUN, took, worstCommand);
+        }
+    }
+
+    /**
+     * Records how long one command's execute() took, into its histogram and
+     * as a candidate for this tick's overrun report.
+     */
+    public static void recordCommand(LatencyHistogram h, long micros){
+        h.record(micros);
+        if(micros > worstCommand){
+            worstCommand = micros;
+        }
+    }
+
+    public static long getOverruns(){
+        return overruns;
+    }
+
+    public static LatencyHistogram getLoop(){
+        return loop;
+    }
+
+    //HOW LONG THE LAST FINISHED TICK TOOK, MICROSECONDS
+    public static long getLastLoop(){
+        return lastLoop;
+    }
+
+    //TIME BETWEEN THE LAST TWO TICK STARTS, MICROSECONDS
+    public static long getLastPeriod(){
+        return lastPeriod;
+    }
+
+    //CLEARS EVERYTHING, AT THE START OF A MATCH
+    public static synchronized void reset(){
+        for(int i = 0; i < histograms.size(); i++){
+            ((LatencyHistogram) histograms.elementAt(i)).reset();
+        }
+        overruns = 0;
+        lastStart = -1;
+        lastLoop = 0;
+        lastPeriod = 0;
+    }
+
+    public static synchronized void dump(PrintStream out){
+        out.println("---LOOP TIMING--- overruns of " + RobotMap.LOOP_PERIOD_MICROS + "us: " + overruns);
+        for(int i = 0; i < histograms.size(); i++){
+            LatencyHistogram h = (LatencyHistogram) histograms.elementAt(i);
+            if(h.getCount() > 0){
+                out.println(h.summary());
+            }
+        }
+    }
+}
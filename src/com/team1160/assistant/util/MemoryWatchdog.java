@@ -0,0 +1,249 @@
+package com.team1160.assistant.util;
+
+import com.team1160.assistant.RobotMap;
+import com.team1160.assistant.control.ControlTask;
+import java.io.PrintStream;
+
+/**
+ * Watches the heap and the NIVision images for whatever makes the robot loop
+ * late. Squawk has no GC notifications, so a collection shows up as free
+ * memory going up instead of down, and a pause as a control loop tick that
+ * started late across one.
+ *
+ * LoopProfiler calls tickStart() and tickEnd() around every teleop tick,
+ * which read free memory on each side to get what the tick allocated and
+ * what the other threads allocated between ticks. A pause detector runs on
+ * the control loop and reads free memory once a tick; when a tick starts
+ * more than RobotMap.WATCHDOG_PAUSE_MICROS late and memory was freed since
+ * the last one, that is a GC pause, and it is charged to whatever the main
+ * thread was doing: a command's execute(), the rest of the robot loop, or
+ * waiting for the next packet. An overrunning tick is logged with the pause
+ * that hit it, or with how much it allocated if none did.
+ *
+ * CameraFrameSource reports its NIVision images and buffers as they are made
+ * and disposed, and more than RobotMap.WATCHDOG_MAX_IMAGES alive at once is
+ * logged as a leak.
+ *
+ * Nothing is logged or built unless something is wrong. The usual cost is a
+ * freeMemory() call per control tick and two per robot tick, and a field
+ * write either side of every command.
+ */
+public class MemoryWatchdog {
+
+    public static final int MAX_ACTIVITIES = 32;
+
+    private static final String[] names = new String[MAX_ACTIVITIES];
+    private static final int[] pauseEvent = new int[MAX_ACTIVITIES];
+    private static final int[] overrunEvent = new int[MAX_ACTIVITIES];
+    private static final long[] pauses = new long[MAX_ACTIVITIES];
+    private static int activityCount;
+
+    //WHAT THE MAIN ROBOT THREAD CAN BE DOING, COMMANDS DEFINE THEIR OWN
+    public static final int BETWEEN_TICKS = define("between ticks");
+    public static final int ROBOT_LOOP = define("robot loop");
+
+    private static final int ALLOCATION_OVERRUN = EventLog.define(EventLog.ROBOT, EventLog.WARN,
+            "loop overrun: {i}us without a gc pause, the tick allocated {i} bytes");
+    private static final int COLLECTION_OVERRUN = EventLog.define(EventLog.ROBOT, EventLog.WARN,
+            "loop overrun: {i}us across a gc the control loop hasn't timed yet, {i} bytes freed");
+    private static final int IMAGE_LEAK = EventLog.define(EventLog.VISION, EventLog.ERROR,
+            "{i} NIVision images alive at once, is something not being free()d?");
+
+    private static final Runtime runtime = Runtime.getRuntime();
+    private static final LatencyHistogram tickBytes = new LatencyHistogram("allocated per tick", "B");
+    private static final LatencyHistogram betweenBytes = new LatencyHistogram("allocated between ticks", "B");
+    private static final LatencyHistogram pauseTime = new LatencyHistogram("gc pause");
+
+    private static EventRing log = EventRing.DISCARD;
+    private static volatile int current = BETWEEN_TICKS;
+
+    //MAIN THREAD
+    private static long tickStart;
+    private static long freeAtStart;
+    private static long freeAtEnd = -1;
+    private static long overrunsWithPause, overrunsWithoutPause;
+
+    //CONTROL THREAD, THE LAST PAUSE IS READ BY THE MAIN THREAD
+    private static long collections;
+    private static volatile long lastPauseAt = -1;
+    private static volatile long lastPause;
+    private static volatile int lastPauseActivity;
+
+    //COUNTED BY THE VISION THREADS, CHECKED BY THE MAIN THREAD
+    private static volatile int images;
+    private static int peakImages;
+    private static boolean leakLogged;
+
+    /**
+     * Names something the main thread does, for enter(). Defining the same
+     * name again gives back the same id.
+     */
+    public static synchronized int define(String name){
+        for(int i = 0; i < activityCount; i++){
+            if(names[i].equals(name)){
+                return i;
+            }
+        }
+        if(activityCount == MAX_ACTIVITIES){
+            throw new IllegalStateException("too many watchdog activities");
+        }
+        int id = activityCount++;
+        names[id] = name;
+        pauseEvent[id] = EventLog.define(EventLog.ROBOT, EventLog.WARN,
+                "gc pause of {i}us, {i} bytes freed, during " + name);
+        overrunEvent[id] = EventLog.define(EventLog.ROBOT, EventLog.WARN,
+                "loop overrun: {i}us including a {i}us gc pause during " + name);
+        return id;
+    }
+
+    /**
+     * Sends overrun and leak warnings to a ring of the main thread's. Until
+     * this is called they are only counted.
+     */
+    public static void setLog(EventRing ring){
+        log = ring;
+    }
+
+    //WHAT THE MAIN THREAD IS DOING FROM NOW ON, IN CASE A PAUSE HITS IT
+    public static void enter(int activity){
+        current = activity;
+    }
+
+    public static void tickStart(long now){
+        current = ROBOT_LOOP;
+        tickStart = now;
+        freeAtStart = runtime.freeMemory();
+        if(freeAtEnd >= 0 && freeAtEnd >= freeAtStart){
+            betweenBytes.record(freeAtEnd - freeAtStart);
+        }
+    }
+
+    /**
+     * @param took How long the tick ran, microseconds
+     */
+    public static void tickEnd(long took){
+        freeAtEnd = runtime.freeMemory();
+        current = BETWEEN_TICKS;
+        //MORE FREE THAN AT THE START, A COLLECTION RAN AND THE COUNT IS MEANINGLESS
+        long allocated = freeAtStart - freeAtEnd;
+        if(allocated >= 0){
+            tickBytes.record(allocated);
+        }
+        if(images > RobotMap.WATCHDOG_MAX_IMAGES && !leakLogged){
+            leakLogged = true;
+            log.log(IMAGE_LEAK, images);
+        }
+        if(took > RobotMap.LOOP_PERIOD_MICROS){
+            if(lastPauseAt >= tickStart){
+                overrunsWithPause++;
+                log.log(overrunEvent[lastPauseActivity], took, lastPause);
+            } else if(allocated < 0){
+                overrunsWithPause++;
+                log.log(COLLECTION_OVERRUN, took, -allocated);
+            } else {
+                overrunsWithoutPause++;
+                log.log(ALLOCATION_OVERRUN, took, allocated);
+            }
+        }
+    }
+
+    /**
+     * Finds GC pauses from a loop's timing, add it to the loop that runs at
+     * the highest priority. Only one should run.
+     *
+     * @param periodMicros The loop's period
+     * @param ring Where the pauses are logged, one the loop's thread owns
+     */
+    public static ControlTask createPauseDetector(long periodMicros, EventRing ring){
+        return new PauseDetector(periodMicros, ring);
+    }
+
+    private static class PauseDetector implements ControlTask {
+
+        private final long period;
+        private final EventRing ring;
+        private long last = -1;
+        private long free = -1;
+
+        PauseDetector(long period, EventRing ring){
+            this.period = period;
+            this.ring = ring;
+        }
+
+        public void update(long now, double dt){
+            long nowFree = runtime.freeMemory();
+            if(free >= 0 && nowFree > free){
+                collections++;
+                //LATE ACROSS A COLLECTION, THE VM WAS STOPPED FOR IT
+                long late = now - last - period;
+                if(late > RobotMap.WATCHDOG_PAUSE_MICROS){
+                    //SQUAWK RUNS THIS THREAD FIRST AFTER THE PAUSE, SO current IS STILL WHAT IT STOPPED
+                    int activity = current;
+                    pauseTime.record(late);
+                    pauses[activity]++;
+                    lastPause = late;
+                    lastPauseActivity = activity;
+                    lastPauseAt = now;
+                    ring.log(pauseEvent[activity], late, nowFree - free);
+                }
+            }
+            free = nowFree;
+            last = now;
+        }
+    }
+
+    public static synchronized void imageAllocated(){
+        images++;
+        if(images > peakImages){
+            peakImages = images;
+        }
+    }
+
+    public static synchronized void imageFreed(){
+        images--;
+    }
+
+    public static int getImages(){
+        return images;
+    }
+
+    public static long getCollections(){
+        return collections;
+    }
+
+    public static LatencyHistogram getPauses(){
+        return pauseTime;
+    }
+
+    //OVERRUNS A GC PAUSE HIT, AND ONES IT DIDN'T
+    public static long getOverrunsWithPause(){
+        return overrunsWithPause;
+    }
+
+    public static long getOverrunsWithoutPause(){
+        return overrunsWithoutPause;
+    }
+
+    //CLEARS THE ALLOCATION AND OVERRUN COUNTS, AT THE START OF A MATCH. PAUSES ARE COUNTED SINCE BOOT
+    public static void reset(){
+        tickBytes.reset();
+        betweenBytes.reset();
+        overrunsWithPause = overrunsWithoutPause = 0;
+        freeAtEnd = -1;
+    }
+
+    public static synchronized void dump(PrintStream out){
+        out.println("---MEMORY--- " + runtime.freeMemory() + " of " + runtime.totalMemory() + " bytes free, "
+                + collections + " collections, overruns with a gc pause " + overrunsWithPause
+                + " and without " + overrunsWithoutPause + ", NIVision images " + images + " alive "
+                + peakImages + " peak");
+        out.println(tickBytes.summary());
+        out.println(betweenBytes.summary());
+        out.println(pauseTime.summary());
+        for(int i = 0; i < activityCount; i++){
+            if(pauses[i] > 0){
+                out.println("  " + pauses[i] + " pauses during " + names[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.team1160.assistant.util;
+
+/**
+ * Streams robot state off the robot without slowing the control loop down.
+ * The control thread fills in one value per channel with set() and ends the
+ * sample with commit(). Samples are stored column by column into batches
+ * allocated up front, and a minimum priority thread encodes each full batch
+ * into one binary packet for a TelemetrySink. If the sender falls behind the
+ * samples are dropped and counted rather than waiting on the network.
+ *
+ * set(), commit() and flush() must only be called from one thread. The
+ * batch ring is single producer, single consumer, like FrameRecorder's.
+ *
+ * Packets are big endian and start with MAGIC and a type byte:
+ *
+ *     SCHEMA  short channels, then per channel a length byte and the name
+ *     BATCH   short channels, short rows, int batch number, int samples
+ *             dropped so far, long first timestamp, rows ints of
+ *             microseconds since the first timestamp, then rows floats for
+ *             each channel in turn
+ *
+ * The schema goes out before the first batch and again every SCHEMA_EVERY
+ * batches, so a receiver started late can still decode the stream.
+ */
+public class Telemetry implements Runnable {
+
+    public static final int MAGIC = 0x54;
+    public static final int SCHEMA = 0;
+    public static final int BATCH = 1;
+
+    //KEPT UNDER ONE ETHERNET FRAME
+    public static final int MAX_PACKET = 1400;
+    public static final int HEADER = 22;
+    private static final int SCHEMA_EVERY = 25;
+
+    //HOW OFTEN THE SEND THREAD LOOKS FOR WORK WHEN IDLE, MILLISECONDS
+    private static final long IDLE_POLL = 20;
+
+    private final String[] names;
+    private final int channels;
+    private final int rows;
+    private final int everyNth;
+    private final TelemetrySink sink;
+
+    //THE SAMPLE BEING BUILT BY set()
+    private final float[] current;
+
+    private final long[][] slotTimes;
+    private final float[][] slotValues; //CHANNEL c, ROW r AT c * rows + r
+    private final int[] slotRows;
+    private final int[] slotDropped;
+    private final byte[] packet;
+
+    //BATCHES EVER FILLED AND SENT, THE SLOT IS THE COUNT MOD THE RING SIZE.
+    //head IS ONLY WRITTEN BY THE CONTROL THREAD, tail ONLY BY THE SEND THREAD
+    private volatile int head;
+    private volatile int tail;
+    private int filled;
+    private long commits;
+
+    private volatile int dropped;
+    private volatile int sendErrors;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param batchRows Samples per packet, cut down if they would not fit in
+     * MAX_PACKET
+     * @param everyNth Keep one commit() in this many, 1 keeps them all
+     * @param batches Size of the ring of batches waiting to be sent
+     */
+    public Telemetry(String[] names, int batchRows, int everyNth, int batches, TelemetrySink sink){
+        this.names = names;
+        this.channels = names.length;
+        this.everyNth = Math.max(1, everyNth);
+        this.sink = sink;
+
+        int fit = (MAX_PACKET - HEADER) / (4 * (channels + 1));
+        rows = Math.max(1, Math.min(batchRows, fit));
+        current = new float[channels];
+        slotTimes = new long[batches][rows];
+        slotValues = new float[batches][channels * rows];
+        slotRows = new int[batches];
+        slotDropped = new int[batches];
+
+        int schemaBytes = 4;
+        for(int i = 0; i < channels; i++){
+            schemaBytes += 1 + Math.min(255, names[i].length());
+        }
+        packet = new byte[Math.max(schemaBytes, HEADER + 4 * rows * (channels + 1))];
+    }
+
+    /**
+     * @return The channel number for a name, -1 if there is no such channel
+     */
+    public int channel(String name){
+        for(int i = 0; i < channels; i++){
+            if(names[i].equals(name)){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void set(int channel, double value){
+        current[channel] = (float) value;
+    }
+
+    public void set(int channel, boolean value){
+        current[channel] = value ? 1 : 0;
+    }
+
+    /**
+     * Ends a sample. The values set so far are stored with the timestamp and
+     * stay as they are for the next sample until set again.
+     *
+     * @return True if the sample was kept
+     */
+    public boolean commit(long now){
+        if(commits++ % everyNth != 0){
+            return false;
+        }
+        int h = head;
+        if(h - tail == slotRows.length){
+            dropped++;
+            return false;
+        }
+        int slot = h % slotRows.length;
+        slotTimes[slot][filled] = now;
+        float[] values = slotValues[slot];
+        for(int c = 0, i = filled; c < channels; c++, i += rows){
+            values[i] = current[c];
+        }
+        filled++;
+        if(filled == rows){
+            publish(h, slot);
+        }
+        return true;
+    }
+
+    /**
+     * Hands a part filled batch to the send thread, for example when the
+     * robot is disabled.
+     */
+    public void flush(){
+        if(filled > 0){
+            int h = head;
+            publish(h, h % slotRows.length);
+        }
+    }
+
+    private void publish(int h, int slot){
+        slotRows[slot] = filled;
+        slotDropped[slot] = dropped;
+        filled = 0;
+        head = h + 1;
+    }
+
+    public synchronized void start(){
+        if(running){
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "telemetry");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stops the send thread once the ring is empty.
+     */
+    public synchronized void stop(){
+        running = false;
+    }
+
+    public void run(){
+        while(running || head != tail){
+            if(!sendOne()){
+                try {
+                    Thread.sleep(IDLE_POLL);
+                } catch (InterruptedException ex) {
+                }
+            }
+        }
+        sink.close();
+    }
+
+    /**
+     * Encodes and sends the oldest full batch, if there is one.
+     *
+     * @return False if there was nothing to send
+     */
+    public boolean sendOne(){
+        int t = tail;
+        if(t == head){
+            return false;
+        }
+        if(t % SCHEMA_EVERY == 0){
+            send(encodeSchema());
+        }
+        send(encodeBatch(t));
+        tail = t + 1;
+        return true;
+    }
+
+    private void send(int length){
+        try {
+            sink.send(packet, length);
+        } catch (java.io.IOException ex) {
+            //ONLY THE FIRST, A MISSING DASHBOARD WOULD FILL THE CONSOLE
+            if(sendErrors++ == 0){
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private int encodeSchema(){
+        packet[0] = (byte) MAGIC;
+        packet[1] = SCHEMA;
+        int p = putShort(2, channels);
+        for(int c = 0; c < channels; c++){
+            String name = names[c];
+            int length = Math.min(255, name.length());
+            packet[p++] = (byte) length;
+            for(int i = 0; i < length; i++){
+                packet[p++] = (byte) name.charAt(i);
+            }
+        }
+        return p;
+    }
+
+    private int encodeBatch(int batch){
+        int slot = batch % slotRows.length;
+        int n = slotRows[slot];
+        long[] times = slotTimes[slot];
+        float[] values = slotValues[slot];
+
+        packet[0] = (byte) MAGIC;
+        packet[1] = BATCH;
+        int p = putShort(2, channels);
+        p = putShort(p, n);
+        p = putInt(p, batch);
+        p = putInt(p, slotDropped[slot]);
+        p = putInt(p, (int) (times[0] >> 32));
+        p = putInt(p, (int) times[0]);
+        for(int r = 0; r < n; r++){
+            p = putInt(p, (int) (times[r] - times[0]));
+        }
+        for(int c = 0; c < channels; c++){
+            for(int r = 0, i = c * rows; r < n; r++, i++){
+                p = putInt(p, Float.floatToIntBits(values[i]));
+            }
+        }
+        return p;
+    }
+
+    private int putShort(int p, int v){
+        packet[p] = (byte) (v >> 8);
+        packet[p + 1] = (byte) v;
+        return p + 2;
+    }
+
+    private int putInt(int p, int v){
+        packet[p] = (byte) (v >> 24);
+        packet[p + 1] = (byte) (v >> 16);
+        packet[p + 2] = (byte) (v >> 8);
+        packet[p + 3] = (byte) v;
+        return p + 4;
+    }
+
+    public int getChannels(){
+        return channels;
+    }
+
+    public String getName(int channel){
+        return names[channel];
+    }
+
+    //SAMPLES PER PACKET AFTER FITTING TO MAX_PACKET
+    public int getRows(){
+        return rows;
+    }
+
+    public int getSent(){
+        return tail;
+    }
+
+    public int getDropped(){
+        return dropped;
+    }
+
+    public int getSendErrors(){
+        return sendErrors;
+    }
+
+    public String toString(){
+        return "telemetry: " + channels + " channels, " + rows + " samples per packet, " + tail + " packets sent, "
+                + dropped + " samples dropped, " + sendErrors + " send errors";
+    }
+}
@@ -0,0 +1,18 @@
+package com.team1160.assistant.util;
+
+import java.io.IOException;
+
+/**
+ * Where Telemetry sends its encoded packets once they are off the control
+ * thread.
+ */
+public interface TelemetrySink {
+
+    /**
+     * Sends the first length bytes of data as one packet. The array is reused
+     * for the next packet as soon as this returns.
+     */
+    void send(byte[] data, int length) throws IOException;
+
+    void close();
+}
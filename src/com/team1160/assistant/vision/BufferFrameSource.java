@@ -0,0 +1,75 @@
+package com.team1160.assistant.vision;
+
+import com.team1160.assistant.util.Clock;
+import java.util.Vector;
+
+/**
+ * Serves frames out of memory. Used to feed recorded images through the
+ * pipeline for profiling and regression checks without any I/O in the loop.
+ */
+public class BufferFrameSource implements FrameSource {
+
+    private final int width;
+    private final int height;
+    private final Vector frames = new Vector();
+    private final boolean loop;
+    private int next;
+    private long sequence;
+
+    /**
+     * @param loop True to start over at the first frame once the last one has
+     * been served, false to report the end of the source
+     */
+    public BufferFrameSource(int width, int height, boolean loop){
+        this.width = width;
+        this.height = height;
+        this.loop = loop;
+    }
+
+    /**
+     * Adds a frame of packed 0x00RRGGBB pixels. The array is kept, not copied.
+     */
+    public void addFrame(int[] pixels){
+        if(pixels.length != width * height){
+            throw new IllegalArgumentException("frame is " + pixels.length + " pixels, expected " + (width * height));
+        }
+        frames.addElement(pixels);
+    }
+
+    public int size(){
+        return frames.size();
+    }
+
+    public void rewind(){
+        next = 0;
+    }
+
+    public boolean nextFrame(Frame frame) throws FrameSourceException {
+        if(frames.isEmpty()){
+            return false;
+        }
+        if(next >= frames.size()){
+            if(!loop){
+                return false;
+            }
+            next = 0;
+        }
+        int[] pixels = (int[]) frames.elementAt(next++);
+        System.arraycopy(pixels, 0, frame.pixels, 0, pixels.length);
+        frame.sequence = sequence++;
+        frame.timestamp = Clock.micros();
+        return true;
+    }
+
+    public int getWidth(){
+        return width;
+    }
+
+    public int getHeight(){
+        return height;
+    }
+
+    public void close(){
+        frames.removeAllElements();
+    }
+}
@@ -0,0 +1,139 @@
+package com.team1160.assistant.vision;
+
+import com.sun.cldc.jna.Function;
+import com.sun.cldc.jna.NativeLibrary;
+import com.sun.cldc.jna.Pointer;
+import com.sun.squawk.Address;
+import com.team1160.assistant.util.Clock;
+import com.team1160.assistant.util.MemoryWatchdog;
+import edu.wpi.first.wpilibj.camera.AxisCamera;
+import edu.wpi.first.wpilibj.camera.AxisCameraException;
+import edu.wpi.first.wpilibj.image.ColorImage;
+import edu.wpi.first.wpilibj.image.NIVisionException;
+import edu.wpi.first.wpilibj.image.RGBImage;
+
+/**
+ * Pulls frames off the Axis camera and copies the pixels out of the NI image
+ * into a Frame. This is the only part of the vision code that still touches
+ * NIVision, everything after it is plain Java.
+ *
+ * The camera hands back HSL images, so each frame is cast into one reusable
+ * RGB image and then flattened with imaqImageToArray. Every NIVision image
+ * and buffer is reported to MemoryWatchdog as it is made and freed, so a
+ * leak shows up before the cRIO runs out.
+ */
+public class CameraFrameSource implements FrameSource {
+
+    private static final int IMAQ_IMAGE_RGB = 4;
+
+    private static final Function imaqCastFn = NativeLibrary.getDefaultInstance().getFunction("imaqCast");
+    private static final Function imaqImageToArrayFn = NativeLibrary.getDefaultInstance().getFunction("imaqImageToArray");
+    private static final Function imaqDisposeFn = NativeLibrary.getDefaultInstance().getFunction("imaqDispose");
+
+    private final AxisCamera camera;
+    private final int width;
+    private final int height;
+    private final byte[] raw;
+    private final Pointer rect;
+    private final Pointer columns;
+    private final Pointer rows;
+    private RGBImage rgb;
+    private long sequence;
+
+    public CameraFrameSource(AxisCamera camera, int width, int height){
+        this.camera = camera;
+        this.width = width;
+        this.height = height;
+        this.raw = new byte[width * height * 4];
+
+        //IMAQ_NO_RECT, THE WHOLE IMAGE
+        rect = new Pointer(16);
+        rect.setInt(0, 0);
+        rect.setInt(4, 0);
+        rect.setInt(8, 0x7FFFFFFF);
+        rect.setInt(12, 0x7FFFFFFF);
+        columns = new Pointer(4);
+        rows = new Pointer(4);
+    }
+
+    public boolean nextFrame(Frame frame) throws FrameSourceException {
+        ColorImage image = null;
+        try {
+            if(rgb == null){
+                rgb = new RGBImage();
+                MemoryWatchdog.imageAllocated();
+            }
+            image = camera.getImage();
+            MemoryWatchdog.imageAllocated();
+            imaqCastFn.call5(address(rgb.image), address(image.image), IMAQ_IMAGE_RGB, 0, 0);
+            copyPixels(frame);
+            frame.sequence = sequence++;
+            frame.timestamp = Clock.micros();
+            return true;
+        } catch (AxisCameraException ex) {
+            throw new FrameSourceException("camera: " + ex.getMessage());
+        } catch (NIVisionException ex) {
+            throw new FrameSourceException("nivision: " + ex.getMessage());
+        } finally {
+            if(image != null){
+                try {
+                    image.free();
+                    MemoryWatchdog.imageFreed();
+                } catch (NIVisionException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void copyPixels(Frame frame) throws FrameSourceException {
+        int data = imaqImageToArrayFn.call4(address(rgb.image), address(rect), address(columns), address(rows));
+        if(data == 0){
+            throw new FrameSourceException("imaqImageToArray failed");
+        }
+        MemoryWatchdog.imageAllocated();
+        try {
+            if(columns.getInt(0) != width || rows.getInt(0) != height){
+                throw new FrameSourceException("camera is " + columns.getInt(0) + "x" + rows.getInt(0)
+                        + ", expected " + width + "x" + height);
+            }
+            new Pointer(Address.fromPrimitive(data), raw.length).getBytes(0, raw, 0, raw.length);
+        } finally {
+            imaqDisposeFn.call1(data);
+            MemoryWatchdog.imageFreed();
+        }
+
+        //RGBValue IS LAID OUT B, G, R, ALPHA
+        int[] pixels = frame.pixels;
+        for(int i = 0, b = 0; i < pixels.length; i++, b += 4){
+            pixels[i] = ((raw[b + 2] & 0xFF) << 16) | ((raw[b + 1] & 0xFF) << 8) | (raw[b] & 0xFF);
+        }
+    }
+
+    private static int address(Pointer p){
+        return p.address().toUWord().toPrimitive();
+    }
+
+    public int getWidth(){
+        return width;
+    }
+
+    public int getHeight(){
+        return height;
+    }
+
+    public void close(){
+        if(rgb != null){
+            try {
+                rgb.free();
+                MemoryWatchdog.imageFreed();
+            } catch (NIVisionException ex) {
+                ex.printStackTrace();
+            }
+            rgb = null;
+        }
+        rect.free();
+        columns.free();
+        rows.free();
+    }
+}
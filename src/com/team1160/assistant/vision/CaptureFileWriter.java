@@ -0,0 +1,162 @@
+package com.team1160.assistant.vision;
+
+import com.team1160.assistant.util.EventLog;
+import com.team1160.assistant.util.EventRing;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.microedition.io.Connector;
+import javax.microedition.io.file.FileConnection;
+
+/**
+ * Appends recorded frames to a single capture file instead of one image per
+ * frame. Every record is the same size, so the replay tools can memory map
+ * the file and jump straight to any frame.
+ *
+ * Layout, all numbers big-endian:
+ *
+ *     header   8 bytes magic "T1160CAP", int version, int width, int height,
+ *              int flags (FLAG_MASKS if masks follow the pixels), 8 spare bytes
+ *     record   long sequence, long timestamp (microseconds), int reserved,
+ *              width * height * 3 bytes RGB, then width * height mask bytes
+ *              if FLAG_MASKS is set
+ *
+ * A record cut short by a crash or power loss is ignored when reading.
+ *
+ * The file only grows to maxBytes. A robot left on through practice would
+ * otherwise fill the cRIO's flash, so once the next record won't fit the
+ * writer logs it once and drops every frame after that.
+ */
+public class CaptureFileWriter implements FrameWriter {
+
+    public static final byte[] MAGIC = {'T', '1', '1', '6', '0', 'C', 'A', 'P'};
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_HEADER_SIZE = 20;
+    public static final int FLAG_MASKS = 1;
+
+    private static final int FULL = EventLog.define(EventLog.VISION, EventLog.WARN,
+            "capture file reached {i} bytes, recording stopped after {i} frames");
+
+    private final String url;
+    private final boolean masks;
+    private final long maxBytes;
+    private EventRing log = EventRing.DISCARD;
+    private long size;
+    private int frames;
+    private boolean full;
+    private DataOutputStream out;
+    private byte[] row;
+    private int width, height;
+
+    /**
+     * @param url File URL to write, for example "file:///vision/match.cap".
+     * An existing file is replaced.
+     * @param masks True to store the threshold mask with each frame
+     * @param maxBytes Largest the file may get, header included
+     */
+    public CaptureFileWriter(String url, boolean masks, long maxBytes){
+        this.url = url;
+        this.masks = masks;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Sends the file full warning to a ring of the thread that calls write().
+     * Until this is called it is only counted by isFull().
+     */
+    public void setLog(EventRing ring){
+        log = ring;
+    }
+
+    public static int recordSize(int width, int height, boolean masks){
+        return RECORD_HEADER_SIZE + width * height * (masks ? 4 : 3);
+    }
+
+    public void write(int[] pixels, byte[] mask, int width, int height, long sequence, long timestamp) throws IOException {
+        //CLOSED WHEN IT FILLED UP, OPENING IT AGAIN WOULD TRUNCATE IT
+        if(full){
+            return;
+        }
+        if(out == null){
+            open(width, height);
+        } else if(width != this.width || height != this.height){
+            throw new IOException("capture is " + this.width + "x" + this.height + ", got " + width + "x" + height);
+        }
+        int record = recordSize(width, height, masks);
+        if(size + record > maxBytes){
+            full = true;
+            log.log(FULL, size, frames);
+            close();
+            return;
+        }
+
+        out.writeLong(sequence);
+        out.writeLong(timestamp);
+        out.writeInt(0);
+        for(int y = 0; y < height; y++){
+            for(int x = 0, b = 0; x < width; x++, b += 3){
+                int p = pixels[y * width + x];
+                row[b] = (byte) (p >> 16);
+                row[b + 1] = (byte) (p >> 8);
+                row[b + 2] = (byte) p;
+            }
+            out.write(row, 0, width * 3);
+        }
+        if(masks){
+            if(mask == null){
+                for(int i = 0; i < width; i++){
+                    row[i] = 0;
+                }
+                for(int y = 0; y < height; y++){
+                    out.write(row, 0, width);
+                }
+            } else {
+                out.write(mask, 0, width * height);
+            }
+        }
+        out.flush();
+        size += record;
+        frames++;
+    }
+
+    //TRUE ONCE THE FILE HAS HIT maxBytes AND FRAMES ARE BEING DROPPED
+    public boolean isFull(){
+        return full;
+    }
+
+    private void open(int width, int height) throws IOException {
+        this.width = width;
+        this.height = height;
+        row = new byte[width * 3];
+
+        FileConnection file = (FileConnection) Connector.open(url, Connector.READ_WRITE);
+        if(!file.exists()){
+            file.create();
+        } else {
+            file.truncate(0);
+        }
+        OutputStream stream = file.openOutputStream();
+        file.close();
+        out = new DataOutputStream(stream);
+
+        out.write(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(masks ? FLAG_MASKS : 0);
+        out.writeLong(0);
+        size = HEADER_SIZE;
+    }
+
+    public void close(){
+        if(out != null){
+            try {
+                out.close();
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+            out = null;
+        }
+    }
+}
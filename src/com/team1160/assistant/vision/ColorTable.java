@@ -0,0 +1,154 @@
+package com.team1160.assistant.vision;
+
+import com.team1160.assistant.util.Clock;
+
+/**
+ * Thresholds by table lookup instead of converting every pixel to HSV. For
+ * each possible colour the table holds one bit saying whether it is inside
+ * the HSV ranges, so classifying a pixel is a shift, a load and a mask.
+ *
+ * At 24 bits every colour has its own bit (2MB) and the mask is exactly what
+ * HsvThreshold gives. At 16 bits colours are cut to 5-6-5 first and the
+ * table is a byte per colour (64KB) that is copied straight into the mask.
+ * It builds 256 times faster but can flip pixels right on a threshold edge.
+ *
+ * The table is built by running HsvThreshold itself over every colour, so the
+ * two can never disagree about what is in range. update() only rebuilds when
+ * the thresholds in the config have changed since the last build.
+ */
+public class ColorTable implements ThresholdKernel {
+
+    public static final int RGB565 = 16;
+    public static final int RGB888 = 24;
+
+    private final int bits;
+    private final int[] table; //24 BIT, ONE BIT PER COLOUR
+    private final byte[] bytes; //16 BIT, THE MASK VALUE PER COLOUR
+
+    //THRESHOLDS THE TABLE WAS BUILT FOR
+    private boolean built;
+    private int hueLow, hueHigh, satLow, satHigh, valLow, valHigh;
+    private int builds;
+    private long buildMicros;
+
+    /**
+     * @param bits RGB565 or RGB888
+     */
+    public ColorTable(int bits){
+        if(bits != RGB565 && bits != RGB888){
+            throw new IllegalArgumentException("colour table must be 16 or 24 bits, not " + bits);
+        }
+        this.bits = bits;
+        table = bits == RGB888 ? new int[1 << 19] : null;
+        bytes = bits == RGB565 ? new byte[1 << 16] : null;
+    }
+
+    /**
+     * Rebuilds the table if the config's thresholds are not the ones it was
+     * built for.
+     *
+     * @return True if it was rebuilt
+     */
+    public boolean update(VisionConfig config){
+        if(built && config.hueLow == hueLow && config.hueHigh == hueHigh && config.satLow == satLow
+                && config.satHigh == satHigh && config.valLow == valLow && config.valHigh == valHigh){
+            return false;
+        }
+        build(config);
+        return true;
+    }
+
+    /**
+     * Classifies every colour for the config's thresholds, 65536 at a time.
+     */
+    public void build(VisionConfig config){
+        long start = Clock.micros();
+        hueLow = config.hueLow;
+        hueHigh = config.hueHigh;
+        satLow = config.satLow;
+        satHigh = config.satHigh;
+        valLow = config.valLow;
+        valHigh = config.valHigh;
+
+        Frame colours = new Frame(256, 256);
+        int[] pixels = colours.pixels;
+        if(bits == RGB565){
+            for(int i = 0; i < pixels.length; i++){
+                pixels[i] = expand565(i);
+            }
+            HsvThreshold.threshold(colours, config, bytes, 0, pixels.length);
+            finishBuild(start);
+            return;
+        }
+
+        byte[] inRange = new byte[pixels.length];
+        for(int block = 0; block < 256; block++){
+            for(int i = 0; i < pixels.length; i++){
+                pixels[i] = block << 16 | i;
+            }
+            HsvThreshold.threshold(colours, config, inRange, 0, pixels.length);
+            int base = block * pixels.length >> 5;
+            for(int w = 0; w < pixels.length >> 5; w++){
+                int word = 0;
+                for(int b = 0; b < 32; b++){
+                    word |= inRange[w << 5 | b] << b;
+                }
+                table[base + w] = word;
+            }
+        }
+        finishBuild(start);
+    }
+
+    private void finishBuild(long start){
+        built = true;
+        builds++;
+        buildMicros = Clock.micros() - start;
+    }
+
+    //THE MIDDLE OF THE 24 BIT COLOURS THAT SHARE THIS 5-6-5 VALUE
+    private static int expand565(int c){
+        int r = (c >> 11) & 0x1F, g = (c >> 5) & 0x3F, b = c & 0x1F;
+        return (r << 3 | r >> 2) << 16 | (g << 2 | g >> 4) << 8 | (b << 3 | b >> 2);
+    }
+
+    public void threshold(Frame frame, VisionConfig config, byte[] mask, int from, int to){
+        int[] pixels = frame.pixels;
+        int[] t = table;
+        if(bits == RGB888){
+            for(int i = from; i < to; i++){
+                int c = pixels[i] & 0xFFFFFF;
+                mask[i] = (byte) ((t[c >> 5] >>> (c & 31)) & 1);
+            }
+        } else {
+            byte[] b = bytes;
+            for(int i = from; i < to; i++){
+                int p = pixels[i];
+                mask[i] = b[((p >> 8) & 0xF800) | ((p >> 5) & 0x07E0) | ((p >> 3) & 0x1F)];
+            }
+        }
+    }
+
+    /**
+     * @return True if the colour 0xRRGGBB is inside the thresholds
+     */
+    public boolean contains(int rgb){
+        if(bits == RGB565){
+            return bytes[((rgb >> 8) & 0xF800) | ((rgb >> 5) & 0x07E0) | ((rgb >> 3) & 0x1F)] != 0;
+        }
+        int c = rgb & 0xFFFFFF;
+        return ((table[c >> 5] >>> (c & 31)) & 1) != 0;
+    }
+
+    public int getBits(){
+        return bits;
+    }
+
+    public int getBuilds(){
+        return builds;
+    }
+
+    //HOW LONG THE LAST BUILD TOOK, MICROSECONDS
+    public long getBuildMicros(){
+        return buildMicros;
+    }
+}
@@ -0,0 +1,94 @@
+package com.team1160.assistant.vision;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.microedition.io.Connector;
+import javax.microedition.io.file.FileConnection;
+
+/**
+ * Writes recorded frames to the cRIO flash as PPM images (and masks as PGM),
+ * one file per frame named after the frame sequence number. PPM needs no
+ * encoder and opens in anything, and the tools read it straight back in.
+ */
+public class FileFrameWriter implements FrameWriter {
+
+    private final String directory;
+    private byte[] row;
+    private boolean directoryChecked;
+
+    /**
+     * @param directory File URL of the directory to write to, for example
+     * "file:///vision/"
+     */
+    public FileFrameWriter(String directory){
+        this.directory = directory.endsWith("/") ? directory : directory + "/";
+    }
+
+    public void write(int[] pixels, byte[] mask, int width, int height, long sequence, long timestamp) throws IOException {
+        if(!directoryChecked){
+            makeDirectory();
+            directoryChecked = true;
+        }
+        if(row == null || row.length < width * 3){
+            row = new byte[width * 3];
+        }
+
+        OutputStream out = open("frame_" + sequence + ".ppm");
+        try {
+            out.write(("P6\n# timestamp " + timestamp + "\n" + width + " " + height + "\n255\n").getBytes());
+            for(int y = 0; y < height; y++){
+                for(int x = 0, b = 0; x < width; x++, b += 3){
+                    int p = pixels[y * width + x];
+                    row[b] = (byte) (p >> 16);
+                    row[b + 1] = (byte) (p >> 8);
+                    row[b + 2] = (byte) p;
+                }
+                out.write(row, 0, width * 3);
+            }
+        } finally {
+            out.close();
+        }
+
+        if(mask != null){
+            out = open("mask_" + sequence + ".pgm");
+            try {
+                out.write(("P5\n" + width + " " + height + "\n255\n").getBytes());
+                for(int y = 0; y < height; y++){
+                    for(int x = 0; x < width; x++){
+                        row[x] = mask[y * width + x] != 0 ? (byte) 255 : 0;
+                    }
+                    out.write(row, 0, width);
+                }
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private void makeDirectory() throws IOException {
+        FileConnection dir = (FileConnection) Connector.open(directory, Connector.READ_WRITE);
+        try {
+            if(!dir.exists()){
+                dir.mkdir();
+            }
+        } finally {
+            dir.close();
+        }
+    }
+
+    private OutputStream open(String name) throws IOException {
+        FileConnection file = (FileConnection) Connector.open(directory + name, Connector.READ_WRITE);
+        if(!file.exists()){
+            file.create();
+        } else {
+            file.truncate(0);
+        }
+        //THE STREAM KEEPS WORKING AFTER THE CONNECTION IS CLOSED
+        OutputStream out = file.openOutputStream();
+        file.close();
+        return out;
+    }
+
+    public void close(){
+    }
+}
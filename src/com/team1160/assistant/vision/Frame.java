@@ -0,0 +1,29 @@
+package com.team1160.assistant.vision;
+
+/**
+ * A reusable colour frame. Pixels are packed as 0x00RRGGBB in row-major order.
+ * The pixel array is allocated once and refilled by a FrameSource every pass,
+ * so grabbing a frame never creates garbage.
+ */
+public class Frame {
+
+    public final int width;
+    public final int height;
+    public final int[] pixels;
+
+    //SET BY THE SOURCE EACH TIME THE FRAME IS FILLED
+    public long sequence;
+    public long timestamp; //MICROSECONDS, SEE Clock
+
+    public Frame(int width, int height){
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+    }
+
+    public void copyFrom(Frame other){
+        System.arraycopy(other.pixels, 0, pixels, 0, pixels.length);
+        sequence = other.sequence;
+        timestamp = other.timestamp;
+    }
+}
@@ -0,0 +1,178 @@
+package com.team1160.assistant.vision;
+
+/**
+ * Captures selected vision frames for debugging without slowing the vision
+ * thread down. Picked frames are copied into a ring of slots allocated up
+ * front from a byte budget, and a minimum priority thread drains the ring to
+ * a FrameWriter. If the ring is full the frame is dropped and counted rather
+ * than waiting on the disk.
+ *
+ * offer() must only be called from one thread (the vision thread). The ring
+ * is single producer, single consumer, so the two indexes are all the
+ * coordination it needs.
+ */
+public class FrameRecorder implements Runnable {
+
+    //HOW OFTEN THE DRAIN THREAD LOOKS FOR WORK WHEN IDLE, MILLISECONDS
+    private static final long IDLE_POLL = 50;
+
+    private final int width;
+    private final int height;
+    private final FrameWriter writer;
+    private final boolean recordMasks;
+
+    private final int[][] slotPixels;
+    private final byte[][] slotMasks;
+    private final long[] slotSequence;
+    private final long[] slotTimestamp;
+
+    //FRAMES EVER PUT IN AND TAKEN OUT, THE SLOT IS THE COUNT MOD THE RING SIZE.
+    //head IS ONLY WRITTEN BY THE VISION THREAD, tail ONLY BY THE DRAIN THREAD
+    private volatile int head;
+    private volatile int tail;
+
+    //0 TURNS PERIODIC CAPTURE OFF
+    public volatile int everyNth;
+    public volatile boolean onDetection;
+    private volatile boolean captureRequested;
+
+    private int offered;
+    private volatile int recorded;
+    private volatile int dropped;
+    private volatile int written;
+    private volatile int writeErrors;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param budgetBytes Memory the ring may use. Each slot costs four bytes
+     * per pixel plus one more per pixel when masks are recorded. At least one
+     * slot is always allocated.
+     */
+    public FrameRecorder(int width, int height, int budgetBytes, boolean recordMasks, FrameWriter writer){
+        this.width = width;
+        this.height = height;
+        this.writer = writer;
+        this.recordMasks = recordMasks;
+
+        int slotBytes = width * height * (recordMasks ? 5 : 4);
+        int slots = Math.max(1, budgetBytes / slotBytes);
+        slotPixels = new int[slots][width * height];
+        slotMasks = recordMasks ? new byte[slots][width * height] : null;
+        slotSequence = new long[slots];
+        slotTimestamp = new long[slots];
+    }
+
+    /**
+     * Asks for the next frame to be captured whatever the other triggers say.
+     */
+    public void requestCapture(){
+        captureRequested = true;
+    }
+
+    /**
+     * Called by the vision thread after each frame. Copies the frame into the
+     * ring if one of the triggers picks it and there is room.
+     *
+     * @return True if the frame was captured
+     */
+    public boolean offer(Frame frame, byte[] mask, boolean detected){
+        offered++;
+        boolean wanted = captureRequested
+                || (everyNth > 0 && offered % everyNth == 0)
+                || (onDetection && detected);
+        if(!wanted){
+            return false;
+        }
+
+        int h = head;
+        if(h - tail == slotPixels.length){
+            dropped++;
+            return false;
+        }
+        int slot = h % slotPixels.length;
+        System.arraycopy(frame.pixels, 0, slotPixels[slot], 0, slotPixels[slot].length);
+        if(recordMasks && mask != null){
+            System.arraycopy(mask, 0, slotMasks[slot], 0, slotMasks[slot].length);
+        }
+        slotSequence[slot] = frame.sequence;
+        slotTimestamp[slot] = frame.timestamp;
+        captureRequested = false;
+        recorded++;
+        head = h + 1;
+        return true;
+    }
+
+    public synchronized void start(){
+        if(running){
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "recorder");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stops the drain thread once the ring is empty.
+     */
+    public synchronized void stop(){
+        running = false;
+    }
+
+    public void run(){
+        while(running || head != tail){
+            if(!drainOne()){
+                try {
+                    Thread.sleep(IDLE_POLL);
+                } catch (InterruptedException ex) {
+                }
+            }
+        }
+        writer.close();
+    }
+
+    /**
+     * Writes the oldest captured frame, if there is one.
+     *
+     * @return False if the ring was empty
+     */
+    public boolean drainOne(){
+        int t = tail;
+        if(t == head){
+            return false;
+        }
+        int slot = t % slotPixels.length;
+        try {
+            writer.write(slotPixels[slot], recordMasks ? slotMasks[slot] : null, width, height,
+                    slotSequence[slot], slotTimestamp[slot]);
+            written++;
+        } catch (java.io.IOException ex) {
+            writeErrors++;
+            ex.printStackTrace();
+        }
+        tail = t + 1;
+        return true;
+    }
+
+    public int getSlots(){
+        return slotPixels.length;
+    }
+
+    public int getRecorded(){
+        return recorded;
+    }
+
+    public int getDropped(){
+        return dropped;
+    }
+
+    public int getWritten(){
+        return written;
+    }
+
+    public int getWriteErrors(){
+        return writeErrors;
+    }
+}
@@ -0,0 +1,24 @@
+package com.team1160.assistant.vision;
+
+/**
+ * Anything that can hand frames to the vision pipeline: the camera on the
+ * robot, an in-memory buffer or a directory of recorded images on a laptop.
+ * Sources fill a caller-owned Frame so the pipeline decides how many pixel
+ * buffers exist.
+ */
+public interface FrameSource {
+
+    /**
+     * Fills the frame with the next image from this source.
+     *
+     * @param frame The frame to fill, must match getWidth() and getHeight()
+     * @return False if the source has run out of frames
+     */
+    boolean nextFrame(Frame frame) throws FrameSourceException;
+
+    int getWidth();
+
+    int getHeight();
+
+    void close();
+}
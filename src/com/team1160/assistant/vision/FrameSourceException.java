@@ -0,0 +1,14 @@
+package com.team1160.assistant.vision;
+
+/**
+ * Thrown when a FrameSource cannot produce a frame, wrapping whatever the
+ * underlying camera or file layer complained about.
+ */
+public class FrameSourceException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public FrameSourceException(String message){
+        super(message);
+    }
+}
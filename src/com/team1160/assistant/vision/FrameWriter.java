@@ -0,0 +1,17 @@
+package com.team1160.assistant.vision;
+
+import java.io.IOException;
+
+/**
+ * Where the FrameRecorder puts frames once they are off the vision thread.
+ */
+public interface FrameWriter {
+
+    /**
+     * @param mask The threshold mask for the frame, null if masks are not
+     * being recorded
+     */
+    void write(int[] pixels, byte[] mask, int width, int height, long sequence, long timestamp) throws IOException;
+
+    void close();
+}
@@ -0,0 +1,86 @@
+package com.team1160.assistant.vision;
+
+/**
+ * Pure Java replacement for ColorImage.thresholdHSV. Converts each pixel to
+ * hue, saturation and value on the same 0-255 scale NI uses and writes 1 into
+ * the mask for pixels inside all three ranges, 0 otherwise.
+ */
+public class HsvThreshold {
+
+    //THE PER-PIXEL CONVERSION AS A ThresholdKernel
+    public static final ThresholdKernel KERNEL = new ThresholdKernel(){
+        public void threshold(Frame frame, VisionConfig config, byte[] mask, int from, int to){
+            HsvThreshold.threshold(frame, config, mask, from, to);
+        }
+    };
+
+    /**
+     * Thresholds a whole frame into a mask of width * height bytes.
+     */
+    public static void threshold(Frame frame, VisionConfig config, byte[] mask){
+        threshold(frame, config, mask, 0, frame.pixels.length);
+    }
+
+    /**
+     * Thresholds only the window from (x0, y0) inclusive to (x1, y1)
+     * exclusive. The rest of the mask is left as it was.
+     */
+    public static void threshold(Frame frame, VisionConfig config, byte[] mask, int x0, int y0, int x1, int y1){
+        int width = frame.width;
+        for(int y = y0; y < y1; y++){
+            threshold(frame, config, mask, y * width + x0, y * width + x1);
+        }
+    }
+
+    /**
+     * Thresholds pixels from (inclusive) to to (exclusive) only, so separate
+     * strips of a frame can be done on separate threads.
+     */
+    public static void threshold(Frame frame, VisionConfig config, byte[] mask, int from, int to){
+        int[] pixels = frame.pixels;
+        int hueLow = config.hueLow, hueHigh = config.hueHigh;
+        int satLow = config.satLow, satHigh = config.satHigh;
+        int valLow = config.valLow, valHigh = config.valHigh;
+
+        for(int i = from; i < to; i++){
+            int p = pixels[i];
+            int r = (p >> 16) & 0xFF;
+            int g = (p >> 8) & 0xFF;
+            int b = p & 0xFF;
+
+            //VALUE IS THE BRIGHTEST CHANNEL, CHEAPEST TEST FIRST
+            int max = r > g ? (r > b ? r : b) : (g > b ? g : b);
+            if(max < valLow || max > valHigh){
+                mask[i] = 0;
+                continue;
+            }
+            int min = r < g ? (r < b ? r : b) : (g < b ? g : b);
+            int delta = max - min;
+            int sat = max == 0 ? 0 : 255 * delta / max;
+            if(sat < satLow || sat > satHigh){
+                mask[i] = 0;
+                continue;
+            }
+            int hue = hue(r, g, b, max, delta);
+            mask[i] = (byte) (hue >= hueLow && hue <= hueHigh ? 1 : 0);
+        }
+    }
+
+    /**
+     * Hue on a 0-255 circle, 43 steps per sixth of the colour wheel.
+     */
+    public static int hue(int r, int g, int b, int max, int delta){
+        if(delta == 0){
+            return 0;
+        }
+        int hue;
+        if(max == r){
+            hue = 43 * (g - b) / delta;
+        } else if(max == g){
+            hue = 85 + 43 * (b - r) / delta;
+        } else {
+            hue = 171 + 43 * (r - g) / delta;
+        }
+        return hue < 0 ? hue + 256 : hue;
+    }
+}
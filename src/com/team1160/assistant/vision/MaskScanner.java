@@ -0,0 +1,17 @@
+package com.team1160.assistant.vision;
+
+/**
+ * Finds where runs start and end in a row of the threshold mask, for
+ * ParticleLabeler. Without one the labeler steps through the row a pixel at a
+ * time; a scanner can skip over many pixels at once.
+ */
+public interface MaskScanner {
+
+    /**
+     * @param set True to look for the next pixel that is set (mask != 0),
+     * false for the next one that is clear
+     * @return The first x from x to x1 - 1 where mask[row + x] is set or clear
+     * as asked, x1 if there is none
+     */
+    int next(byte[] mask, int row, int x, int x1, boolean set);
+}
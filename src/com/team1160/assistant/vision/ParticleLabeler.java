@@ -0,0 +1,325 @@
+package com.team1160.assistant.vision;
+
+/**
+ * Finds the 8-connected particles in a binary mask and measures them in a
+ * single scan, the pure Java stand-in for particleFilter plus the NI particle
+ * reports and MeasureParticle calls.
+ *
+ * Each row is cut into runs of set pixels. A run is joined to every run it
+ * touches in the row above with union-find, and while the rows are being
+ * compared the area, bounding box, center of mass sums and perimeter are
+ * accumulated per run. Afterwards the runs are folded into their roots and
+ * particles outside the area limits are dropped on the way out, so the mask
+ * is read exactly once and the work grows linearly with the image.
+ *
+ * The perimeter counts pixel edges between the particle and the background,
+ * which is exact for the upright rectangles the targets show up as.
+ *
+ * Results go into a ParticleTable owned by the labeler. All working memory
+ * is allocated up front for one image size, labeling a frame allocates
+ * nothing.
+ */
+public class ParticleLabeler {
+
+    //THE UPPER AREA LIMIT THE particleFilter CRITERIA USED, BIGGER PARTICLES ARE DROPPED
+    public static final int AREA_MAXIMUM = 65535;
+
+    private final int width;
+    private final int height;
+    private final int maxRunsPerRow;
+
+    //RUNS OF ROW y ARE rowFirst[y] .. rowFirst[y] + rowCount[y] - 1
+    private final int[] rowFirst;
+    private final int[] rowCount;
+
+    //PER RUN, end IS EXCLUSIVE
+    private final int[] runStart;
+    private final int[] runEnd;
+    private final int[] parent;
+
+    //PER RUN ACCUMULATORS, ONLY MEANINGFUL ON ROOTS AFTER fold()
+    private final int[] area;
+    private final int[] minX;
+    private final int[] maxX;
+    private final int[] minY;
+    private final int[] maxY;
+    private final long[] sumX;
+    private final long[] sumY;
+    private final int[] edges;
+
+    private final ParticleTable particles;
+    private int overflow;
+
+    //NULL TO STEP THROUGH ROWS A PIXEL AT A TIME
+    private MaskScanner scanner;
+
+    /**
+     * @param capacity The most particles that will be reported per frame,
+     * extra particles are counted in getOverflow() and dropped
+     */
+    public ParticleLabeler(int width, int height, int capacity){
+        this.width = width;
+        this.height = height;
+        maxRunsPerRow = (width + 1) / 2;
+        int runs = maxRunsPerRow * height;
+
+        rowFirst = new int[height];
+        rowCount = new int[height];
+        runStart = new int[runs];
+        runEnd = new int[runs];
+        parent = new int[runs];
+        area = new int[runs];
+        minX = new int[runs];
+        maxX = new int[runs];
+        minY = new int[runs];
+        maxY = new int[runs];
+        sumX = new long[runs];
+        sumY = new long[runs];
+        edges = new int[runs];
+
+        particles = new ParticleTable(capacity);
+    }
+
+    /**
+     * Labels and measures every particle in the mask, pixels are set where
+     * mask[i] != 0. Particles smaller than areaMinimum or bigger than
+     * AREA_MAXIMUM are left out, the same as BinaryImage.particleFilter with
+     * an IMAQ_MT_AREA criteria of (areaMinimum, 65535). Particles are
+     * reported in the order their top-left pixel appears in the image.
+     *
+     * @return The number of particles kept
+     */
+    public int label(byte[] mask, int areaMinimum){
+        labelStrip(mask, 0, height);
+        return finish(areaMinimum);
+    }
+
+    /**
+     * Labels only the window from (x0, y0) inclusive to (x1, y1) exclusive,
+     * as if every pixel outside it were clear. Particles are measured in full
+     * image coordinates, ones that cross the window edge are cut off at it.
+     *
+     * @return The number of particles kept
+     */
+    public int labelWindow(byte[] mask, int x0, int y0, int x1, int y1, int areaMinimum){
+        int next = y0 * maxRunsPerRow;
+        for(int y = 0; y < height; y++){
+            if(y < y0 || y >= y1){
+                rowCount[y] = 0;
+                continue;
+            }
+            rowFirst[y] = next;
+            next = scanRow(mask, y, next, x0, x1);
+            rowCount[y] = next - rowFirst[y];
+            if(y > y0){
+                joinRows(y - 1, y);
+            }
+        }
+        return finish(areaMinimum);
+    }
+
+    /**
+     * Labels rows y0 to y1 - 1 on their own, without looking at the rows
+     * around them. Strips that don't overlap only touch their own slice of the
+     * run arrays, so different threads can label different strips at the same
+     * time. Follow with mergeStrips() and finish().
+     */
+    public void labelStrip(byte[] mask, int y0, int y1){
+        //EACH STRIP GETS THE RUN SLOTS FOR ITS OWN ROWS, SO RUN INDEXES STILL
+        //INCREASE IN SCAN ORDER ACROSS STRIPS
+        int next = y0 * maxRunsPerRow;
+        for(int y = y0; y < y1; y++){
+            rowFirst[y] = next;
+            next = scanRow(mask, y, next, 0, width);
+            rowCount[y] = next - rowFirst[y];
+            if(y > y0){
+                joinRows(y - 1, y);
+            }
+        }
+    }
+
+    /**
+     * Joins particles that cross the boundaries between strips of stripHeight
+     * rows, once every strip has been labeled.
+     */
+    public void mergeStrips(int stripHeight){
+        for(int y = stripHeight; y < height; y += stripHeight){
+            joinRows(y - 1, y);
+        }
+    }
+
+    /**
+     * Measures the labeled particles into the table, dropping those under the
+     * minimum area.
+     *
+     * @return The number of particles kept
+     */
+    public int finish(int areaMinimum){
+        fold();
+        emit(areaMinimum);
+        return particles.count;
+    }
+
+    /**
+     * Cuts columns x0 to x1 - 1 of one row of the mask into runs starting at
+     * run index first.
+     *
+     * @return The index after the last run written
+     */
+    private int scanRow(byte[] mask, int y, int first, int x0, int x1){
+        int r = first;
+        int row = y * width;
+        int x = x0;
+        MaskScanner s = scanner;
+        while(x < x1){
+            if(s != null){
+                x = s.next(mask, row, x, x1, true);
+            } else {
+                while(x < x1 && mask[row + x] == 0){
+                    x++;
+                }
+            }
+            if(x == x1){
+                break;
+            }
+            int start = x;
+            if(s != null){
+                x = s.next(mask, row, x, x1, false);
+            } else {
+                while(x < x1 && mask[row + x] != 0){
+                    x++;
+                }
+            }
+            int len = x - start;
+            runStart[r] = start;
+            runEnd[r] = x;
+            parent[r] = r;
+            area[r] = len;
+            minX[r] = start;
+            maxX[r] = x - 1;
+            minY[r] = maxY[r] = y;
+            sumX[r] = (long) (start + x - 1) * len / 2;
+            sumY[r] = (long) y * len;
+            //BOTH ENDS PLUS THE TOP AND BOTTOM, TAKEN BACK WHERE ROWS TOUCH
+            edges[r] = 2 * len + 2;
+            r++;
+        }
+        return r;
+    }
+
+    /**
+     * Joins the runs of row b to the runs of row a = b - 1 they touch,
+     * including diagonally. Runs are sorted within a row so one sweep does it.
+     */
+    private void joinRows(int a, int b){
+        int i = rowFirst[a], iEnd = i + rowCount[a];
+        int j = rowFirst[b], jEnd = j + rowCount[b];
+        while(i < iEnd && j < jEnd){
+            //8-CONNECTED: TOUCHING IF THEY OVERLAP WHEN ONE IS WIDENED BY A PIXEL
+            if(runStart[i] <= runEnd[j] && runStart[j] <= runEnd[i]){
+                union(i, j);
+                int overlap = Math.min(runEnd[i], runEnd[j]) - Math.max(runStart[i], runStart[j]);
+                if(overlap > 0){
+                    //THE SHARED EDGE WAS COUNTED AS PERIMETER ON BOTH RUNS
+                    edges[j] -= 2 * overlap;
+                }
+            }
+            if(runEnd[i] < runEnd[j]){
+                i++;
+            } else {
+                j++;
+            }
+        }
+    }
+
+    private int find(int r){
+        while(parent[r] != r){
+            parent[r] = parent[parent[r]];
+            r = parent[r];
+        }
+        return r;
+    }
+
+    //THE LOWER INDEX (FIRST IN SCAN ORDER) ALWAYS BECOMES THE ROOT
+    private void union(int a, int b){
+        a = find(a);
+        b = find(b);
+        if(a < b){
+            parent[b] = a;
+        } else if(b < a){
+            parent[a] = b;
+        }
+    }
+
+    /**
+     * Adds every run's measurements into its root.
+     */
+    private void fold(){
+        for(int y = 0; y < height; y++){
+            int end = rowFirst[y] + rowCount[y];
+            for(int r = rowFirst[y]; r < end; r++){
+                int root = find(r);
+                if(root == r){
+                    continue;
+                }
+                area[root] += area[r];
+                if(minX[r] < minX[root]) minX[root] = minX[r];
+                if(maxX[r] > maxX[root]) maxX[root] = maxX[r];
+                if(minY[r] < minY[root]) minY[root] = minY[r];
+                if(maxY[r] > maxY[root]) maxY[root] = maxY[r];
+                sumX[root] += sumX[r];
+                sumY[root] += sumY[r];
+                edges[root] += edges[r];
+            }
+        }
+    }
+
+    /**
+     * Writes a table row for every root big enough to keep. Roots are the first
+     * run of their particle, so walking the runs in order gives scan order.
+     */
+    private void emit(int areaMinimum){
+        ParticleTable t = particles;
+        int count = 0;
+        overflow = 0;
+        for(int y = 0; y < height; y++){
+            int end = rowFirst[y] + rowCount[y];
+            for(int r = rowFirst[y]; r < end; r++){
+                if(parent[r] != r || area[r] < areaMinimum || area[r] > AREA_MAXIMUM){
+                    continue;
+                }
+                if(count == t.capacity){
+                    overflow++;
+                    continue;
+                }
+                int i = count++;
+                t.particleArea[i] = area[r];
+                t.boundingRectLeft[i] = minX[r];
+                t.boundingRectTop[i] = minY[r];
+                t.boundingRectWidth[i] = maxX[r] - minX[r] + 1;
+                t.boundingRectHeight[i] = maxY[r] - minY[r] + 1;
+                t.center_mass_x[i] = (int) (sumX[r] / area[r]);
+                t.center_mass_y[i] = (int) (sumY[r] / area[r]);
+                t.perimeter[i] = edges[r];
+                t.computeEquivalentRect(i);
+            }
+        }
+        t.count = count;
+    }
+
+    /**
+     * Uses the scanner to find run starts and ends, null goes back to the
+     * plain loop. The runs found must be exactly the same either way.
+     */
+    public void setMaskScanner(MaskScanner scanner){
+        this.scanner = scanner;
+    }
+
+    public ParticleTable getParticles(){
+        return particles;
+    }
+
+    public int getOverflow(){
+        return overflow;
+    }
+}
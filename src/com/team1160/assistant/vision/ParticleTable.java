@@ -0,0 +1,68 @@
+package com.team1160.assistant.vision;
+
+/**
+ * Everything known about the particles in one frame, one primitive array per
+ * measurement and indexed by particle number. The labeler fills in the
+ * measurements, the pipeline fills in the per-particle scores once, and the
+ * pairing loop only reads arrays, so scoring a frame allocates nothing.
+ *
+ * Names follow NI's ParticleAnalysisReport where there is one.
+ */
+public class ParticleTable {
+
+    public final int capacity;
+    public int count;
+
+    //MEASUREMENTS, FILLED BY ParticleLabeler
+    public final double[] particleArea;
+    public final int[] boundingRectLeft;
+    public final int[] boundingRectTop;
+    public final int[] boundingRectWidth;
+    public final int[] boundingRectHeight;
+    public final int[] center_mass_x;
+    public final int[] center_mass_y;
+    public final double[] perimeter;
+    //SIDES OF THE RECTANGLE WITH THE SAME AREA AND PERIMETER AS THE PARTICLE
+    public final double[] rectLong;
+    public final double[] rectShort;
+
+    //SCORES, FILLED BY VisionPipeline
+    public final double[] rectangularity;
+    public final double[] aspectRatioVertical;
+    public final double[] aspectRatioHorizontal;
+
+    public ParticleTable(int capacity){
+        this.capacity = capacity;
+        particleArea = new double[capacity];
+        boundingRectLeft = new int[capacity];
+        boundingRectTop = new int[capacity];
+        boundingRectWidth = new int[capacity];
+        boundingRectHeight = new int[capacity];
+        center_mass_x = new int[capacity];
+        center_mass_y = new int[capacity];
+        perimeter = new double[capacity];
+        rectLong = new double[capacity];
+        rectShort = new double[capacity];
+        rectangularity = new double[capacity];
+        aspectRatioVertical = new double[capacity];
+        aspectRatioHorizontal = new double[capacity];
+    }
+
+    /**
+     * Fills in rectLong and rectShort for a particle from its area and
+     * perimeter. The equivalent rectangle has sides x and y with x*y = area
+     * and 2x+2y = perimeter.
+     */
+    public void computeEquivalentRect(int i){
+        double quarter = perimeter[i] / 4;
+        double disc = quarter * quarter - particleArea[i];
+        if(disc < 0){
+            //MORE COMPACT THAN A SQUARE, CALL IT A SQUARE
+            rectLong[i] = rectShort[i] = Math.sqrt(particleArea[i]);
+        } else {
+            double root = Math.sqrt(disc);
+            rectLong[i] = quarter + root;
+            rectShort[i] = quarter - root;
+        }
+    }
+}
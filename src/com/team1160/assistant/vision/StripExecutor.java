@@ -0,0 +1,10 @@
+package com.team1160.assistant.vision;
+
+/**
+ * Runs the strips of a frame, possibly in parallel. execute() returns once
+ * every strip has been run.
+ */
+public interface StripExecutor {
+
+    void execute(StripTask task, int strips);
+}
@@ -0,0 +1,9 @@
+package com.team1160.assistant.vision;
+
+/**
+ * The work for one horizontal strip of a frame.
+ */
+public interface StripTask {
+
+    void run(int strip);
+}
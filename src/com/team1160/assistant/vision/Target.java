@@ -0,0 +1,27 @@
+package com.team1160.assistant.vision;
+
+/**
+ * The best vertical/horizontal pairing found in a frame. Reused from frame to
+ * frame by the pipeline.
+ */
+public class Target {
+
+    public boolean found;
+    public int verticalIndex;
+    public int horizontalIndex;
+    public boolean Hot;
+    public double totalScore;
+    public double leftScore;
+    public double rightScore;
+    public double tapeWidthScore;
+    public double verticalScore;
+    public double distance;
+
+    void clear(){
+        found = false;
+        Hot = false;
+        verticalIndex = horizontalIndex = 0;
+        totalScore = leftScore = rightScore = tapeWidthScore = verticalScore = 0;
+        distance = 0;
+    }
+}
@@ -0,0 +1,178 @@
+package com.team1160.assistant.vision;
+
+/**
+ * Combines the last few frames into one answer so nothing has to act on a
+ * single noisy frame or wait out a fixed delay.
+ *
+ * The hot call is a vote over the last hotWindow frames. It is made as soon
+ * as hotVotes frames with a target agree, and it only changes once hotVotes
+ * frames agree on the other answer, so a stray frame can't flip it. Distance
+ * goes through an alpha-beta filter that tracks the distance and how fast it
+ * is changing, using the frame timestamps so dropped frames are handled.
+ *
+ * The history is a fixed ring of primitives and every update is constant
+ * time. Not thread safe, it belongs to the vision thread.
+ */
+public class TargetFusion {
+
+    //NO TARGET FOR THIS LONG AND THE DISTANCE FILTER STARTS OVER, MICROSECONDS
+    private static final long DISTANCE_TIMEOUT = 500000;
+
+    private final VisionConfig config;
+    private final int window;
+
+    //RING OF THE LAST window FRAMES
+    private final boolean[] found;
+    private final boolean[] hot;
+    private int next;
+    private int hotCount, notHotCount;
+
+    private boolean decided;
+    private boolean fusedHot;
+    private long firstTimestamp;
+    private long frames;
+    private long decisionFrames, decisionTime;
+
+    //ALPHA-BETA STATE, FEET AND FEET PER SECOND
+    private boolean tracking;
+    private double distance;
+    private double rate;
+    private long lastSeen;
+
+    public TargetFusion(VisionConfig config){
+        this.config = config;
+        window = Math.max(1, config.hotWindow);
+        found = new boolean[window];
+        hot = new boolean[window];
+        reset();
+    }
+
+    /**
+     * Forgets everything, for the start of a new tracking run.
+     */
+    public void reset(){
+        for(int i = 0; i < window; i++){
+            found[i] = hot[i] = false;
+        }
+        next = hotCount = notHotCount = 0;
+        decided = fusedHot = false;
+        frames = 0;
+        decisionFrames = decisionTime = -1;
+        tracking = false;
+        distance = rate = 0;
+    }
+
+    /**
+     * Adds one processed frame.
+     *
+     * @return The report for this frame with the fused answers filled in
+     */
+    public TargetReport update(Target target, Frame frame){
+        if(frames == 0){
+            firstTimestamp = frame.timestamp;
+        }
+        frames++;
+        vote(target.found, target.found && target.Hot, frame.timestamp);
+        if(target.found){
+            filterDistance(target.distance, frame.timestamp);
+        } else if(tracking && frame.timestamp - lastSeen > DISTANCE_TIMEOUT){
+            tracking = false;
+        }
+
+        double confidence = 0;
+        if(decided){
+            confidence = (double) (fusedHot ? hotCount : notHotCount) / window;
+        }
+        return new TargetReport(target.found, target.found && target.Hot, target.distance, target.totalScore,
+                frame.sequence, frame.timestamp, decided, fusedHot, confidence, tracking ? distance : 0);
+    }
+
+    private void vote(boolean isFound, boolean isHot, long timestamp){
+        //TAKE OUT THE FRAME FALLING OFF THE END OF THE WINDOW
+        if(found[next]){
+            if(hot[next]){
+                hotCount--;
+            } else {
+                notHotCount--;
+            }
+        }
+        found[next] = isFound;
+        hot[next] = isHot;
+        if(isFound){
+            if(isHot){
+                hotCount++;
+            } else {
+                notHotCount++;
+            }
+        }
+        next = (next + 1) % window;
+
+        int needed = Math.min(config.hotVotes, window);
+        boolean change = false;
+        if(hotCount >= needed && (!decided || !fusedHot)){
+            fusedHot = change = true;
+        } else if(notHotCount >= needed && (!decided || fusedHot)){
+            fusedHot = false;
+            change = true;
+        }
+        if(change && !decided){
+            decided = true;
+            decisionFrames = frames;
+            decisionTime = timestamp - firstTimestamp;
+        }
+    }
+
+    private void filterDistance(double measured, long timestamp){
+        if(!tracking){
+            tracking = true;
+            distance = measured;
+            rate = 0;
+            lastSeen = timestamp;
+            return;
+        }
+        double dt = (timestamp - lastSeen) / 1e6;
+        lastSeen = timestamp;
+        if(dt <= 0){
+            //SAME TIMESTAMP TWICE, JUST AVERAGE IT IN
+            distance += config.distanceAlpha * (measured - distance);
+            return;
+        }
+        double predicted = distance + rate * dt;
+        double residual = measured - predicted;
+        distance = predicted + config.distanceAlpha * residual;
+        rate += config.distanceBeta * residual / dt;
+    }
+
+    public boolean isDecided(){
+        return decided;
+    }
+
+    public boolean isHot(){
+        return fusedHot;
+    }
+
+    public double getDistance(){
+        return distance;
+    }
+
+    //FEET PER SECOND, NEGATIVE WHILE DRIVING TOWARDS THE GOAL
+    public double getDistanceRate(){
+        return rate;
+    }
+
+    /**
+     * @return How many frames it took to make the first hot call since the
+     * last reset, -1 if none has been made
+     */
+    public long getDecisionFrames(){
+        return decisionFrames;
+    }
+
+    /**
+     * @return Microseconds from the first frame to the first hot call, -1 if
+     * none has been made
+     */
+    public long getDecisionTime(){
+        return decisionTime;
+    }
+}
@@ -0,0 +1,24 @@
+package com.team1160.assistant.vision;
+
+/**
+ * Single slot holding the newest TargetReport. The vision thread overwrites
+ * it every frame and readers just take whatever is there; nobody ever waits.
+ * A reference write is atomic and the reports are immutable, so the volatile
+ * field is all the synchronization this needs.
+ */
+public class TargetMailbox {
+
+    private volatile TargetReport latest = TargetReport.NONE;
+
+    public void publish(TargetReport report){
+        latest = report;
+    }
+
+    public TargetReport latest(){
+        return latest;
+    }
+
+    public void clear(){
+        latest = TargetReport.NONE;
+    }
+}
@@ -0,0 +1,60 @@
+package com.team1160.assistant.vision;
+
+/**
+ * What the vision thread found in one frame. Immutable, so once it has been
+ * published any thread can hold on to it and read it without locking.
+ */
+public class TargetReport {
+
+    //PUBLISHED BEFORE THE FIRST FRAME HAS BEEN PROCESSED
+    public static final TargetReport NONE = new TargetReport(false, false, 0, 0, -1, 0, false, false, 0, 0);
+
+    public final boolean found;
+    public final boolean hot;
+    public final double distance;
+    public final double score;
+    public final long sequence;
+    public final long timestamp; //MICROSECONDS WHEN THE FRAME WAS GRABBED, SEE Clock
+
+    //FUSED OVER THE LAST FEW FRAMES BY TargetFusion, USE THESE TO ACT ON
+    public final boolean hotDecided; //FALSE UNTIL ENOUGH FRAMES AGREE
+    public final boolean fusedHot;
+    public final double hotConfidence; //SHARE OF THE VOTE WINDOW BEHIND THE CALL, 0-1
+    public final double filteredDistance; //0 WHEN NOT TRACKING A TARGET
+
+    public TargetReport(boolean found, boolean hot, double distance, double score, long sequence, long timestamp,
+            boolean hotDecided, boolean fusedHot, double hotConfidence, double filteredDistance){
+        this.found = found;
+        this.hot = hot;
+        this.distance = distance;
+        this.score = score;
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.hotDecided = hotDecided;
+        this.fusedHot = fusedHot;
+        this.hotConfidence = hotConfidence;
+        this.filteredDistance = filteredDistance;
+    }
+
+    /**
+     * A report from one frame on its own, the fused fields just repeat it.
+     */
+    public static TargetReport from(Target target, Frame frame){
+        boolean hot = target.found && target.Hot;
+        return new TargetReport(target.found, hot, target.distance, target.totalScore,
+                frame.sequence, frame.timestamp, target.found, hot, target.found ? 1 : 0, target.distance);
+    }
+
+    /**
+     * @return How old this report is in microseconds
+     */
+    public long age(long now){
+        return now - timestamp;
+    }
+
+    public String toString(){
+        return "TargetReport[" + sequence + (found ? (hot ? " hot" : " not hot") + " distance " + distance + " score " + score : " no target")
+                + (hotDecided ? (fusedHot ? ", fused hot " : ", fused not hot ") + hotConfidence : ", undecided")
+                + " filtered distance " + filteredDistance + "]";
+    }
+}
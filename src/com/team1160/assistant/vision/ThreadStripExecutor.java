@@ -0,0 +1,115 @@
+package com.team1160.assistant.vision;
+
+/**
+ * Runs strips on a fixed set of worker threads plus the calling thread. Works
+ * on the cRIO as well as on a coprocessor; on a full JVM the tools also have a
+ * fork-join version.
+ *
+ * Threads take the next unclaimed strip until none are left, so uneven strips
+ * balance out. Only one execute() may run at a time.
+ */
+public class ThreadStripExecutor implements StripExecutor {
+
+    private final Thread[] workers;
+    private StripTask task;
+    private int strips;
+    private int nextStrip;
+    private int remaining;
+    private int generation;
+    private RuntimeException failure;
+    private volatile boolean running = true;
+
+    /**
+     * @param threads Total threads to use including the caller, so 1 runs
+     * everything on the calling thread
+     */
+    public ThreadStripExecutor(int threads){
+        workers = new Thread[Math.max(0, threads - 1)];
+        for(int i = 0; i < workers.length; i++){
+            workers[i] = new Thread(new Runnable(){
+                public void run(){
+                    work();
+                }
+            }, "strip-" + i);
+            workers[i].start();
+        }
+    }
+
+    public void execute(StripTask task, int strips){
+        int gen;
+        synchronized(this){
+            this.task = task;
+            this.strips = strips;
+            nextStrip = 0;
+            remaining = strips;
+            failure = null;
+            gen = ++generation;
+            notifyAll();
+        }
+        runStrips(task, gen);
+        synchronized(this){
+            while(remaining > 0){
+                try {
+                    wait();
+                } catch (InterruptedException ex) {
+                }
+            }
+            this.task = null;
+            if(failure != null){
+                throw failure;
+            }
+        }
+    }
+
+    private void work(){
+        int seen = 0;
+        while(running){
+            StripTask t;
+            synchronized(this){
+                while(running && generation == seen){
+                    try {
+                        wait();
+                    } catch (InterruptedException ex) {
+                    }
+                }
+                seen = generation;
+                t = task;
+            }
+            if(t != null){
+                runStrips(t, seen);
+            }
+        }
+    }
+
+    private void runStrips(StripTask t, int gen){
+        int strip;
+        while((strip = claim(gen)) >= 0){
+            try {
+                t.run(strip);
+            } catch (RuntimeException ex) {
+                synchronized(this){
+                    failure = ex;
+                }
+            }
+            synchronized(this){
+                if(--remaining == 0){
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    //A WORKER THAT WOKE UP LATE MUST NOT TAKE STRIPS FROM A LATER FRAME
+    private synchronized int claim(int gen){
+        return gen == generation && nextStrip < strips ? nextStrip++ : -1;
+    }
+
+    public int getThreads(){
+        return workers.length + 1;
+    }
+
+    public synchronized void shutdown(){
+        running = false;
+        notifyAll();
+    }
+}
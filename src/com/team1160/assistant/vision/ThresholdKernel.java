@@ -0,0 +1,15 @@
+package com.team1160.assistant.vision;
+
+/**
+ * One way of turning pixels into the 0/1 threshold mask. The pipeline picks
+ * one per VisionConfig.colorTableBits; they all give the same mask for the
+ * same thresholds, except ColorTable at reduced colour depth.
+ */
+public interface ThresholdKernel {
+
+    /**
+     * Thresholds pixels from (inclusive) to to (exclusive) of the frame into
+     * the same positions of the mask.
+     */
+    void threshold(Frame frame, VisionConfig config, byte[] mask, int from, int to);
+}
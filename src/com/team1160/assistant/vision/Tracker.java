@@ -0,0 +1,11 @@
+package com.team1160.assistant.vision;
+
+/**
+ * The part of Vision the commands use, so they can run without WPILib.
+ */
+public interface Tracker {
+
+    public void startTracking();
+
+    public void stopTracking();
+}
@@ -0,0 +1,182 @@
+package com.team1160.assistant.vision;
+
+import com.team1160.assistant.util.Clock;
+import com.team1160.assistant.util.EventLog;
+import com.team1160.assistant.util.EventRing;
+
+/**
+ * One camera run by a VisionManager: its FrameSource, its own pipeline and
+ * configuration, and the mailbox it publishes TargetReports into. Cameras own
+ * no thread and no frame, the manager lends them a worker and a frame buffer
+ * for each frame.
+ *
+ * start() and stop() can be called from any thread and as often as commands
+ * like. stop() only takes the camera out of the rotation, it does not wait
+ * for a frame in progress.
+ */
+public class VisionCamera {
+
+    //HOW LONG TO LEAVE A CAMERA ALONE AFTER IT THROWS, MICROSECONDS
+    private static final long ERROR_BACKOFF = 100000;
+
+    private static final int HOT = EventLog.define(EventLog.VISION, EventLog.INFO,
+            "Hot target located, frame {i} distance: {f}");
+    private static final int NOT_HOT = EventLog.define(EventLog.VISION, EventLog.INFO,
+            "No hot target present, frame {i} distance: {f}");
+    private static final int HOT_DECIDED = EventLog.define(EventLog.VISION, EventLog.INFO,
+            "Fused hot call: {i} at frame {i}, confidence {f}");
+
+    private final String name;
+    private final FrameSource source;
+    private final VisionPipeline pipeline;
+    private final TargetMailbox mailbox;
+    private final TargetFusion fusion;
+    private FrameRecorder recorder;
+    private EventRing log = EventRing.DISCARD;
+
+    //ONLY CHANGED UNDER THE MANAGER'S LOCK
+    boolean busy;
+    long retryAt;
+    VisionManager manager;
+
+    private volatile boolean running;
+    private volatile boolean resetPending;
+    private volatile int frames;
+    private volatile int errors;
+
+    public VisionCamera(String name, FrameSource source, VisionConfig config){
+        this.name = name;
+        this.source = source;
+        pipeline = new VisionPipeline(config, source.getWidth(), source.getHeight());
+        mailbox = new TargetMailbox();
+        fusion = new TargetFusion(config);
+    }
+
+    /**
+     * Hands every processed frame to the recorder, which decides whether to
+     * keep it. Pass null to stop recording.
+     */
+    public void setRecorder(FrameRecorder recorder){
+        this.recorder = recorder;
+    }
+
+    /**
+     * Sets the ring this camera's frames log to, shared with its pipeline.
+     */
+    public void setLog(EventRing log){
+        this.log = log;
+        pipeline.setLog(log);
+    }
+
+    //PUTS THE CAMERA IN THE MANAGER'S ROTATION, RETURNS STRAIGHT AWAY
+    public void start(){
+        if(running){
+            return;
+        }
+        //EVERY TRACKING RUN DECIDES HOT AFRESH
+        resetPending = true;
+        running = true;
+        if(manager != null){
+            manager.wake();
+        }
+    }
+
+    public void stop(){
+        running = false;
+    }
+
+    public boolean isRunning(){
+        return running;
+    }
+
+    /**
+     * Grabs one frame into the manager's buffer, processes and publishes it.
+     * Only called by a manager worker, and never for the same camera on two
+     * workers at once.
+     */
+    void step(Frame frame){
+        if(resetPending){
+            resetPending = false;
+            fusion.reset();
+            pipeline.resetRoi();
+        }
+        try {
+            if(!source.nextFrame(frame)){
+                running = false;
+                return;
+            }
+            process(frame);
+        } catch (FrameSourceException ex) {
+            fail(ex);
+        } catch (RuntimeException ex) {
+            //A BAD FRAME OR CONFIG MUSTN'T TAKE THE WORKER DOWN WITH IT
+            fail(ex);
+        }
+    }
+
+    private void fail(Exception ex){
+        errors++;
+        ex.printStackTrace();
+        retryAt = Clock.micros() + ERROR_BACKOFF;
+    }
+
+    private void process(Frame frame){
+        Target target = pipeline.process(frame);
+        boolean wasDecided = fusion.isDecided(), wasHot = fusion.isHot();
+        TargetReport report = fusion.update(target, frame);
+        mailbox.publish(report);
+        frames++;
+        if(report.hotDecided && (!wasDecided || wasHot != report.fusedHot)){
+            log.log(HOT_DECIDED, report.fusedHot ? 1 : 0, frame.sequence, EventLog.d(report.hotConfidence));
+        }
+        if(recorder != null){
+            recorder.offer(frame, pipeline.getMask(), target.found);
+        }
+
+        if(target.found){
+            log.log(target.Hot ? HOT : NOT_HOT, frame.sequence, EventLog.d(target.distance));
+        }
+    }
+
+    /**
+     * The newest result from this camera. Never blocks and never returns
+     * null, check found and the timestamp to see if it is worth using.
+     */
+    public TargetReport getLatest(){
+        return mailbox.latest();
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    public FrameSource getSource(){
+        return source;
+    }
+
+    public VisionPipeline getPipeline(){
+        return pipeline;
+    }
+
+    public TargetFusion getFusion(){
+        return fusion;
+    }
+
+    public TargetMailbox getMailbox(){
+        return mailbox;
+    }
+
+    public FrameRecorder getRecorder(){
+        return recorder;
+    }
+
+    //FRAMES PUBLISHED SINCE THE CAMERA WAS ADDED
+    public int getFrames(){
+        return frames;
+    }
+
+    //FRAMES THE SOURCE OR THE PIPELINE THREW ON
+    public int getErrors(){
+        return errors;
+    }
+}
@@ -0,0 +1,219 @@
+package com.team1160.assistant.vision;
+
+import com.team1160.assistant.RobotMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+/**
+ * Tunable settings for one vision pipeline. Starts out with the values from
+ * RobotMap so the robot behaves exactly as before, but can be changed per
+ * pipeline for offline tuning and profiling.
+ *
+ * The threshold, particle filter and score limit settings can also be read
+ * from a text file of "name = value" lines, the names being the fields
+ * below, with # starting a comment. The tools' VisionTuner writes one with
+ * store() and the robot reads it from RobotMap.VISION_CONFIG_FILE.
+ */
+public class VisionConfig {
+
+    //HSV THRESHOLD
+    public int hueLow = RobotMap.HUE_LOW;
+    public int hueHigh = RobotMap.HUE_HIGH;
+    public int satLow = RobotMap.SAT_LOW;
+    public int satHigh = RobotMap.SAT_HIGH;
+    public int valLow = RobotMap.VAL_LOW;
+    public int valHigh = RobotMap.VAL_HIGH;
+    //0 CONVERTS EVERY PIXEL, 16 OR 24 THRESHOLDS THROUGH A ColorTable
+    public int colorTableBits = RobotMap.COLOR_TABLE_BITS;
+
+    //PARTICLE FILTER
+    public int areaMinimum = RobotMap.AREA_MINIMUM;
+    public int maxParticles = RobotMap.MAX_PARTICLES;
+
+    //SCORE LIMITS
+    public double rectangularityLimit = RobotMap.RECTANGULARITY_LIMIT;
+    public double aspectRatioLimit = RobotMap.ASPECT_RATIO_LIMIT;
+    public double tapeWidthLimit = RobotMap.TAPE_WIDTH_LIMIT;
+    public double verticalScoreLimit = RobotMap.VERTICAL_SCORE_LIMIT;
+    public double lrScoreLimit = RobotMap.LR_SCORE_LIMIT;
+
+    //CAMERA
+    public double viewAngle = RobotMap.VIEW_ANGLE;
+
+    //ROWS PER STRIP WHEN A StripExecutor IS SET, 0 FOR THE WHOLE FRAME AT ONCE
+    public int stripHeight = 0;
+
+    //REGION OF INTEREST, ONLY LOOK AROUND THE LAST TARGET ONCE IT IS LOCKED
+    public boolean roiEnabled = RobotMap.ROI_ENABLED;
+    public int roiPadding = RobotMap.ROI_PADDING;
+    public double roiScoreMinimum = RobotMap.ROI_SCORE_MINIMUM;
+    public int roiMaxFrames = RobotMap.ROI_MAX_FRAMES;
+
+    //MULTI-FRAME FUSION, SEE TargetFusion
+    public int hotWindow = RobotMap.HOT_VOTE_WINDOW;
+    public int hotVotes = RobotMap.HOT_VOTES_NEEDED;
+    public double distanceAlpha = RobotMap.DISTANCE_ALPHA;
+    public double distanceBeta = RobotMap.DISTANCE_BETA;
+
+    /**
+     * Sets one setting by its field name.
+     *
+     * @return False if there is no setting by that name
+     * @throws IllegalArgumentException If the value doesn't parse or is out
+     * of range for the setting
+     */
+    public boolean set(String name, String value){
+        if(name.equals("hueLow")) hueLow = channel(value);
+        else if(name.equals("hueHigh")) hueHigh = channel(value);
+        else if(name.equals("satLow")) satLow = channel(value);
+        else if(name.equals("satHigh")) satHigh = channel(value);
+        else if(name.equals("valLow")) valLow = channel(value);
+        else if(name.equals("valHigh")) valHigh = channel(value);
+        else if(name.equals("colorTableBits")) colorTableBits = tableBits(value);
+        else if(name.equals("areaMinimum")) areaMinimum = atLeast(value, 0);
+        else if(name.equals("rectangularityLimit")) rectangularityLimit = Double.parseDouble(value);
+        else if(name.equals("aspectRatioLimit")) aspectRatioLimit = Double.parseDouble(value);
+        else if(name.equals("tapeWidthLimit")) tapeWidthLimit = Double.parseDouble(value);
+        else if(name.equals("verticalScoreLimit")) verticalScoreLimit = Double.parseDouble(value);
+        else if(name.equals("lrScoreLimit")) lrScoreLimit = Double.parseDouble(value);
+        else return false;
+        return true;
+    }
+
+    private static int channel(String value){
+        int v = atLeast(value, 0);
+        if(v > 255){
+            throw new IllegalArgumentException(value);
+        }
+        return v;
+    }
+
+    //WHAT ColorTable TAKES, OR 0 FOR NO TABLE
+    private static int tableBits(String value){
+        int v = Integer.parseInt(value);
+        if(v != 0 && v != ColorTable.RGB565 && v != ColorTable.RGB888){
+            throw new IllegalArgumentException(value);
+        }
+        return v;
+    }
+
+    private static int atLeast(String value, int minimum){
+        int v = Integer.parseInt(value);
+        if(v < minimum){
+            throw new IllegalArgumentException(value);
+        }
+        return v;
+    }
+
+    /**
+     * Reads settings from a stream written by store() (or by hand) over the
+     * current values. Settings the stream leaves out keep their values.
+     *
+     * @throws IOException On an unknown name, a bad or out of range value, or
+     * an HSV range whose low end is above its high end, naming the line
+     */
+    public void read(InputStream in) throws IOException {
+        //NO BufferedReader ON THE ROBOT, SPLIT THE LINES BY HAND
+        InputStreamReader reader = new InputStreamReader(in);
+        StringBuffer line = new StringBuffer();
+        int number = 1;
+        //LOW AND HIGH CAN COME IN EITHER ORDER, SO THE RANGES ARE CHECKED AT THE END
+        int rangeLine = 0;
+        int c;
+        do {
+            c = reader.read();
+            if(c >= 0 && c != '\n'){
+                line.append((char) c);
+                continue;
+            }
+            String name = readLine(line.toString(), number);
+            if(name != null && (name.endsWith("Low") || name.endsWith("High"))){
+                rangeLine = number;
+            }
+            number++;
+            line.setLength(0);
+        } while(c >= 0);
+        checkRange("hue", hueLow, hueHigh, rangeLine);
+        checkRange("sat", satLow, satHigh, rangeLine);
+        checkRange("val", valLow, valHigh, rangeLine);
+    }
+
+    private static void checkRange(String name, int low, int high, int line) throws IOException {
+        if(low > high){
+            throw new IOException("line " + line + ": " + name + "Low " + low + " above " + name + "High " + high);
+        }
+    }
+
+    //THE NAME OF THE SETTING THE LINE SET, NULL FOR A BLANK LINE
+    private String readLine(String line, int number) throws IOException {
+        int hash = line.indexOf('#');
+        if(hash >= 0){
+            line = line.substring(0, hash);
+        }
+        line = line.trim();
+        if(line.length() == 0){
+            return null;
+        }
+        int equals = line.indexOf('=');
+        String name = equals < 0 ? line : line.substring(0, equals).trim();
+        boolean known;
+        try {
+            known = equals > 0 && set(name, line.substring(equals + 1).trim());
+        } catch (IllegalArgumentException ex) {
+            //NumberFormatException IS ONE TOO
+            throw new IOException("line " + number + ": bad value for " + name);
+        }
+        if(!known){
+            throw new IOException("line " + number + ": no setting " + name);
+        }
+        return name;
+    }
+
+    //WRITES EVERY SETTING read() KNOWS
+    public void store(PrintStream out){
+        out.println("hueLow = " + hueLow);
+        out.println("hueHigh = " + hueHigh);
+        out.println("satLow = " + satLow);
+        out.println("satHigh = " + satHigh);
+        out.println("valLow = " + valLow);
+        out.println("valHigh = " + valHigh);
+        out.println("colorTableBits = " + colorTableBits);
+        out.println("areaMinimum = " + areaMinimum);
+        out.println("rectangularityLimit = " + rectangularityLimit);
+        out.println("aspectRatioLimit = " + aspectRatioLimit);
+        out.println("tapeWidthLimit = " + tapeWidthLimit);
+        out.println("verticalScoreLimit = " + verticalScoreLimit);
+        out.println("lrScoreLimit = " + lrScoreLimit);
+    }
+
+    public VisionConfig copy(){
+        VisionConfig c = new VisionConfig();
+        c.hueLow = hueLow;
+        c.hueHigh = hueHigh;
+        c.satLow = satLow;
+        c.satHigh = satHigh;
+        c.valLow = valLow;
+        c.valHigh = valHigh;
+        c.colorTableBits = colorTableBits;
+        c.areaMinimum = areaMinimum;
+        c.maxParticles = maxParticles;
+        c.rectangularityLimit = rectangularityLimit;
+        c.aspectRatioLimit = aspectRatioLimit;
+        c.tapeWidthLimit = tapeWidthLimit;
+        c.verticalScoreLimit = verticalScoreLimit;
+        c.lrScoreLimit = lrScoreLimit;
+        c.viewAngle = viewAngle;
+        c.stripHeight = stripHeight;
+        c.roiEnabled = roiEnabled;
+        c.roiPadding = roiPadding;
+        c.roiScoreMinimum = roiScoreMinimum;
+        c.roiMaxFrames = roiMaxFrames;
+        c.hotWindow = hotWindow;
+        c.hotVotes = hotVotes;
+        c.distanceAlpha = distanceAlpha;
+        c.distanceBeta = distanceBeta;
+        return c;
+    }
+}
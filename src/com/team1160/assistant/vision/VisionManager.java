@@ -0,0 +1,191 @@
+package com.team1160.assistant.vision;
+
+import com.team1160.assistant.util.Clock;
+import java.util.Vector;
+
+/**
+ * Runs any number of cameras on a fixed number of worker threads. Each worker
+ * owns one preallocated frame buffer and loops: take the next running camera
+ * that nobody is working on, grab and process one of its frames, give the
+ * camera back. Cameras are handed out round robin, so with fewer workers than
+ * cameras they take turns, and adding a camera adds its pipeline but no
+ * threads and no frame buffers.
+ *
+ * Every camera must have the same resolution, the frames are shared.
+ * Cameras are added before start(); after that they are started and stopped
+ * on their own.
+ */
+public class VisionManager implements Runnable {
+
+    //HOW OFTEN AN IDLE WORKER LOOKS AGAIN WHILE A CAMERA IS BACKING OFF, MILLISECONDS
+    private static final long IDLE_WAIT = 20;
+
+    private final int width;
+    private final int height;
+    private final Frame[] frames;
+    private final Vector cameras = new Vector();
+    private final Thread[] threads;
+    private int next;
+    private volatile boolean running;
+    //BUMPED BY start() SO WORKERS FROM BEFORE A stop() KNOW TO QUIT
+    private volatile int generation;
+
+    /**
+     * @param workers How many cameras can be worked on at once, each worker
+     * is a thread with its own frame buffer
+     */
+    public VisionManager(int workers, int width, int height){
+        this.width = width;
+        this.height = height;
+        frames = new Frame[workers];
+        for(int i = 0; i < workers; i++){
+            frames[i] = new Frame(width, height);
+        }
+        threads = new Thread[workers];
+    }
+
+    public synchronized VisionCamera addCamera(VisionCamera camera){
+        if(camera.getSource().getWidth() != width || camera.getSource().getHeight() != height){
+            throw new IllegalArgumentException(camera.getName() + " is " + camera.getSource().getWidth() + "x"
+                    + camera.getSource().getHeight() + ", the manager's frames are " + width + "x" + height);
+        }
+        if(running){
+            throw new IllegalStateException("cameras have to be added before start()");
+        }
+        camera.manager = this;
+        cameras.addElement(camera);
+        return camera;
+    }
+
+    /**
+     * Starts the workers. They sleep until a camera is started.
+     */
+    public synchronized void start(){
+        if(running){
+            return;
+        }
+        running = true;
+        generation++;
+        for(int i = 0; i < threads.length; i++){
+            threads[i] = new Thread(this, "vision-" + i);
+            //BELOW THE MAIN ROBOT THREAD SO THE CONTROL LOOP ALWAYS WINS
+            threads[i].setPriority(Thread.NORM_PRIORITY - 2);
+            threads[i].start();
+        }
+    }
+
+    /**
+     * Asks the workers to finish. A frame in progress is still published.
+     */
+    public synchronized void stop(){
+        running = false;
+        notifyAll();
+    }
+
+    public boolean isRunning(){
+        return running;
+    }
+
+    public void run(){
+        int self = generation;
+        Frame frame = claimFrame();
+        try {
+            while(running && generation == self){
+                VisionCamera camera = take();
+                if(camera == null){
+                    continue;
+                }
+                try {
+                    camera.step(frame);
+                } finally {
+                    give(camera);
+                }
+                Thread.yield();
+            }
+        } finally {
+            //A LEAKED FRAME WOULD HANG THE NEXT start() IN claimFrame()
+            releaseFrame(frame);
+        }
+    }
+
+    //EVERY WORKER KEEPS ONE FRAME FOR AS LONG AS IT RUNS. A stop() AND start()
+    //CAN OVERLAP WITH AN OLD WORKER WINDING DOWN, THE NEW ONE WAITS FOR ITS FRAME
+    private synchronized Frame claimFrame(){
+        while(true){
+            for(int i = 0; i < frames.length; i++){
+                if(frames[i] != null){
+                    Frame frame = frames[i];
+                    frames[i] = null;
+                    return frame;
+                }
+            }
+            try {
+                wait();
+            } catch (InterruptedException ex) {
+            }
+        }
+    }
+
+    private synchronized void releaseFrame(Frame frame){
+        for(int i = 0; i < frames.length; i++){
+            if(frames[i] == null){
+                frames[i] = frame;
+                break;
+            }
+        }
+        notifyAll();
+    }
+
+    //THE NEXT RUNNING, IDLE CAMERA AFTER THE LAST ONE HANDED OUT, OR NULL AFTER A WAIT
+    private synchronized VisionCamera take(){
+        int n = cameras.size();
+        long now = Clock.micros();
+        boolean backingOff = false;
+        for(int k = 0; k < n; k++){
+            int i = (next + k) % n;
+            VisionCamera camera = (VisionCamera) cameras.elementAt(i);
+            if(!camera.isRunning() || camera.busy){
+                continue;
+            }
+            if(now < camera.retryAt){
+                backingOff = true;
+                continue;
+            }
+            camera.busy = true;
+            next = i + 1;
+            return camera;
+        }
+        try {
+            //give(), wake() AND stop() NOTIFY, ONLY A BACKOFF RUNS OUT UNANNOUNCED
+            if(backingOff){
+                wait(IDLE_WAIT);
+            } else if(running){
+                wait();
+            }
+        } catch (InterruptedException ex) {
+        }
+        return null;
+    }
+
+    private synchronized void give(VisionCamera camera){
+        camera.busy = false;
+        notifyAll();
+    }
+
+    //A CAMERA WAS STARTED
+    synchronized void wake(){
+        notifyAll();
+    }
+
+    public int getCameraCount(){
+        return cameras.size();
+    }
+
+    public VisionCamera getCamera(int index){
+        return (VisionCamera) cameras.elementAt(index);
+    }
+
+    public int getWorkers(){
+        return threads.length;
+    }
+}
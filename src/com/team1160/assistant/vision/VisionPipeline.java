@@ -0,0 +1,475 @@
+package com.team1160.assistant.vision;
+
+import com.team1160.assistant.util.EventLog;
+import com.team1160.assistant.util.EventRing;
+
+/**
+ * The target finding code without any NIVision in it: HSV threshold, particle
+ * labeling and area filter, then the particle scoring and vertical/horizontal
+ * pairing from the 2014 vision sample. Works on frames from any FrameSource so
+ * it can be profiled and checked on a laptop as well as run on the robot.
+ *
+ * One pipeline owns all the buffers it needs for one image size. It is not
+ * thread safe, give each thread its own.
+ */
+public class VisionPipeline {
+
+    //HOW MANY PARTICLES THE LABELER KEEPS AFTER THE AREA FILTER
+    private static final int LABEL_CAPACITY = 256;
+
+    private static final int PARTICLE_HORIZONTAL = EventLog.define(EventLog.VISION, EventLog.DEBUG,
+            "particle: {i} is a Horizontal Target centerX: {i} centerY: {i}");
+    private static final int PARTICLE_VERTICAL = EventLog.define(EventLog.VISION, EventLog.DEBUG,
+            "particle: {i} is a Vertical Target centerX: {i} centerY: {i}");
+    private static final int PARTICLE_NONE = EventLog.define(EventLog.VISION, EventLog.DEBUG,
+            "particle: {i} is not a Target centerX: {i} centerY: {i}");
+    private static final int PARTICLE_SCORES = EventLog.define(EventLog.VISION, EventLog.DEBUG,
+            "particle: {i} rect: {f} ARHoriz: {f} ARVert: {f}");
+    private static final int ROI_LOST = EventLog.define(EventLog.VISION, EventLog.DEBUG,
+            "roi lost after {i} frames, score: {f}");
+
+    private final VisionConfig config;
+    private final int width;
+    private final int height;
+    private final byte[] mask;
+    private final ParticleLabeler labeler;
+    private final Target target = new Target();
+
+    private final ParticleTable particles;
+    private int verticalTargets[];
+    private int horizontalTargets[];
+    private int verticalTargetCount, horizontalTargetCount;
+
+    private EventRing log = EventRing.DISCARD;
+
+    //PICKED FROM config.colorTableBits AT THE START OF EVERY FRAME
+    private ThresholdKernel kernel = HsvThreshold.KERNEL;
+    private ThresholdKernel pixelKernel = HsvThreshold.KERNEL;
+    private ColorTable colorTable;
+
+    //REGION OF INTEREST, right AND bottom ARE EXCLUSIVE
+    private boolean roiActive;
+    private int roiLeft, roiTop, roiRight, roiBottom;
+    private int roiFrames;
+    private int fullScans, windowScans;
+
+    //STRIP MODE, ONLY USED WHILE process() IS RUNNING THE STRIPS
+    private StripExecutor executor;
+    private Frame stripFrame;
+    private final StripTask stripTask = new StripTask(){
+        public void run(int strip){
+            int y0 = strip * config.stripHeight;
+            int y1 = Math.min(height, y0 + config.stripHeight);
+            kernel.threshold(stripFrame, config, mask, y0 * width, y1 * width);
+            labeler.labelStrip(mask, y0, y1);
+        }
+    };
+
+    public VisionPipeline(VisionConfig config, int width, int height){
+        this.config = config;
+        this.width = width;
+        this.height = height;
+        mask = new byte[width * height];
+        labeler = new ParticleLabeler(width, height, LABEL_CAPACITY);
+        particles = labeler.getParticles();
+        verticalTargets = new int[config.maxParticles];
+        horizontalTargets = new int[config.maxParticles];
+    }
+
+    /**
+     * Runs one frame through the pipeline.
+     *
+     * @return The best target found in the frame. The same object is reused
+     * for every frame, check found before using the rest.
+     */
+    public Target process(Frame frame){
+        selectKernel();
+        if(roiActive && roiFrames < config.roiMaxFrames){
+            roiFrames++;
+            windowScans++;
+            for(int y = roiTop; y < roiBottom; y++){
+                kernel.threshold(frame, config, mask, y * width + roiLeft, y * width + roiRight);
+            }
+            labeler.labelWindow(mask, roiLeft, roiTop, roiRight, roiBottom, config.areaMinimum);
+            score();
+            if(isLocked()){
+                lockOn();
+                return target;
+            }
+            //LOST IT, LOOK AT THE WHOLE FRAME BEFORE GIVING UP ON THIS ONE
+            log.log(ROI_LOST, roiFrames, EventLog.d(target.totalScore));
+        }
+        scanFrame(frame);
+        score();
+        roiActive = false;
+        roiFrames = 0;
+        if(isLocked()){
+            lockOn();
+        }
+        return target;
+    }
+
+    /**
+     * Labels and scores a threshold mask made elsewhere, over the whole frame
+     * and without the region of interest. For tuning, where one mask serves
+     * every candidate with the same HSV ranges.
+     */
+    public Target processMask(byte[] mask){
+        labeler.label(mask, config.areaMinimum);
+        return score();
+    }
+
+    /**
+     * Scores the particles of the last frame or mask again, for when only the
+     * score limits in the config have changed since.
+     */
+    public Target rescore(){
+        return score();
+    }
+
+    private void scanFrame(Frame frame){
+        fullScans++;
+        int strips = stripCount();
+        if(strips > 1){
+            //THRESHOLD AND LABEL EACH STRIP IN PARALLEL, THEN JOIN PARTICLES
+            //THAT CROSS STRIP BOUNDARIES
+            stripFrame = frame;
+            executor.execute(stripTask, strips);
+            stripFrame = null;
+            labeler.mergeStrips(config.stripHeight);
+            labeler.finish(config.areaMinimum);
+        } else {
+            kernel.threshold(frame, config, mask, 0, frame.pixels.length);
+            labeler.label(mask, config.areaMinimum);
+        }
+    }
+
+    /**
+     * Switches between per-pixel conversion and the colour table, and has the
+     * table rebuilt if the thresholds were changed since the last frame.
+     */
+    private void selectKernel(){
+        int bits = config.colorTableBits;
+        if(bits == 0){
+            kernel = pixelKernel;
+            return;
+        }
+        if(colorTable == null || colorTable.getBits() != bits){
+            colorTable = new ColorTable(bits);
+        }
+        colorTable.update(config);
+        kernel = colorTable;
+    }
+
+    //A PAIR GOOD ENOUGH TO ONLY LOOK AROUND IT NEXT FRAME
+    private boolean isLocked(){
+        return config.roiEnabled && target.found && target.totalScore >= config.roiScoreMinimum;
+    }
+
+    /**
+     * Moves the window onto the bounding boxes of the current pair plus the
+     * padding.
+     */
+    private void lockOn(){
+        ParticleTable p = particles;
+        int v = target.verticalIndex, h = target.horizontalIndex;
+        int left = Math.min(p.boundingRectLeft[v], p.boundingRectLeft[h]);
+        int top = Math.min(p.boundingRectTop[v], p.boundingRectTop[h]);
+        int right = Math.max(p.boundingRectLeft[v] + p.boundingRectWidth[v], p.boundingRectLeft[h] + p.boundingRectWidth[h]);
+        int bottom = Math.max(p.boundingRectTop[v] + p.boundingRectHeight[v], p.boundingRectTop[h] + p.boundingRectHeight[h]);
+        roiLeft = Math.max(0, left - config.roiPadding);
+        roiTop = Math.max(0, top - config.roiPadding);
+        roiRight = Math.min(width, right + config.roiPadding);
+        roiBottom = Math.min(height, bottom + config.roiPadding);
+        roiActive = true;
+    }
+
+    private int stripCount(){
+        if(executor == null || config.stripHeight <= 0 || config.stripHeight >= height){
+            return 1;
+        }
+        return (height + config.stripHeight - 1) / config.stripHeight;
+    }
+
+    /**
+     * Scores and pairs whatever is in the particle table.
+     */
+    Target score(){
+        ParticleTable p = particles;
+        int n = Math.min(p.count, config.maxParticles);
+
+        target.clear();
+        horizontalTargetCount = verticalTargetCount = 0;
+        if(n == 0){
+            return target;
+        }
+
+        //iterate through each particle and score to see if it is a target
+        for (int i = 0; i < n; i++) {
+            //Score each particle on rectangularity and aspect ratio
+            p.rectangularity[i] = scoreRectangularity(p, i);
+            p.aspectRatioVertical[i] = scoreAspectRatio(p, i, true);
+            p.aspectRatioHorizontal[i] = scoreAspectRatio(p, i, false);
+
+            //Check if the particle is a horizontal target, if not, check if it's a vertical target
+            if (scoreCompare(p, i, false)) {
+                log.log(PARTICLE_HORIZONTAL, i, p.center_mass_x[i], p.center_mass_y[i]);
+                horizontalTargets[horizontalTargetCount++] = i; //Add particle to target array and increment count
+            } else if (scoreCompare(p, i, true)) {
+                log.log(PARTICLE_VERTICAL, i, p.center_mass_x[i], p.center_mass_y[i]);
+                verticalTargets[verticalTargetCount++] = i;  //Add particle to target array and increment count
+            } else {
+                log.log(PARTICLE_NONE, i, p.center_mass_x[i], p.center_mass_y[i]);
+            }
+            log.log(PARTICLE_SCORES, i, EventLog.d(p.rectangularity[i]),
+                    EventLog.d(p.aspectRatioHorizontal[i]), EventLog.d(p.aspectRatioVertical[i]));
+        }
+
+        pairTargets();
+
+        if (verticalTargetCount > 0) {
+            target.found = true;
+            target.distance = computeDistance(p, target.verticalIndex);
+        }
+        return target;
+    }
+
+    /**
+     * Scores every vertical target against every horizontal target and keeps
+     * the best pairing in target. Only reads the particle table.
+     */
+    void pairTargets() {
+        ParticleTable p = particles;
+
+        //Zero out scores and set verticalIndex to first target in case there are no horizontal targets
+        target.totalScore = target.leftScore = target.rightScore = target.tapeWidthScore = target.verticalScore = 0;
+        target.verticalIndex = verticalTargets[0];
+        for (int i = 0; i < verticalTargetCount; i++) {
+            int v = verticalTargets[i];
+            //Equivalent rectangle short side of the vertical target and its left/right edges
+            double vertWidth = p.rectShort[v];
+            int vertLeft = p.boundingRectLeft[v];
+            int vertRight = vertLeft + p.boundingRectWidth[v];
+            int vertTop = p.boundingRectTop[v];
+            for (int j = 0; j < horizontalTargetCount; j++) {
+                int h = horizontalTargets[j];
+                double horizWidth, horizHeight, leftScore, rightScore, tapeWidthScore, verticalScore, total;
+
+                horizWidth = p.rectLong[h];
+                horizHeight = p.rectShort[h];
+
+                //Determine if the horizontal target is in the expected location to the left of the vertical target
+                leftScore = ratioToScore(1.2 * (vertLeft - p.center_mass_x[h]) / horizWidth);
+                //Determine if the horizontal target is in the expected location to the right of the  vertical target
+                rightScore = ratioToScore(1.2 * (p.center_mass_x[h] - vertRight) / horizWidth);
+                //Determine if the width of the tape on the two targets appears to be the same
+                tapeWidthScore = ratioToScore(vertWidth / horizHeight);
+                //Determine if the vertical location of the horizontal target appears to be correct
+                verticalScore = ratioToScore(1 - (vertTop - p.center_mass_y[h]) / (4 * horizHeight));
+                total = leftScore > rightScore ? leftScore : rightScore;
+                total += tapeWidthScore + verticalScore;
+
+                //If the target is the best detected so far store the information about it
+                if (total > target.totalScore) {
+                    target.horizontalIndex = h;
+                    target.verticalIndex = v;
+                    target.totalScore = total;
+                    target.leftScore = leftScore;
+                    target.rightScore = rightScore;
+                    target.tapeWidthScore = tapeWidthScore;
+                    target.verticalScore = verticalScore;
+                }
+            }
+            //Determine if the best target is a Hot target
+            target.Hot = hotOrNot(target);
+        }
+    }
+
+    double computeDistance(ParticleTable p, int i) {
+        double height;
+        int targetHeight;
+
+        //using the smaller of the estimated rectangle long side and the bounding rectangle height results in better performance
+        //on skewed rectangles
+        height = Math.min(p.boundingRectHeight[i], p.rectLong[i]);
+        targetHeight = 32;
+
+        return this.height * targetHeight / (height * 12 * 2 * Math.tan(config.viewAngle * Math.PI / (180 * 2)));
+    }
+
+    /**
+     * Computes a score (0-100) comparing the aspect ratio to the ideal aspect
+     * ratio for the target. This method uses the equivalent rectangle sides to
+     * determine aspect ratio as it performs better as the target gets skewed by
+     * moving to the left or right. The equivalent rectangle is the rectangle
+     * with sides x and y where particle area= x*y and particle perimeter= 2x+2y
+     *
+     * @param p The particle table, the width, height and equivalent rectangle
+     * sides of particle i are used
+     * @param vertical Indicates whether the particle aspect ratio should be
+     * compared to the ratio for the vertical target or the horizontal
+     * @return The aspect ratio score (0-100)
+     */
+    public double scoreAspectRatio(ParticleTable p, int i, boolean vertical) {
+        double rectLong, rectShort, aspectRatio, idealAspectRatio;
+
+        rectLong = p.rectLong[i];
+        rectShort = p.rectShort[i];
+        idealAspectRatio = vertical ? (4.0 / 32) : (23.5 / 4);	//Vertical reflector 4" wide x 32" tall, horizontal 23.5" wide x 4" tall
+
+        //Divide width by height to measure aspect ratio
+        if (p.boundingRectWidth[i] > p.boundingRectHeight[i]) {
+            //particle is wider than it is tall, divide long by short
+            aspectRatio = ratioToScore((rectLong / rectShort) / idealAspectRatio);
+        } else {
+            //particle is taller than it is wide, divide short by long
+            aspectRatio = ratioToScore((rectShort / rectLong) / idealAspectRatio);
+        }
+        return aspectRatio;
+    }
+
+    /**
+     * Compares scores to defined limits and returns true if the particle
+     * appears to be a target
+     *
+     * @param p The particle table holding the scores for particle i
+     * @param vertical True if the particle should be treated as a vertical
+     * target, false to treat it as a horizontal target
+     *
+     * @return True if the particle meets all limits, false otherwise
+     */
+    boolean scoreCompare(ParticleTable p, int i, boolean vertical) {
+        boolean isTarget = true;
+
+        isTarget &= p.rectangularity[i] > config.rectangularityLimit;
+        if (vertical) {
+            isTarget &= p.aspectRatioVertical[i] > config.aspectRatioLimit;
+        } else {
+            isTarget &= p.aspectRatioHorizontal[i] > config.aspectRatioLimit;
+        }
+
+        return isTarget;
+    }
+
+    /**
+     * Computes a score (0-100) estimating how rectangular the particle is by
+     * comparing the area of the particle to the area of the bounding box
+     * surrounding it. A perfect rectangle would cover the entire bounding box.
+     *
+     * @param p The particle table
+     * @param i The particle to score
+     * @return The rectangularity score (0-100)
+     */
+    double scoreRectangularity(ParticleTable p, int i) {
+        if (p.boundingRectWidth[i] * p.boundingRectHeight[i] != 0) {
+            return 100 * p.particleArea[i] / (p.boundingRectWidth[i] * p.boundingRectHeight[i]);
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Converts a ratio with ideal value of 1 to a score. The resulting function
+     * is piecewise linear going from (0,0) to (1,100) to (2,0) and is 0 for all
+     * inputs outside the range 0-2
+     */
+    static double ratioToScore(double ratio) {
+        return (Math.max(0, Math.min(100 * (1 - Math.abs(1 - ratio)), 100)));
+    }
+
+    /**
+     * Takes in a report on a target and compares the scores to the defined
+     * score limits to evaluate if the target is a hot target or not.
+     *
+     * Returns True if the target is hot. False if it is not.
+     */
+    boolean hotOrNot(Target target) {
+        boolean isHot = true;
+
+        isHot &= target.tapeWidthScore >= config.tapeWidthLimit;
+        isHot &= target.verticalScore >= config.verticalScoreLimit;
+        isHot &= (target.leftScore > config.lrScoreLimit) | (target.rightScore > config.lrScoreLimit);
+
+        return isHot;
+    }
+
+    /**
+     * Sets the ring per-particle events go to. The ring belongs to whichever
+     * thread runs this pipeline.
+     */
+    public void setLog(EventRing log){
+        this.log = log;
+    }
+
+    /**
+     * Splits thresholding and labeling into strips of config.stripHeight rows
+     * run by the executor. Pass null to go back to one pass over the frame.
+     */
+    public void setStripExecutor(StripExecutor executor){
+        this.executor = executor;
+    }
+
+    /**
+     * Replaces the per-pixel HSV conversion used when colorTableBits is 0,
+     * for example with a vectorized one on a desktop JVM. It has to give the
+     * same mask as HsvThreshold. Pass null to go back to HsvThreshold.
+     */
+    public void setPixelKernel(ThresholdKernel kernel){
+        pixelKernel = kernel != null ? kernel : HsvThreshold.KERNEL;
+    }
+
+    //SEE ParticleLabeler.setMaskScanner()
+    public void setMaskScanner(MaskScanner scanner){
+        labeler.setMaskScanner(scanner);
+    }
+
+    /**
+     * Drops the region of interest so the next frame is scanned in full.
+     */
+    public void resetRoi(){
+        roiActive = false;
+        roiFrames = 0;
+    }
+
+    public boolean isRoiActive(){
+        return roiActive;
+    }
+
+    //FRAMES SCANNED IN FULL AND FRAMES DONE IN THE WINDOW ONLY, SINCE CREATED
+    public int getFullScans(){
+        return fullScans;
+    }
+
+    public int getWindowScans(){
+        return windowScans;
+    }
+
+    public ParticleTable getParticles(){
+        return particles;
+    }
+
+    /**
+     * While a region of interest is active only the window is rethresholded,
+     * the rest of the mask still holds the last full scan.
+     */
+    public byte[] getMask(){
+        return mask;
+    }
+
+    //NULL UNTIL A FRAME HAS BEEN PROCESSED WITH colorTableBits SET
+    public ColorTable getColorTable(){
+        return colorTable;
+    }
+
+    public VisionConfig getConfig(){
+        return config;
+    }
+
+    public int getWidth(){
+        return width;
+    }
+
+    public int getHeight(){
+        return height;
+    }
+}
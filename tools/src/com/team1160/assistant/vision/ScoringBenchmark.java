@@ -0,0 +1,212 @@
+package com.team1160.assistant.vision;
+
+import com.team1160.tools.bench.Bench;
+import com.team1160.tools.vision.DirectoryFrameSource;
+import java.util.Random;
+
+/**
+ * Benchmarks the particle scoring and target pairing in VisionPipeline as the
+ * number of particles grows past RobotMap.MAX_PARTICLES. Lives in the vision
+ * package so it can call the package-private scoring methods directly.
+ *
+ * Particle sets are either synthetic (a mix of vertical tape, horizontal tape
+ * and clutter shapes) or recorded: particles labeled out of real frames and
+ * sampled into sets of each size.
+ *
+ * Usage: ScoringBenchmark [synthetic | ppm directory] [warmup ms] [measure ms] [csv file]
+ */
+public class ScoringBenchmark {
+
+    private static final int[] SIZES = {1, 2, 4, 8, 16, 32, 64, 128, 256};
+
+    public static void main(String[] args) throws Exception {
+        String input = args.length > 0 ? args[0] : "synthetic";
+        Bench bench = Bench.fromArgs(args, 1);
+        ParticleTable pool = input.equals("synthetic") ? null : recorded(input);
+
+        for (int n : SIZES) {
+            VisionConfig config = new VisionConfig();
+            config.maxParticles = n;
+            VisionPipeline pipeline = new VisionPipeline(config, 320, 240);
+            ParticleTable p = pipeline.getParticles();
+            if (pool == null) {
+                synthetic(p, n, n);
+            } else {
+                sample(pool, p, n, n);
+            }
+            run(bench, pipeline, p, (pool == null ? "synthetic " : "recorded ") + n);
+        }
+
+        if (args.length > 3) {
+            bench.writeCsv(args[3], input);
+        }
+    }
+
+    static void run(Bench bench, final VisionPipeline pipeline, final ParticleTable p, String param) {
+        final int n = p.count;
+        final double[] ratios = new double[n];
+        for (int i = 0; i < n; i++) {
+            ratios[i] = i * 2.0 / n;
+        }
+        //FILL THE SCORES AND TARGET LISTS ONCE FOR THE READ-ONLY BENCHMARKS
+        pipeline.score();
+        final Target target = pipeline.score();
+
+        bench.run("scoreRectangularity", param, ops -> {
+            double s = 0;
+            for (int k = 0; k < ops; k++) {
+                for (int i = 0; i < n; i++) {
+                    s += pipeline.scoreRectangularity(p, i);
+                }
+            }
+            return (long) s;
+        });
+        bench.run("scoreAspectRatio", param, ops -> {
+            double s = 0;
+            for (int k = 0; k < ops; k++) {
+                for (int i = 0; i < n; i++) {
+                    s += pipeline.scoreAspectRatio(p, i, true) + pipeline.scoreAspectRatio(p, i, false);
+                }
+            }
+            return (long) s;
+        });
+        bench.run("ratioToScore", param, ops -> {
+            double s = 0;
+            for (int k = 0; k < ops; k++) {
+                for (int i = 0; i < n; i++) {
+                    s += VisionPipeline.ratioToScore(ratios[i]);
+                }
+            }
+            return (long) s;
+        });
+        bench.run("scoreCompare", param, ops -> {
+            long s = 0;
+            for (int k = 0; k < ops; k++) {
+                for (int i = 0; i < n; i++) {
+                    if (pipeline.scoreCompare(p, i, false)) s++;
+                    if (pipeline.scoreCompare(p, i, true)) s += 2;
+                }
+            }
+            return s;
+        });
+        bench.run("hotOrNot", param, ops -> {
+            long s = 0;
+            for (int k = 0; k < ops; k++) {
+                if (pipeline.hotOrNot(target)) s++;
+            }
+            return s;
+        });
+        bench.run("computeDistance", param, ops -> {
+            double s = 0;
+            for (int k = 0; k < ops; k++) {
+                for (int i = 0; i < n; i++) {
+                    s += pipeline.computeDistance(p, i);
+                }
+            }
+            return (long) s;
+        });
+        bench.run("pairTargets", param, ops -> {
+            double s = 0;
+            for (int k = 0; k < ops; k++) {
+                pipeline.pairTargets();
+                s += target.totalScore;
+            }
+            return (long) s;
+        });
+        bench.run("score (classify + pair)", param, ops -> {
+            double s = 0;
+            for (int k = 0; k < ops; k++) {
+                s += pipeline.score().totalScore;
+            }
+            return (long) s;
+        });
+    }
+
+    /**
+     * Fills the table with n particles: roughly a third vertical tape, a third
+     * horizontal tape placed to pair with them, and a third clutter.
+     */
+    static void synthetic(ParticleTable p, int n, long seed) {
+        Random rand = new Random(seed);
+        for (int i = 0; i < n; i++) {
+            int w, h, left, top;
+            switch (i % 3) {
+                case 0:
+                    w = 6 + rand.nextInt(4);
+                    h = 56 + rand.nextInt(16);
+                    left = 100 + rand.nextInt(120);
+                    top = 40 + rand.nextInt(60);
+                    break;
+                case 1:
+                    w = 40 + rand.nextInt(12);
+                    h = 6 + rand.nextInt(4);
+                    left = 40 + rand.nextInt(160);
+                    top = 30 + rand.nextInt(70);
+                    break;
+                default:
+                    w = 10 + rand.nextInt(30);
+                    h = 10 + rand.nextInt(30);
+                    left = rand.nextInt(280);
+                    top = rand.nextInt(200);
+                    break;
+            }
+            //MOSTLY SOLID, CLUTTER LESS SO
+            double fill = i % 3 == 2 ? 0.5 + rand.nextDouble() * 0.5 : 0.9 + rand.nextDouble() * 0.1;
+            p.particleArea[i] = Math.max(1, (int) (w * h * fill));
+            p.boundingRectLeft[i] = left;
+            p.boundingRectTop[i] = top;
+            p.boundingRectWidth[i] = w;
+            p.boundingRectHeight[i] = h;
+            p.center_mass_x[i] = left + w / 2;
+            p.center_mass_y[i] = top + h / 2;
+            p.perimeter[i] = 2 * w + 2 * h;
+            p.computeEquivalentRect(i);
+        }
+        p.count = n;
+    }
+
+    /**
+     * Labels every frame of a recording and collects all of their particles.
+     */
+    static ParticleTable recorded(String directory) throws Exception {
+        BufferFrameSource source = DirectoryFrameSource.load(directory, false);
+        VisionConfig config = new VisionConfig();
+        config.roiEnabled = false;
+        VisionPipeline pipeline = new VisionPipeline(config, source.getWidth(), source.getHeight());
+        ParticleTable pool = new ParticleTable(1 << 16);
+        Frame frame = new Frame(source.getWidth(), source.getHeight());
+        while (source.nextFrame(frame) && pool.count < pool.capacity) {
+            pipeline.process(frame);
+            ParticleTable p = pipeline.getParticles();
+            for (int i = 0; i < p.count && pool.count < pool.capacity; i++) {
+                copy(p, i, pool, pool.count++);
+            }
+        }
+        if (pool.count == 0) {
+            throw new IllegalArgumentException("no particles in " + directory);
+        }
+        System.out.println("recorded pool: " + pool.count + " particles from " + directory);
+        return pool;
+    }
+
+    static void sample(ParticleTable pool, ParticleTable p, int n, long seed) {
+        Random rand = new Random(seed);
+        for (int i = 0; i < n; i++) {
+            copy(pool, i < pool.count ? i : rand.nextInt(pool.count), p, i);
+        }
+        p.count = n;
+    }
+
+    static void copy(ParticleTable from, int i, ParticleTable to, int j) {
+        to.particleArea[j] = from.particleArea[i];
+        to.boundingRectLeft[j] = from.boundingRectLeft[i];
+        to.boundingRectTop[j] = from.boundingRectTop[i];
+        to.boundingRectWidth[j] = from.boundingRectWidth[i];
+        to.boundingRectHeight[j] = from.boundingRectHeight[i];
+        to.center_mass_x[j] = from.center_mass_x[i];
+        to.center_mass_y[j] = from.center_mass_y[i];
+        to.perimeter[j] = from.perimeter[i];
+        to.rectLong[j] = from.rectLong[i];
+        to.rectShort[j] = from.rectShort[i];
+    }
+}
@@ -0,0 +1,130 @@
+package com.team1160.tools.bench;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A small JMH-style harness for the desktop tools. Each benchmark runs in
+ * batches for a warmup period and then a measurement period on the calling
+ * thread, and reports throughput, average time per operation and bytes
+ * allocated per operation (the JDK's per-thread allocation counter, the same
+ * number JMH's gc profiler reports as gc.alloc.rate.norm).
+ *
+ * Results can be appended to a CSV file so runs can be compared for
+ * regressions.
+ */
+public class Bench {
+
+    /**
+     * One benchmark body. Runs the operation {@code ops} times and returns
+     * something derived from the results so the JIT cannot drop the work.
+     */
+    public interface Op {
+        long run(int ops);
+    }
+
+    public static class Result {
+        public final String name;
+        public final String param;
+        public final long ops;
+        public final double nanosPerOp;
+        public final double bytesPerOp;
+
+        Result(String name, String param, long ops, double nanosPerOp, double bytesPerOp) {
+            this.name = name;
+            this.param = param;
+            this.ops = ops;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        public double opsPerSecond() {
+            return 1e9 / nanosPerOp;
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    //KEEPS RESULTS ALIVE, LIKE A JMH BLACKHOLE
+    public static volatile long sink;
+
+    private final long warmupNanos;
+    private final long measureNanos;
+    private final List<Result> results = new ArrayList<>();
+
+    public Bench(long warmupMillis, long measureMillis) {
+        this.warmupNanos = warmupMillis * 1_000_000;
+        this.measureNanos = measureMillis * 1_000_000;
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        System.out.printf("%-32s %10s %14s %12s %12s%n", "benchmark", "param", "ops/s", "ns/op", "B/op");
+    }
+
+    /**
+     * Picks default timings from the command line: [warmup ms] [measure ms].
+     */
+    public static Bench fromArgs(String[] args, int offset) {
+        long warmup = args.length > offset ? Long.parseLong(args[offset]) : 500;
+        long measure = args.length > offset + 1 ? Long.parseLong(args[offset + 1]) : 1000;
+        return new Bench(warmup, measure);
+    }
+
+    public Result run(String name, Object param, Op op) {
+        int batch = 1;
+        //GROW THE BATCH UNTIL ONE TAKES ABOUT A MILLISECOND
+        while (true) {
+            long t0 = System.nanoTime();
+            sink += op.run(batch);
+            if (System.nanoTime() - t0 > 1_000_000 || batch >= 1 << 24) {
+                break;
+            }
+            batch *= 2;
+        }
+
+        long end = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < end) {
+            sink += op.run(batch);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long ops = 0;
+        long alloc0 = THREADS.getThreadAllocatedBytes(thread);
+        long t0 = System.nanoTime();
+        long t1;
+        do {
+            sink += op.run(batch);
+            ops += batch;
+            t1 = System.nanoTime();
+        } while (t1 - t0 < measureNanos);
+        long alloc = THREADS.getThreadAllocatedBytes(thread) - alloc0;
+
+        Result r = new Result(name, String.valueOf(param), ops, (double) (t1 - t0) / ops, (double) alloc / ops);
+        results.add(r);
+        System.out.printf("%-32s %10s %14.0f %12.1f %12.2f%n", r.name, r.param, r.opsPerSecond(), r.nanosPerOp, r.bytesPerOp);
+        return r;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Appends every result to a CSV file, writing the header if the file is new.
+     */
+    public void writeCsv(String path, String label) throws IOException {
+        java.io.File file = new java.io.File(path);
+        boolean header = !file.exists();
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            if (header) {
+                out.println("label,benchmark,param,ops_per_s,ns_per_op,bytes_per_op");
+            }
+            for (Result r : results) {
+                out.printf("%s,%s,%s,%.1f,%.3f,%.3f%n", label, r.name, r.param, r.opsPerSecond(), r.nanosPerOp, r.bytesPerOp);
+            }
+        }
+    }
+}
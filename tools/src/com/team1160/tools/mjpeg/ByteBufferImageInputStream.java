@@ -0,0 +1,49 @@
+package com.team1160.tools.mjpeg;
+
+import java.nio.ByteBuffer;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+/**
+ * Lets ImageIO read a JPEG straight out of a ByteBuffer, direct or not. The
+ * stream ImageIO makes for an InputStream copies everything into its own
+ * cache first; this one reads the buffer in place and is pointed at the next
+ * frame with reset() instead of being replaced.
+ */
+class ByteBufferImageInputStream extends ImageInputStreamImpl {
+
+    private ByteBuffer buffer;
+
+    //READS THE BUFFER FROM 0 TO ITS LIMIT
+    void reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        streamPos = 0;
+        flushedPos = 0;
+        bitOffset = 0;
+    }
+
+    @Override
+    public int read() {
+        if (streamPos >= buffer.limit()) {
+            return -1;
+        }
+        bitOffset = 0;
+        return buffer.get((int) streamPos++) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        int n = (int) Math.min(len, buffer.limit() - streamPos);
+        if (n <= 0) {
+            return len == 0 ? 0 : -1;
+        }
+        bitOffset = 0;
+        buffer.get((int) streamPos, b, off, n);
+        streamPos += n;
+        return n;
+    }
+
+    @Override
+    public long length() {
+        return buffer.limit();
+    }
+}
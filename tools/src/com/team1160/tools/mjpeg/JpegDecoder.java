@@ -0,0 +1,63 @@
+package com.team1160.tools.mjpeg;
+
+import com.team1160.assistant.vision.Frame;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+
+/**
+ * Decodes JPEGs out of ByteBuffers into Frames, reusing everything between
+ * calls: the reader, its input stream and one BGR image of the frame size.
+ * The decoder writes BGR bytes natively; an int RGB destination makes it
+ * convert through a temporary raster every frame, so the bytes are packed
+ * into the frame's pixels here instead.
+ */
+class JpegDecoder {
+
+    private final ImageReader reader;
+    private final ByteBufferImageInputStream input = new ByteBufferImageInputStream();
+    private final ImageReadParam param;
+    private BufferedImage image;
+    private byte[] bgr;
+
+    JpegDecoder() {
+        Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName("jpeg");
+        if (!readers.hasNext()) {
+            throw new IllegalStateException("no JPEG decoder");
+        }
+        reader = readers.next();
+        param = reader.getDefaultReadParam();
+    }
+
+    //WIDTH AND HEIGHT OF THE JPEG, WITHOUT DECODING IT
+    int[] size(ByteBuffer jpeg) throws IOException {
+        input.reset(jpeg);
+        reader.setInput(input, true, true);
+        return new int[] {reader.getWidth(0), reader.getHeight(0)};
+    }
+
+    void decode(ByteBuffer jpeg, Frame frame) throws IOException {
+        if (image == null || image.getWidth() != frame.width || image.getHeight() != frame.height) {
+            image = new BufferedImage(frame.width, frame.height, BufferedImage.TYPE_3BYTE_BGR);
+            bgr = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            param.setDestination(image);
+        }
+        input.reset(jpeg);
+        reader.setInput(input, true, true);
+        reader.read(0, param);
+        int[] pixels = frame.pixels;
+        byte[] b = bgr;
+        for (int i = 0, j = 0; i < pixels.length; i++, j += 3) {
+            pixels[i] = (b[j + 2] & 0xFF) << 16 | (b[j + 1] & 0xFF) << 8 | (b[j] & 0xFF);
+        }
+    }
+
+    void dispose() {
+        reader.dispose();
+    }
+}
@@ -0,0 +1,341 @@
+package com.team1160.tools.mjpeg;
+
+import com.team1160.assistant.util.Clock;
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.FrameSource;
+import com.team1160.assistant.vision.FrameSourceException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads an MJPEG-over-HTTP stream, like the Axis camera's /mjpg/video.mjpg,
+ * as a FrameSource.
+ *
+ * A reader thread pulls the stream off a SocketChannel into one of three
+ * direct buffers: one filling, one holding the newest complete JPEG, one
+ * being decoded. Every part must carry a Content-Length, so the body is read
+ * straight into its buffer and never scanned or copied, apart from the few
+ * bytes that arrive in the same read as the part header. nextFrame() decodes
+ * the newest JPEG into the caller's frame with a JpegDecoder. A JPEG that is
+ * replaced before anybody asks for it is dropped without being decoded, so a
+ * slow pipeline always gets the newest frame instead of a queue of old ones.
+ */
+public class MjpegFrameSource implements FrameSource, Runnable {
+
+    private static final int SLOTS = 3;
+    private static final int HEADER_BYTES = 4096;
+    //HOW LONG nextFrame() WAITS BEFORE GIVING UP, MILLISECONDS
+    private static final long FRAME_TIMEOUT = 1000;
+    private static final long RECONNECT_DELAY = 500;
+
+    private final String host;
+    private final int port;
+    private final String path;
+    private final ByteBuffer[] slots = new ByteBuffer[SLOTS];
+    private final long[] received = new long[SLOTS];
+    private final ByteBuffer header = ByteBuffer.allocateDirect(HEADER_BYTES);
+
+    //SLOT STATE, GUARDED BY this
+    private int newest = -1;
+    private int decoding = -1;
+    private long sequence;
+
+    private final JpegDecoder decoder = new JpegDecoder();
+    private int width;
+    private int height;
+
+    private volatile boolean running;
+    private volatile SocketChannel channel;
+    private volatile String error;
+    private volatile long frames;
+    private volatile long dropped;
+    private volatile long decoded;
+    private volatile long decodeNanos;
+
+    /**
+     * @param url http://host[:port]/path of the stream
+     * @param maxJpegBytes The biggest frame the stream will send
+     */
+    public MjpegFrameSource(String url, int maxJpegBytes) {
+        URI uri = URI.create(url);
+        host = uri.getHost();
+        port = uri.getPort() > 0 ? uri.getPort() : 80;
+        path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = ByteBuffer.allocateDirect(maxJpegBytes);
+        }
+    }
+
+    /**
+     * Connects, starts the reader thread and waits for the first frame to
+     * learn the stream's size.
+     */
+    public static MjpegFrameSource open(String url, int maxJpegBytes) throws FrameSourceException {
+        MjpegFrameSource source = new MjpegFrameSource(url, maxJpegBytes);
+        source.start();
+        source.readSize();
+        return source;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this, "mjpeg " + host + ":" + port);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try (SocketChannel ch = SocketChannel.open(new InetSocketAddress(host, port))) {
+                channel = ch;
+                error = null;
+                request(ch);
+                while (running) {
+                    readPart(ch);
+                }
+            } catch (IOException ex) {
+                if (running) {
+                    error = host + ":" + port + ": " + ex.getMessage();
+                    sleep(RECONNECT_DELAY);
+                }
+            }
+        }
+    }
+
+    private void request(SocketChannel ch) throws IOException {
+        String get = "GET " + path + " HTTP/1.0\r\nHost: " + host + "\r\n\r\n";
+        ByteBuffer out = ByteBuffer.wrap(get.getBytes(StandardCharsets.US_ASCII));
+        while (out.hasRemaining()) {
+            ch.write(out);
+        }
+        header.clear().flip();
+        String status = readHeader(ch);
+        if (!status.startsWith("HTTP/1.") || status.indexOf(" 200 ") < 0) {
+            throw new IOException("stream answered " + status.split("\r\n", 2)[0]);
+        }
+    }
+
+    //ONE MULTIPART PART: HEADERS, THEN Content-Length BYTES OF JPEG
+    private void readPart(SocketChannel ch) throws IOException {
+        String headers = readHeader(ch);
+        int length = contentLength(headers);
+        ByteBuffer slot = slots[claimSlot()];
+        if (length > slot.capacity()) {
+            throw new IOException("a " + length + " byte frame does not fit the " + slot.capacity() + " byte buffers");
+        }
+        slot.clear().limit(length);
+        //THE START OF THE BODY MAY HAVE COME IN WITH THE HEADER
+        int already = Math.min(header.remaining(), length);
+        int end = header.limit();
+        header.limit(header.position() + already);
+        slot.put(header);
+        header.limit(end);
+        while (slot.hasRemaining()) {
+            if (ch.read(slot) < 0) {
+                throw new IOException("stream ended mid-frame");
+            }
+        }
+        slot.flip();
+        publish(slot);
+    }
+
+    /**
+     * Reads up to a blank line into the header buffer and returns the text
+     * before it, leaving anything after it in the buffer. Blank lines before
+     * the headers, like the CRLF that ends the previous part, are skipped.
+     */
+    private String readHeader(SocketChannel ch) throws IOException {
+        while (true) {
+            while (header.hasRemaining() && (header.get(header.position()) == '\r'
+                    || header.get(header.position()) == '\n')) {
+                header.get();
+            }
+            int end = find(header);
+            if (end >= 0) {
+                byte[] text = new byte[end - header.position()];
+                header.get(text);
+                header.position(end + 4);
+                return new String(text, StandardCharsets.US_ASCII);
+            }
+            header.compact();
+            if (!header.hasRemaining()) {
+                throw new IOException("headers longer than " + HEADER_BYTES + " bytes");
+            }
+            if (ch.read(header) < 0) {
+                throw new IOException("stream ended");
+            }
+            header.flip();
+        }
+    }
+
+    //INDEX OF THE CRLFCRLF, OR -1
+    private static int find(ByteBuffer b) {
+        for (int i = b.position(); i + 3 < b.limit(); i++) {
+            if (b.get(i) == '\r' && b.get(i + 1) == '\n' && b.get(i + 2) == '\r' && b.get(i + 3) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int contentLength(String headers) throws IOException {
+        for (String line : headers.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                return Integer.parseInt(line.substring(colon + 1).trim());
+            }
+        }
+        throw new IOException("MJPEG part without a Content-Length");
+    }
+
+    //A SLOT THAT IS NEITHER THE NEWEST FRAME NOR BEING DECODED
+    private synchronized int claimSlot() {
+        for (int i = 0; i < SLOTS; i++) {
+            if (i != newest && i != decoding) {
+                return i;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private synchronized void publish(ByteBuffer slot) {
+        int index = 0;
+        while (slots[index] != slot) {
+            index++;
+        }
+        if (newest >= 0) {
+            dropped++;
+        }
+        newest = index;
+        received[index] = Clock.micros();
+        frames++;
+        notifyAll();
+    }
+
+    //WAITS FOR A FRAME NEWER THAN THE LAST ONE TAKEN AND MARKS IT AS BEING DECODED
+    private synchronized int take() throws FrameSourceException {
+        long deadline = System.currentTimeMillis() + FRAME_TIMEOUT;
+        while (newest < 0) {
+            long wait = deadline - System.currentTimeMillis();
+            if (!running) {
+                throw new FrameSourceException("stream closed");
+            }
+            if (wait <= 0) {
+                throw new FrameSourceException(error != null ? error : "no frame from " + host + ":" + port
+                        + " in " + FRAME_TIMEOUT + "ms");
+            }
+            try {
+                wait(wait);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new FrameSourceException("interrupted");
+            }
+        }
+        decoding = newest;
+        newest = -1;
+        return decoding;
+    }
+
+    private synchronized void release() {
+        decoding = -1;
+    }
+
+    private void readSize() throws FrameSourceException {
+        int slot = take();
+        try {
+            int[] size = decoder.size(slots[slot]);
+            width = size[0];
+            height = size[1];
+        } catch (IOException ex) {
+            throw new FrameSourceException("undecodable first frame: " + ex.getMessage());
+        } finally {
+            //PUT IT BACK SO THE FIRST nextFrame() STILL GETS IT
+            synchronized (this) {
+                if (newest < 0) {
+                    newest = slot;
+                }
+                decoding = -1;
+            }
+        }
+    }
+
+    @Override
+    public boolean nextFrame(Frame frame) throws FrameSourceException {
+        if (frame.width != width || frame.height != height) {
+            throw new FrameSourceException("frame is " + frame.width + "x" + frame.height + ", stream is "
+                    + width + "x" + height);
+        }
+        int slot = take();
+        try {
+            long t0 = System.nanoTime();
+            decoder.decode(slots[slot], frame);
+            decodeNanos += System.nanoTime() - t0;
+            decoded++;
+            frame.sequence = sequence++;
+            frame.timestamp = received[slot];
+            return true;
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new FrameSourceException("bad JPEG: " + ex.getMessage());
+        } finally {
+            release();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    //JPEGS THAT ARRIVED
+    public long getFrames() {
+        return frames;
+    }
+
+    //JPEGS REPLACED BEFORE nextFrame() ASKED FOR THEM
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getDecoded() {
+        return decoded;
+    }
+
+    public double getDecodeMicros() {
+        return decoded == 0 ? 0 : decodeNanos / 1000.0 / decoded;
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        notifyAll();
+        SocketChannel ch = channel;
+        if (ch != null) {
+            try {
+                ch.close();
+            } catch (IOException ex) {
+            }
+        }
+        decoder.dispose();
+    }
+}
@@ -0,0 +1,122 @@
+package com.team1160.tools.mjpeg;
+
+import com.team1160.assistant.util.Clock;
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.Target;
+import com.team1160.assistant.vision.VisionConfig;
+import com.team1160.assistant.vision.VisionPipeline;
+import com.team1160.tools.bench.Bench;
+import com.team1160.tools.util.NanoClock;
+import com.team1160.tools.util.Percentiles;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+/**
+ * Runs the vision pipeline off an MJPEG stream through MjpegFrameSource and
+ * reports what the ingest costs: frames received, decoded and dropped, decode
+ * time, and how old each frame is by the time the pipeline is done with it.
+ * --work adds a pause per frame to play a slow pipeline; frames then get
+ * dropped instead of queueing, and the age stays about one frame. Without a
+ * URL the frames are served from a local MjpegServer. It finishes with a
+ * benchmark of ImageIO.read() into a new image against the pooled decode.
+ *
+ * Usage: MjpegProfile [http://host:port/path | capture.cap | ppm directory | synthetic:WxH] [seconds] [--work ms] [--fps n]
+ */
+public class MjpegProfile {
+
+    private static final int MAX_JPEG_BYTES = 1 << 20;
+
+    public static void main(String[] args) throws Exception {
+        NanoClock.install();
+        String input = args.length > 0 && !args[0].startsWith("--") ? args[0] : "synthetic";
+        double seconds = args.length > 1 && !args[1].startsWith("--") ? Double.parseDouble(args[1]) : 5;
+        long work = 0;
+        double fps = 30;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--work")) {
+                work = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--fps")) {
+                fps = Double.parseDouble(args[++i]);
+            }
+        }
+
+        String url = input;
+        List<byte[]> jpegs = null;
+        if (!input.startsWith("http://")) {
+            jpegs = MjpegServer.encode(input);
+            MjpegServer server = new MjpegServer(jpegs, fps);
+            server.bind(0);
+            server.serveInBackground();
+            url = "http://localhost:" + server.getPort() + "/mjpg/video.mjpg";
+        }
+
+        MjpegFrameSource source = MjpegFrameSource.open(url, MAX_JPEG_BYTES);
+        VisionPipeline pipeline = new VisionPipeline(new VisionConfig(), source.getWidth(), source.getHeight());
+        Frame frame = new Frame(source.getWidth(), source.getHeight());
+        Percentiles age = new Percentiles(4096);
+        int found = 0;
+        long end = System.nanoTime() + (long) (seconds * 1e9);
+        while (System.nanoTime() < end) {
+            source.nextFrame(frame);
+            Target target = pipeline.process(frame);
+            if (target.found) {
+                found++;
+            }
+            if (work > 0) {
+                Thread.sleep(work);
+            }
+            age.add((Clock.micros() - frame.timestamp) * 1000);
+        }
+        source.close();
+
+        System.out.printf("%s, %dx%d%s%n", url, source.getWidth(), source.getHeight(),
+                work > 0 ? ", " + work + "ms extra work per frame" : "");
+        System.out.printf("received %d, decoded %d, dropped %d, decode %.0fus, targets found %d%n",
+                source.getFrames(), source.getDecoded(), source.getDropped(), source.getDecodeMicros(), found);
+        System.out.println("frame age when done " + age.summary());
+
+        if (jpegs != null) {
+            decodeBenchmark(jpegs, source.getWidth(), source.getHeight());
+        }
+    }
+
+    //A NEW BufferedImage PER FRAME, LIKE ImageIO.read(), AGAINST DECODING INTO ONE Frame
+    private static void decodeBenchmark(List<byte[]> jpegs, int width, int height) throws Exception {
+        Bench bench = new Bench(1000, 2000);
+        String param = width + "x" + height;
+        bench.run("ImageIO.read", param, ops -> {
+            long s = 0;
+            try {
+                for (int k = 0; k < ops; k++) {
+                    s += ImageIO.read(new ByteArrayInputStream(jpegs.get(k % jpegs.size()))).getRGB(0, 0);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return s;
+        });
+
+        ByteBuffer[] direct = new ByteBuffer[jpegs.size()];
+        for (int i = 0; i < direct.length; i++) {
+            direct[i] = ByteBuffer.allocateDirect(jpegs.get(i).length).put(jpegs.get(i)).flip();
+        }
+        JpegDecoder decoder = new JpegDecoder();
+        Frame frame = new Frame(width, height);
+        bench.run("pooled decode", param, ops -> {
+            long s = 0;
+            try {
+                for (int k = 0; k < ops; k++) {
+                    decoder.decode(direct[k % direct.length], frame);
+                    s += frame.pixels[k % frame.pixels.length];
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return s;
+        });
+    }
+}
@@ -0,0 +1,161 @@
+package com.team1160.tools.mjpeg;
+
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.FrameSource;
+import com.team1160.tools.replay.CaptureFile;
+import com.team1160.tools.vision.VisionProfile;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+/**
+ * Stands in for the Axis camera: serves recorded frames as an MJPEG stream
+ * at a fixed frame rate, the way the camera's /mjpg/video.mjpg does, so the
+ * ingest can be tested without one. The frames are encoded to JPEG once at
+ * startup and looped for every client.
+ *
+ * Usage: MjpegServer [capture.cap | ppm directory | synthetic:WxH] [port] [fps]
+ */
+public class MjpegServer {
+
+    private static final String BOUNDARY = "myboundary";
+    //A LOOPED DIRECTORY OR SYNTHETIC SOURCE NEVER ENDS, THIS MANY ARE ENOUGH
+    private static final int MAX_FRAMES = 300;
+
+    private final List<byte[]> jpegs;
+    private final double fps;
+    private volatile ServerSocketChannel server;
+
+    public MjpegServer(List<byte[]> jpegs, double fps) {
+        this.jpegs = jpegs;
+        this.fps = fps;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String input = args.length > 0 ? args[0] : "synthetic";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        double fps = args.length > 2 ? Double.parseDouble(args[2]) : 30;
+        List<byte[]> jpegs = encode(input);
+        MjpegServer server = new MjpegServer(jpegs, fps);
+        server.bind(port);
+        System.out.printf("serving %d frames from %s at %.1f fps on http://localhost:%d/mjpg/video.mjpg%n",
+                jpegs.size(), input, fps, server.getPort());
+        server.serve();
+    }
+
+    /**
+     * Loads the frames from a capture file, a PPM directory or
+     * "synthetic:WxH" and encodes each one as a JPEG.
+     */
+    public static List<byte[]> encode(String input) throws Exception {
+        List<byte[]> jpegs = new ArrayList<>();
+        if (input.endsWith(".cap")) {
+            try (CaptureFile capture = new CaptureFile(Paths.get(input))) {
+                Frame frame = new Frame(capture.getWidth(), capture.getHeight());
+                for (int i = 0; i < capture.getFrameCount() && i < MAX_FRAMES; i++) {
+                    capture.read(i, frame);
+                    jpegs.add(jpeg(frame));
+                }
+            }
+            return jpegs;
+        }
+        FrameSource source = VisionProfile.open(input);
+        Frame frame = new Frame(source.getWidth(), source.getHeight());
+        for (int i = 0; i < MAX_FRAMES && source.nextFrame(frame); i++) {
+            jpegs.add(jpeg(frame));
+        }
+        source.close();
+        return jpegs;
+    }
+
+    private static byte[] jpeg(Frame frame) throws IOException {
+        BufferedImage image = new BufferedImage(frame.width, frame.height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, frame.width, frame.height, frame.pixels, 0, frame.width);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    //0 PICKS A FREE PORT, SEE getPort()
+    public void bind(int port) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Accepts clients until close(), each on its own thread.
+     */
+    public void serve() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel client = server.accept();
+                Thread thread = new Thread(() -> stream(client), "mjpeg client");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException ex) {
+                if (server.isOpen()) {
+                    ex.printStackTrace();
+                }
+            }
+        }
+    }
+
+    //SERVES ON A DAEMON THREAD, FOR TOOLS THAT BRING THEIR OWN SERVER
+    public void serveInBackground() {
+        Thread thread = new Thread(this::serve, "mjpeg server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void stream(SocketChannel client) {
+        try (SocketChannel ch = client) {
+            //THE REQUEST IS IGNORED, EVERY PATH IS THE STREAM
+            ch.read(ByteBuffer.allocate(4096));
+            write(ch, "HTTP/1.0 200 OK\r\nContent-Type: multipart/x-mixed-replace; boundary=" + BOUNDARY + "\r\n\r\n");
+            long period = (long) (1e9 / fps);
+            long due = System.nanoTime();
+            for (int i = 0; server.isOpen(); i = (i + 1) % jpegs.size()) {
+                byte[] jpeg = jpegs.get(i);
+                write(ch, "--" + BOUNDARY + "\r\nContent-Type: image/jpeg\r\nContent-Length: " + jpeg.length + "\r\n\r\n");
+                ByteBuffer body = ByteBuffer.wrap(jpeg);
+                while (body.hasRemaining()) {
+                    ch.write(body);
+                }
+                write(ch, "\r\n");
+                due += period;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                }
+            }
+        } catch (IOException ex) {
+            //THE CLIENT WENT AWAY
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void write(SocketChannel ch, String text) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+        while (b.hasRemaining()) {
+            ch.write(b);
+        }
+    }
+
+    public void close() throws IOException {
+        server.close();
+    }
+}
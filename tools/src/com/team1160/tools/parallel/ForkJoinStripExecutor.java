@@ -0,0 +1,58 @@
+package com.team1160.tools.parallel;
+
+import com.team1160.assistant.vision.StripExecutor;
+import com.team1160.assistant.vision.StripTask;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a frame's strips on a ForkJoinPool, splitting the strip range in half
+ * until single strips are left. For multi-core coprocessors and desktops; the
+ * robot uses ThreadStripExecutor.
+ */
+public class ForkJoinStripExecutor implements StripExecutor {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism Worker threads in the pool, usually the core count
+     */
+    public ForkJoinStripExecutor(int parallelism) {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    public void execute(StripTask task, int strips) {
+        pool.invoke(new Range(task, 0, strips));
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static class Range extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final StripTask task;
+        private final int from, to;
+
+        Range(StripTask task, int from, int to) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                task.run(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Range(task, from, mid), new Range(task, mid, to));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.team1160.tools.parallel;
+
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.ParticleTable;
+import com.team1160.assistant.vision.StripExecutor;
+import com.team1160.assistant.vision.ThreadStripExecutor;
+import com.team1160.assistant.vision.VisionConfig;
+import com.team1160.assistant.vision.VisionPipeline;
+import com.team1160.tools.bench.Bench;
+import com.team1160.tools.vision.SyntheticFrames;
+
+/**
+ * Measures whole-frame VisionPipeline.process() at 320x240, 640x480 and
+ * 1280x720 with one pass over the frame versus strips on a fork-join pool and
+ * on ThreadStripExecutor, and prints the speedup. Before timing, every
+ * parallel setup is checked to find exactly the same particles as the single
+ * pass.
+ *
+ * Usage: StripBenchmark [threads] [strip height | auto] [warmup ms] [measure ms]
+ */
+public class StripBenchmark {
+
+    private static final int[][] RESOLUTIONS = {{320, 240}, {640, 480}, {1280, 720}};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        String strip = args.length > 1 ? args[1] : "auto";
+        Bench bench = Bench.fromArgs(args, 2);
+        System.out.println("threads " + threads);
+
+        ForkJoinStripExecutor forkJoin = new ForkJoinStripExecutor(threads);
+        ThreadStripExecutor plain = new ThreadStripExecutor(threads);
+        try {
+            for (int[] res : RESOLUTIONS) {
+                int width = res[0], height = res[1];
+                //A FEW STRIPS PER THREAD BY DEFAULT SO THE POOL CAN BALANCE
+                int stripHeight = strip.equals("auto") ? Math.max(8, height / (threads * 4)) : Integer.parseInt(strip);
+                Frame frame = new Frame(width, height);
+                System.arraycopy(SyntheticFrames.scene(width, height, true, 40, 7), 0, frame.pixels, 0, frame.pixels.length);
+                String param = width + "x" + height;
+
+                VisionPipeline single = pipeline(width, height, 0, null);
+                VisionPipeline fj = pipeline(width, height, stripHeight, forkJoin);
+                VisionPipeline th = pipeline(width, height, stripHeight, plain);
+                check(single, fj, frame, "fork-join");
+                check(single, th, frame, "threads");
+
+                double base = bench.run("single pass", param, ops -> run(single, frame, ops)).nanosPerOp;
+                double a = bench.run("fork-join strips/" + stripHeight, param, ops -> run(fj, frame, ops)).nanosPerOp;
+                double b = bench.run("thread strips/" + stripHeight, param, ops -> run(th, frame, ops)).nanosPerOp;
+                System.out.printf("  speedup at %s: fork-join %.2fx, threads %.2fx%n", param, base / a, base / b);
+            }
+        } finally {
+            forkJoin.shutdown();
+            plain.shutdown();
+        }
+    }
+
+    static VisionPipeline pipeline(int width, int height, int stripHeight, StripExecutor executor) {
+        VisionConfig config = new VisionConfig();
+        config.stripHeight = stripHeight;
+        //EVERY FRAME IN FULL, THE STRIPS ARE WHAT IS BEING MEASURED
+        config.roiEnabled = false;
+        VisionPipeline pipeline = new VisionPipeline(config, width, height);
+        pipeline.setStripExecutor(executor);
+        return pipeline;
+    }
+
+    static long run(VisionPipeline pipeline, Frame frame, int ops) {
+        long s = 0;
+        for (int i = 0; i < ops; i++) {
+            s += pipeline.process(frame).verticalIndex;
+        }
+        return s;
+    }
+
+    static void check(VisionPipeline expected, VisionPipeline actual, Frame frame, String name) {
+        expected.process(frame);
+        actual.process(frame);
+        ParticleTable a = expected.getParticles(), b = actual.getParticles();
+        boolean same = a.count == b.count;
+        for (int i = 0; same && i < a.count; i++) {
+            same = a.particleArea[i] == b.particleArea[i] && a.boundingRectLeft[i] == b.boundingRectLeft[i]
+                    && a.boundingRectTop[i] == b.boundingRectTop[i] && a.boundingRectWidth[i] == b.boundingRectWidth[i]
+                    && a.boundingRectHeight[i] == b.boundingRectHeight[i] && a.center_mass_x[i] == b.center_mass_x[i]
+                    && a.center_mass_y[i] == b.center_mass_y[i] && a.perimeter[i] == b.perimeter[i];
+        }
+        if (!same) {
+            throw new IllegalStateException(name + " strips found different particles than the single pass");
+        }
+    }
+}
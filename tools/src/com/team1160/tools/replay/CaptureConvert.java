@@ -0,0 +1,100 @@
+package com.team1160.tools.replay;
+
+import com.team1160.assistant.vision.CaptureFileWriter;
+import com.team1160.tools.vision.DirectoryFrameSource;
+import com.team1160.tools.vision.PpmImage;
+import com.team1160.tools.vision.SyntheticFrames;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Builds capture files on a desktop machine, from a directory of PPM frames
+ * or from synthetic frames, in the same layout CaptureFileWriter writes on
+ * the robot.
+ *
+ * Usage: CaptureConvert out.cap [ppm directory | synthetic:WxH:frames] [fps]
+ */
+public class CaptureConvert {
+
+    public static void main(String[] args) throws Exception {
+        String out = args[0];
+        String input = args.length > 1 ? args[1] : "synthetic:320x240:300";
+        int fps = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        long period = 1_000_000 / fps;
+
+        if (input.startsWith("synthetic")) {
+            String[] parts = input.split(":");
+            String[] size = (parts.length > 1 ? parts[1] : "320x240").split("x");
+            int frames = parts.length > 2 ? Integer.parseInt(parts[2]) : 300;
+            int width = Integer.parseInt(size[0]), height = Integer.parseInt(size[1]);
+            try (Writer w = new Writer(out, width, height)) {
+                for (int i = 0; i < frames; i++) {
+                    //HOT FOR THE FIRST HALF, LIKE AUTONOMOUS
+                    w.write(SyntheticFrames.scene(width, height, i < frames / 2, 6, i), i, i * period);
+                }
+            }
+        } else {
+            File[] files = DirectoryFrameSource.list(input);
+            Writer w = null;
+            try {
+                for (int i = 0; i < files.length; i++) {
+                    PpmImage image = PpmImage.read(files[i].getPath());
+                    if (w == null) {
+                        w = new Writer(out, image.width, image.height);
+                    }
+                    w.write(image.pixels, i, i * period);
+                }
+            } finally {
+                if (w != null) {
+                    w.close();
+                }
+            }
+        }
+        System.out.println("wrote " + out);
+    }
+
+    /**
+     * Desktop twin of CaptureFileWriter, without masks.
+     */
+    public static class Writer implements AutoCloseable {
+        private final DataOutputStream out;
+        private final int width, height;
+        private final byte[] row;
+
+        public Writer(String path, int width, int height) throws IOException {
+            this.width = width;
+            this.height = height;
+            row = new byte[width * 3];
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+            out.write(CaptureFileWriter.MAGIC);
+            out.writeInt(CaptureFileWriter.VERSION);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(0);
+            out.writeLong(0);
+        }
+
+        public void write(int[] pixels, long sequence, long timestamp) throws IOException {
+            out.writeLong(sequence);
+            out.writeLong(timestamp);
+            out.writeInt(0);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0, b = 0; x < width; x++, b += 3) {
+                    int p = pixels[y * width + x];
+                    row[b] = (byte) (p >> 16);
+                    row[b + 1] = (byte) (p >> 8);
+                    row[b + 2] = (byte) p;
+                }
+                out.write(row);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.team1160.tools.replay;
+
+import com.team1160.assistant.vision.CaptureFileWriter;
+import com.team1160.assistant.vision.Frame;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only, memory-mapped view of a capture file written by
+ * CaptureFileWriter. Frames are decoded straight out of the mapping into a
+ * Frame's pixel array, nothing is read through a stream or staged in a
+ * temporary buffer.
+ *
+ * Files bigger than one mapping allows are mapped in chunks of whole records.
+ */
+public class CaptureFile implements AutoCloseable {
+
+    private static final long MAX_CHUNK = 1L << 30;
+
+    private final FileChannel channel;
+    private final int width;
+    private final int height;
+    private final boolean masks;
+    private final int recordSize;
+    private final int frames;
+    private final int recordsPerChunk;
+    private final MappedByteBuffer[] chunks;
+
+    public CaptureFile(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, CaptureFileWriter.HEADER_SIZE);
+        header.order(ByteOrder.BIG_ENDIAN);
+        byte[] magic = new byte[CaptureFileWriter.MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, CaptureFileWriter.MAGIC)) {
+            throw new IOException(path + " is not a capture file");
+        }
+        int version = header.getInt();
+        if (version != CaptureFileWriter.VERSION) {
+            throw new IOException(path + " is capture version " + version);
+        }
+        width = header.getInt();
+        height = header.getInt();
+        masks = (header.getInt() & CaptureFileWriter.FLAG_MASKS) != 0;
+        recordSize = CaptureFileWriter.recordSize(width, height, masks);
+
+        long data = channel.size() - CaptureFileWriter.HEADER_SIZE;
+        //A TRUNCATED LAST RECORD IS DROPPED
+        frames = (int) (data / recordSize);
+        recordsPerChunk = (int) Math.max(1, MAX_CHUNK / recordSize);
+        chunks = new MappedByteBuffer[(frames + recordsPerChunk - 1) / recordsPerChunk];
+        for (int c = 0; c < chunks.length; c++) {
+            int records = Math.min(recordsPerChunk, frames - c * recordsPerChunk);
+            long offset = CaptureFileWriter.HEADER_SIZE + (long) c * recordsPerChunk * recordSize;
+            chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) records * recordSize);
+            chunks[c].order(ByteOrder.BIG_ENDIAN);
+        }
+    }
+
+    public int getFrameCount() {
+        return frames;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean hasMasks() {
+        return masks;
+    }
+
+    private MappedByteBuffer chunk(int index) {
+        return chunks[index / recordsPerChunk];
+    }
+
+    private int offset(int index) {
+        return (index % recordsPerChunk) * recordSize;
+    }
+
+    public long getSequence(int index) {
+        return chunk(index).getLong(offset(index));
+    }
+
+    public long getTimestamp(int index) {
+        return chunk(index).getLong(offset(index) + 8);
+    }
+
+    /**
+     * Decodes frame {@code index} into the frame, including its recorded
+     * sequence number and timestamp.
+     */
+    public void read(int index, Frame frame) {
+        MappedByteBuffer buf = chunk(index);
+        int base = offset(index);
+        frame.sequence = buf.getLong(base);
+        frame.timestamp = buf.getLong(base + 8);
+        int p = base + CaptureFileWriter.RECORD_HEADER_SIZE;
+        int[] pixels = frame.pixels;
+        for (int i = 0; i < pixels.length; i++, p += 3) {
+            pixels[i] = ((buf.get(p) & 0xFF) << 16) | ((buf.get(p + 1) & 0xFF) << 8) | (buf.get(p + 2) & 0xFF);
+        }
+    }
+
+    /**
+     * Copies the recorded threshold mask for a frame, if the capture has them.
+     */
+    public void readMask(int index, byte[] mask) {
+        if (!masks) {
+            throw new IllegalStateException("capture has no masks");
+        }
+        MappedByteBuffer buf = chunk(index);
+        buf.get(offset(index) + CaptureFileWriter.RECORD_HEADER_SIZE + width * height * 3, mask, 0, width * height);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,70 @@
+package com.team1160.tools.replay;
+
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.FrameSource;
+import com.team1160.assistant.vision.FrameSourceException;
+
+/**
+ * Plays a capture file back as a FrameSource, either as fast as the pipeline
+ * takes frames or paced to the recorded timestamps. Frames keep the sequence
+ * numbers and timestamps they were recorded with so results line up with the
+ * match.
+ */
+public class CaptureFrameSource implements FrameSource {
+
+    private final CaptureFile capture;
+    private final boolean realTime;
+    private int next;
+    private long firstFrame;
+    private long startNanos;
+
+    public CaptureFrameSource(CaptureFile capture, boolean realTime) {
+        this.capture = capture;
+        this.realTime = realTime;
+    }
+
+    public boolean nextFrame(Frame frame) throws FrameSourceException {
+        if (next >= capture.getFrameCount()) {
+            return false;
+        }
+        if (realTime) {
+            pace(capture.getTimestamp(next));
+        }
+        capture.read(next++, frame);
+        return true;
+    }
+
+    //SLEEPS UNTIL THE FRAME IS DUE RELATIVE TO THE FIRST ONE
+    private void pace(long timestamp) {
+        if (next == 0) {
+            firstFrame = timestamp;
+            startNanos = System.nanoTime();
+            return;
+        }
+        long due = startNanos + (timestamp - firstFrame) * 1000;
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            try {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public int getIndex() {
+        return next;
+    }
+
+    public int getWidth() {
+        return capture.getWidth();
+    }
+
+    public int getHeight() {
+        return capture.getHeight();
+    }
+
+    public void close() {
+    }
+}
@@ -0,0 +1,113 @@
+package com.team1160.tools.replay;
+
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.Target;
+import com.team1160.assistant.vision.TargetFusion;
+import com.team1160.assistant.vision.TargetReport;
+import com.team1160.assistant.vision.VisionConfig;
+import com.team1160.assistant.vision.VisionPipeline;
+import com.team1160.tools.simd.SimdKernels;
+import com.team1160.tools.util.NanoClock;
+import com.team1160.tools.util.Percentiles;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+
+/**
+ * Replays a capture file through VisionPipeline and reports per-frame latency
+ * percentiles plus what was detected in every frame. Write the per-frame
+ * results to CSV and diff two runs to check that a change to the pipeline
+ * kept its answers while getting faster (or didn't).
+ *
+ * The frames also go through TargetFusion the way they do on the robot, and
+ * the run reports how long the first hot call took and how often the hot
+ * answer flipped frame to frame compared with the fused answer.
+ *
+ * Usage: ReplayHarness capture.cap [--realtime] [--csv out.csv] [--passes n]
+ */
+public class ReplayHarness {
+
+    public static void main(String[] args) throws Exception {
+        NanoClock.install();
+        String path = args[0];
+        boolean realTime = false;
+        String csv = null;
+        int passes = 1;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--realtime")) {
+                realTime = true;
+            } else if (args[i].equals("--csv")) {
+                csv = args[++i];
+            } else if (args[i].equals("--passes")) {
+                passes = Integer.parseInt(args[++i]);
+            }
+        }
+
+        try (CaptureFile capture = new CaptureFile(Paths.get(path))) {
+            System.out.printf("%s: %d frames %dx%d%s%n", path, capture.getFrameCount(), capture.getWidth(),
+                    capture.getHeight(), realTime ? ", real time" : "");
+            VisionConfig config = new VisionConfig();
+            VisionPipeline pipeline = new VisionPipeline(config, capture.getWidth(), capture.getHeight());
+            System.out.println(SimdKernels.install(pipeline));
+            TargetFusion fusion = new TargetFusion(config);
+            Frame frame = new Frame(capture.getWidth(), capture.getHeight());
+            PrintWriter out = csv == null ? null : new PrintWriter(csv);
+            if (out != null) {
+                out.println("pass,sequence,timestamp_us,found,hot,distance,score,vertical,horizontal,latency_us,decided,fused_hot,confidence,filtered_distance");
+            }
+
+            //EARLIER PASSES WARM THE JIT, ONLY THE LAST ONE IS REPORTED
+            Percentiles latency = null;
+            int found = 0, hot = 0, flips = 0, fusedFlips = 0;
+            for (int pass = 0; pass < passes; pass++) {
+                CaptureFrameSource source = new CaptureFrameSource(capture, realTime);
+                latency = new Percentiles(capture.getFrameCount());
+                found = hot = flips = fusedFlips = 0;
+                boolean lastHot = false, lastFused = false;
+                fusion.reset();
+                pipeline.resetRoi();
+                long start = System.nanoTime();
+                while (source.nextFrame(frame)) {
+                    long t0 = System.nanoTime();
+                    Target t = pipeline.process(frame);
+                    long dt = System.nanoTime() - t0;
+                    latency.add(dt);
+                    TargetReport r = fusion.update(t, frame);
+                    if (r.found) {
+                        flips += r.hot != lastHot ? 1 : 0;
+                        lastHot = r.hot;
+                    }
+                    if (r.hotDecided) {
+                        fusedFlips += r.fusedHot != lastFused ? 1 : 0;
+                        lastFused = r.fusedHot;
+                    }
+                    if (t.found) {
+                        found++;
+                        if (t.Hot) {
+                            hot++;
+                        }
+                    }
+                    if (out != null && pass == passes - 1) {
+                        out.printf("%d,%d,%d,%b,%b,%.4f,%.4f,%d,%d,%.1f,%b,%b,%.2f,%.4f%n", pass, frame.sequence,
+                                frame.timestamp, t.found, t.found && t.Hot, t.distance, t.totalScore, t.verticalIndex,
+                                t.horizontalIndex, dt / 1e3, r.hotDecided, r.fusedHot, r.hotConfidence,
+                                r.filteredDistance);
+                    }
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("pass %d: %.1f fps wall clock%n", pass, latency.count() / seconds);
+            }
+            if (out != null) {
+                out.close();
+            }
+            System.out.println("latency " + latency.summary());
+            System.out.println("targets found " + found + ", hot " + hot);
+            if (fusion.getDecisionFrames() < 0) {
+                System.out.println("no fused hot call");
+            } else {
+                System.out.printf("first fused hot call after %d frames, %.1f ms of footage%n",
+                        fusion.getDecisionFrames(), fusion.getDecisionTime() / 1e3);
+            }
+            System.out.println("hot changes: single frame " + flips + ", fused " + fusedFlips);
+        }
+    }
+}
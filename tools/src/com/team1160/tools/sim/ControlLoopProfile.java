@@ -0,0 +1,139 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.RobotMap;
+import com.team1160.assistant.control.ControlTask;
+import com.team1160.assistant.control.PeriodicLoop;
+import com.team1160.assistant.mechanisms.ShooterMechanism;
+import com.team1160.assistant.util.EventRing;
+import com.team1160.assistant.util.LatencyHistogram;
+import com.team1160.assistant.util.MemoryWatchdog;
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.FrameSource;
+import com.team1160.assistant.vision.VisionConfig;
+import com.team1160.assistant.vision.VisionPipeline;
+import com.team1160.tools.util.NanoClock;
+import com.team1160.tools.vision.VisionProfile;
+
+/**
+ * Runs the real control loop thread on this machine: the shooter's tension
+ * PID on a simulated winch, with the setpoint swapped between slack and
+ * wound every few seconds the way the tension buttons would. Prints the
+ * loop's jitter, tick time and overruns, and how long the winch took to
+ * settle within 2% after each change.
+ *
+ * --load starts that many vision threads at the vision workers' priority, to
+ * see whether the loop keeps its timing under them. The loop also runs the
+ * MemoryWatchdog's pause detector, so GC pauses are counted among the late
+ * ticks.
+ *
+ * Usage: ControlLoopProfile [seconds] [period us] [--load threads]
+ */
+public class ControlLoopProfile {
+
+    private static final double SETTLED = 0.02;
+    //LONG ENOUGH TO WIND ALL THE WAY AT TENSION_MAX_POWER, WITH HALF AGAIN TO SETTLE
+    private static final long CHANGE_EVERY = (long) (1500 / (SimPhysics.TENSION_RATE * RobotMap.TENSION_MAX_POWER));
+
+    public static void main(String[] args) throws Exception {
+        NanoClock.install();
+        double seconds = args.length > 0 && !args[0].startsWith("--") ? Double.parseDouble(args[0])
+                : 4 * CHANGE_EVERY / 1000.0;
+        long period = args.length > 1 && !args[1].startsWith("--") ? Long.parseLong(args[1])
+                : RobotMap.CONTROL_PERIOD_MICROS;
+        int load = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--load")) {
+                load = Integer.parseInt(args[++i]);
+            }
+        }
+
+        SimHardware hw = new SimHardware();
+        //CLOSED LOOP WHATEVER RobotMap SAYS, THAT'S WHAT IS BEING PROFILED
+        ShooterMechanism shooter = new ShooterMechanism(hw.motor(RobotMap.SHOOT_MOTOR_SLOT, RobotMap.SHOOT_MOTOR_CHAN),
+                hw.analog(RobotMap.TENSION_POT_CHAN), true);
+        SimPhysics physics = new SimPhysics(hw.getMotor(RobotMap.RIGHT_JAG_MOTOR_SLOT, RobotMap.LEFT_JAG_MOTOR_CHAN),
+                hw.getMotor(RobotMap.LEFT_JAG_MOTOR_SLOT, RobotMap.LEFT_JAG_MOTOR_CHAN),
+                hw.getMotor(RobotMap.SHOOT_MOTOR_SLOT, RobotMap.SHOOT_MOTOR_CHAN),
+                hw.getCompressor(RobotMap.COMPRESSOR_SWITCH_CHAN, RobotMap.COMPRESSOR_SWITCH_CHAN),
+                hw.getSolenoid(RobotMap.SOLENOID_ONE), hw.getAnalog(RobotMap.TENSION_POT_CHAN));
+        Settle settle = new Settle(shooter, physics);
+
+        PeriodicLoop loop = new PeriodicLoop("control", period);
+        loop.add(shooter);
+        loop.add((now, dt) -> physics.step(dt));
+        loop.add(settle);
+        loop.add(MemoryWatchdog.createPauseDetector(period, EventRing.DISCARD));
+
+        Thread[] vision = new Thread[load];
+        for (int i = 0; i < load; i++) {
+            vision[i] = new Thread(ControlLoopProfile::busyVision, "vision-" + i);
+            vision[i].setPriority(Thread.NORM_PRIORITY - 2);
+            vision[i].setDaemon(true);
+            vision[i].start();
+        }
+
+        loop.start();
+        long end = System.nanoTime() + (long) (seconds * 1e9);
+        boolean wound = false;
+        while (System.nanoTime() < end) {
+            wound = !wound;
+            settle.changed = true;
+            if (wound) {
+                shooter.addTension();
+            } else {
+                shooter.releaseTension();
+            }
+            Thread.sleep(CHANGE_EVERY);
+        }
+        loop.stop();
+
+        System.out.printf("%d us period, %d vision threads, %d cores%n", period, load,
+                Runtime.getRuntime().availableProcessors());
+        loop.dump(System.out);
+        System.out.println(settle.time.summary() + ", " + settle.unsettled + " changes never settled");
+        MemoryWatchdog.dump(System.out);
+    }
+
+    //TIME FROM A SETPOINT CHANGE UNTIL THE WINCH IS WITHIN SETTLED OF IT, ON THE LOOP THREAD
+    private static class Settle implements ControlTask {
+        final LatencyHistogram time = new LatencyHistogram("settle");
+        final ShooterMechanism shooter;
+        final SimPhysics physics;
+        volatile boolean changed;
+        long since = -1;
+        int unsettled;
+
+        Settle(ShooterMechanism shooter, SimPhysics physics) {
+            this.shooter = shooter;
+            this.physics = physics;
+        }
+
+        @Override
+        public void update(long now, double dt) {
+            if (changed) {
+                changed = false;
+                if (since >= 0) {
+                    unsettled++;
+                }
+                since = now;
+            }
+            if (since >= 0 && Math.abs(physics.tension - shooter.getSetpoint()) <= SETTLED) {
+                time.record(now - since);
+                since = -1;
+            }
+        }
+    }
+
+    private static void busyVision() {
+        try {
+            FrameSource source = VisionProfile.open("synthetic");
+            VisionPipeline pipeline = new VisionPipeline(new VisionConfig(), source.getWidth(), source.getHeight());
+            Frame frame = new Frame(source.getWidth(), source.getHeight());
+            while (source.nextFrame(frame)) {
+                pipeline.process(frame);
+            }
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+}
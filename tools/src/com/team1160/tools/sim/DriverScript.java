@@ -0,0 +1,9 @@
+package com.team1160.tools.sim;
+
+/**
+ * Moves the simulated joystick, called once before every teleop tick.
+ */
+public interface DriverScript {
+
+    void drive(long matchMicros, SimJoystick stick);
+}
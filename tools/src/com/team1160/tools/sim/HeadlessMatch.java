@@ -0,0 +1,143 @@
+package com.team1160.tools.sim;
+
+import com.team1160.tools.telemetry.UdpTelemetrySink;
+import com.team1160.tools.util.Percentiles;
+
+/**
+ * Runs whole matches of the robot program on simulated hardware as fast as
+ * the machine allows: 15 seconds of autonomous and 2:15 of teleop at one
+ * step per 20ms packet. Prints how long each match took for real, the state
+ * the robot finished in and a checksum of every output written, so two runs
+ * (or two versions of the code) can be compared.
+ *
+ * Outputs go through BufferedHardware like on the robot; --unbuffered writes
+ * every set() straight through to compare bus traffic.
+ *
+ * --telemetry streams the robot's telemetry to a TelemetryReceiver and plays
+ * the match at real time so the dashboard can keep up.
+ *
+ * Usage: HeadlessMatch [matches] [seed] [--expect checksum] [--unbuffered] [--telemetry host:port]
+ */
+public class HeadlessMatch {
+
+    static final long AUTONOMOUS_MICROS = 15000000L;
+    static final long TELEOP_MICROS = 135000000L;
+
+    public static void main(String[] args) throws Exception {
+        int matches = args.length > 0 && !args[0].startsWith("--") ? Integer.parseInt(args[0]) : 5;
+        long seed = args.length > 1 && !args[1].startsWith("--") ? Long.parseLong(args[1]) : 1160;
+        Long expect = null;
+        boolean buffered = true;
+        String telemetry = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--expect")) {
+                expect = Long.parseUnsignedLong(args[++i], 16);
+            } else if (args[i].equals("--unbuffered")) {
+                buffered = false;
+            } else if (args[i].equals("--telemetry")) {
+                telemetry = args[++i];
+            }
+        }
+
+        long checksum = 0;
+        int[] autoPoints = new int[1];
+        for (int m = 0; m < matches; m++) {
+            Percentiles tick = new Percentiles((int) ((AUTONOMOUS_MICROS + TELEOP_MICROS) / HeadlessRobot.PERIOD_MICROS));
+            long start = System.nanoTime();
+            HeadlessRobot robot = new HeadlessRobot();
+            robot.setBuffered(buffered);
+            if (telemetry != null) {
+                robot.setTelemetrySink(UdpTelemetrySink.parse(telemetry));
+            }
+            checksum = run(robot, new ScriptedDriver(seed), tick, autoPoints, telemetry != null);
+            double ms = (System.nanoTime() - start) / 1e6;
+
+            SimPhysics p = robot.physics;
+            System.out.printf("match %d: %.1f s simulated in %.1f ms (%.0fx real time)%n", m,
+                    robot.clock.now() / 1e6, ms, robot.clock.now() / 1e3 / ms);
+            System.out.printf("  autonomous %d points, drove %.1f ft, ended at (%.1f, %.1f), pressure %.0f psi, "
+                    + "%d piston strokes, %d output writes, checksum %016x%n", autoPoints[0], p.distanceDriven, p.x,
+                    p.y, p.pressure, p.pistonStrokes, robot.hardware.getWrites(), checksum);
+            if (robot.outputs != null) {
+                System.out.println("  " + robot.outputs);
+            }
+            if (robot.telemetry != null) {
+                robot.telemetry.getTelemetry().flush();
+                robot.telemetry.getTelemetry().stop();
+                System.out.println("  " + robot.telemetry.getTelemetry());
+            }
+            System.out.println("  tick " + tick.summary());
+        }
+        if (expect != null && expect != checksum) {
+            System.out.printf("checksum %016x does not match expected %016x%n", checksum, expect);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays one match.
+     *
+     * @param autoPoints If not null, element 0 gets the autonomous points
+     * @return A checksum of the outputs after every tick
+     */
+    public static long run(HeadlessRobot robot, DriverScript driver, Percentiles tick, int[] autoPoints) {
+        return run(robot, driver, tick, autoPoints, false);
+    }
+
+    /**
+     * @param realTime Sleep so each step takes a real 20ms, tick then times
+     * only the step itself
+     */
+    public static long run(HeadlessRobot robot, DriverScript driver, Percentiles tick, int[] autoPoints,
+            boolean realTime) {
+        robot.robotInit();
+        long origin = System.nanoTime();
+        long hash = 1125899906842597L;
+        robot.autonomousInit();
+        long end = AUTONOMOUS_MICROS;
+        boolean teleop = false;
+        while (robot.clock.now() < AUTONOMOUS_MICROS + TELEOP_MICROS) {
+            if (!teleop && robot.clock.now() >= end) {
+                if (autoPoints != null) {
+                    autoPoints[0] = robot.autonomousPoints();
+                }
+                robot.teleopInit();
+                teleop = true;
+            }
+            long t0 = System.nanoTime();
+            if (teleop) {
+                driver.drive(robot.clock.now(), robot.stick);
+            }
+            robot.step();
+            if (tick != null) {
+                tick.add(System.nanoTime() - t0);
+            }
+            hash = mix(hash, robot);
+            if (realTime) {
+                pace(origin, robot.clock.now());
+            }
+        }
+        return hash;
+    }
+
+    //WAITS UNTIL virtualMicros HAVE PASSED FOR REAL SINCE origin
+    private static void pace(long origin, long virtualMicros) {
+        long ahead = virtualMicros * 1000 - (System.nanoTime() - origin);
+        if (ahead > 0) {
+            try {
+                Thread.sleep(ahead / 1000000, (int) (ahead % 1000000));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static long mix(long hash, HeadlessRobot robot) {
+        SimPhysics p = robot.physics;
+        hash = 31 * hash + Double.doubleToLongBits(p.x);
+        hash = 31 * hash + Double.doubleToLongBits(p.y);
+        hash = 31 * hash + Double.doubleToLongBits(p.pressure);
+        hash = 31 * hash + Double.doubleToLongBits(p.tension);
+        return 31 * hash + (p.pistonExtended ? 1 : 0) + (robot.isTracking() ? 2 : 0);
+    }
+}
@@ -0,0 +1,240 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.RobotMap;
+import com.team1160.assistant.RobotTelemetry;
+import com.team1160.assistant.actions.Action;
+import com.team1160.assistant.actions.Binder;
+import com.team1160.assistant.actions.RobotActions;
+import com.team1160.assistant.autonomous.AutonomousParams;
+import com.team1160.assistant.autonomous.AutonomousRoutine;
+import com.team1160.assistant.control.PeriodicLoop;
+import com.team1160.assistant.hal.BufferedHardware;
+import com.team1160.assistant.hal.InputSampler;
+import com.team1160.assistant.hal.RobotHardware;
+import com.team1160.assistant.mechanisms.DriveMechanism;
+import com.team1160.assistant.mechanisms.PneumaticMechanism;
+import com.team1160.assistant.mechanisms.ShooterMechanism;
+import com.team1160.assistant.scheduler.FastScheduler;
+import com.team1160.assistant.util.LatencyHistogram;
+import com.team1160.assistant.util.TelemetrySink;
+import com.team1160.assistant.vision.TargetReport;
+import com.team1160.assistant.vision.Tracker;
+
+/**
+ * The robot program without WPILib: the same mechanisms the subsystems
+ * delegate to, on simulated hardware, and the robot's own commands and
+ * button bindings from RobotActions, run on a FastScheduler the way
+ * CommandBase runs them. What is still a copy is the part of team1160 that
+ * calls it all, autonomousInit(), teleopInit() and the order of a tick;
+ * keep those in step when team1160 changes. Vision is a flag the commands
+ * set, not the pipeline.
+ *
+ * Time is a SimClock, one step() is one 20ms driver station packet. The
+ * control loop ticks several times inside each, with the physics moving on
+ * between ticks, the way its thread would interleave with the packets.
+ *
+ * Every instance has its own hardware, clock and mechanisms and never touches
+ * the static Clock source or RobotHardware instance, so any number of them
+ * can run on different threads at once.
+ */
+public class HeadlessRobot {
+
+    public static final long PERIOD_MICROS = RobotMap.LOOP_PERIOD_MICROS;
+
+    public final SimClock clock = new SimClock();
+    public final SimHardware hardware = new SimHardware();
+    //WHAT THE MECHANISMS WRITE TO, FLUSHED TO hardware AT THE END OF EVERY TICK
+    public BufferedHardware outputs;
+    private boolean buffered = true;
+    public SimJoystick stick;
+    public InputSampler input;
+    public final LatencyHistogram inputLatency = new LatencyHistogram("input to output");
+    public SimPhysics physics;
+    private TelemetrySink telemetrySink;
+    public RobotTelemetry telemetry;
+    private TargetReport report = TargetReport.NONE;
+
+    public DriveMechanism drive;
+    public ShooterMechanism shooter;
+    public PneumaticMechanism pneumatics;
+    public PeriodicLoop control;
+
+    public final AutonomousParams autoParams;
+    public final SimField field;
+    //RUN THE ROUTINE IN AUTONOMOUS, LIKE THE ROBOT DOES WITH THE SAME SWITCH
+    public boolean autoRoutine = RobotMap.AUTO_ROUTINE_ENABLED;
+    public AutonomousRoutine auto;
+    public boolean fired;
+    public double shotX, shotTension;
+    public boolean shotHot;
+
+    private final FastScheduler scheduler = new FastScheduler(16);
+    //RESOURCE BITS, INDEXED BY THE Action SUBSYSTEM CONSTANTS LIKE CommandBase's
+    private final int[] bits = new int[Action.SUBSYSTEMS];
+    private boolean teleop;
+    private boolean tracking;
+    private long ticks;
+    private long autoStart;
+
+    public HeadlessRobot() {
+        this(new AutonomousParams(), new SimField(true, 100000));
+    }
+
+    public HeadlessRobot(AutonomousParams autoParams, SimField field) {
+        this.autoParams = autoParams;
+        this.field = field;
+    }
+
+    /**
+     * Lets the mechanisms write straight to the simulated hardware, like the
+     * robot did before outputs were buffered. Call before robotInit().
+     */
+    public void setBuffered(boolean buffered) {
+        this.buffered = buffered;
+    }
+
+    /**
+     * Streams the same channels as the robot to a sink, sampled at the end of
+     * every step(). Call before robotInit().
+     */
+    public void setTelemetrySink(TelemetrySink sink) {
+        this.telemetrySink = sink;
+    }
+
+    public void robotInit() {
+        RobotHardware hw = hardware;
+        if (buffered) {
+            outputs = new BufferedHardware(hardware, RobotMap.OUTPUT_DEADBAND, RobotMap.OUTPUT_REFRESH_TICKS);
+            hw = outputs;
+        }
+        drive = DriveMechanism.create(hw);
+        shooter = ShooterMechanism.create(hw);
+        pneumatics = PneumaticMechanism.create(hw);
+        control = new PeriodicLoop("control", RobotMap.CONTROL_PERIOD_MICROS);
+        control.add(shooter);
+        stick = hardware.getJoystick(RobotMap.JOY_PORT);
+        input = new InputSampler(stick);
+        physics = new SimPhysics(hardware.getMotor(RobotMap.RIGHT_JAG_MOTOR_SLOT, RobotMap.LEFT_JAG_MOTOR_CHAN),
+                hardware.getMotor(RobotMap.LEFT_JAG_MOTOR_SLOT, RobotMap.LEFT_JAG_MOTOR_CHAN),
+                hardware.getMotor(RobotMap.SHOOT_MOTOR_SLOT, RobotMap.SHOOT_MOTOR_CHAN),
+                hardware.getCompressor(RobotMap.COMPRESSOR_SWITCH_CHAN, RobotMap.COMPRESSOR_SWITCH_CHAN),
+                hardware.getSolenoid(RobotMap.SOLENOID_ONE), hardware.getAnalog(RobotMap.TENSION_POT_CHAN));
+        if (telemetrySink != null) {
+            telemetry = new RobotTelemetry(telemetrySink, drive, shooter, pneumatics, control);
+            telemetry.getTelemetry().start();
+        }
+
+        //THE ROBOT'S COMMANDS AND BINDINGS, AS CommandBase.init() MAKES THEM
+        for (int i = 0; i < Action.SUBSYSTEMS; i++) {
+            bits[i] = scheduler.addResource(Integer.valueOf(i));
+        }
+        Tracker vision = new Tracker() {
+            @Override
+            public void startTracking() {
+                tracking = true;
+            }
+
+            @Override
+            public void stopTracking() {
+                tracking = false;
+            }
+        };
+        new RobotActions(drive, pneumatics, shooter, vision, input).bind(new Binder() {
+            @Override
+            public void setDefault(Action action) {
+                scheduler.setDefaultCommand(register(action));
+            }
+
+            @Override
+            public void bind(int button, Action action) {
+                int slot = register(action);
+                input.addListener((b, pressed, timestamp) -> {
+                    if (pressed && b == button) {
+                        scheduler.start(slot);
+                    }
+                });
+            }
+        });
+    }
+
+    private int register(Action action) {
+        return scheduler.register(new SimCommand(action, bits[action.getSubsystem()]));
+    }
+
+    public void autonomousInit() {
+        //THE SCHEDULER DOESN'T RUN IN AUTONOMOUS, THE ROUTINE HAS THE ROBOT
+        tracking = true;
+        teleop = false;
+        autoStart = clock.now();
+        auto = autoRoutine ? new AutonomousRoutine(autoParams, drive, shooter) : null;
+    }
+
+    public void autonomousPeriodic() {
+        long t = clock.now() - autoStart;
+        boolean hot = field.visionSaysHot(t);
+        //WHAT THE FUSED REPORT WOULD HAVE SAID, THE ROUTINE DECIDES FROM IT LIKE ON THE ROBOT
+        report = new TargetReport(true, hot, 0, 0, ticks, clock.now(), true, hot, 1, 0);
+        if (auto != null) {
+            auto.step(clock.now(), report);
+        }
+        if (!fired && auto != null && auto.getFiredAt() >= 0) {
+            fired = true;
+            shotX = physics.x;
+            shotTension = physics.tension;
+            shotHot = field.isHot(t);
+        }
+    }
+
+    //AUTONOMOUS POINTS SO FAR
+    public int autonomousPoints() {
+        return SimField.points(physics.x, fired, shotX, shotTension, shotHot);
+    }
+
+    public void teleopInit() {
+        tracking = false;
+        report = TargetReport.NONE;
+        teleop = true;
+        if (outputs != null) {
+            outputs.setInputSource(input, inputLatency);
+        }
+    }
+
+    /**
+     * One driver station packet: the periodic method for the current mode,
+     * then the control loop and the physics and the clock move on by one
+     * period.
+     */
+    public void step() {
+        if (teleop) {
+            input.sample(clock.now());
+            scheduler.run();
+        } else {
+            autonomousPeriodic();
+        }
+        if (outputs != null) {
+            outputs.flush();
+        }
+        if (telemetry != null) {
+            telemetry.sample(clock.now(), report);
+        }
+        long step = RobotMap.CONTROL_PERIOD_MICROS;
+        for (long t = 0; t < PERIOD_MICROS; t += step) {
+            control.tick(clock.now() + t);
+            physics.step(Math.min(step, PERIOD_MICROS - t) / 1e6);
+        }
+        clock.advance(PERIOD_MICROS);
+        ticks++;
+    }
+
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public FastScheduler getScheduler() {
+        return scheduler;
+    }
+}
@@ -0,0 +1,176 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.autonomous.AutonomousParams;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Tunes autonomous by brute force. Draws random AutonomousParams within the
+ * ranges below, runs each one through several simulated autonomous periods
+ * (the hot goal first or second, with different vision delays), and ranks
+ * them by mean points and then by how early they fire. Configuration 0 is
+ * always the current RobotMap values, for comparison.
+ *
+ * Every run builds its own HeadlessRobot, so runs share nothing and spread
+ * over a ForkJoinPool with no locking. Results go straight into primitive
+ * arrays indexed by run.
+ *
+ * Usage: ParameterSweep [--configs n] [--trials n] [--threads n] [--seed n] [--top n] [--scaling]
+ */
+public class ParameterSweep {
+
+    //THE WINCH POWERS ARE THE COMMANDS' OWN, ONLY THE TIMING IS TUNED
+    static final String[] NAMES = {"driveSpeed", "driveMs", "windMs", "fireMs", "hotTimeoutMs"};
+    static final double[] LOW = {0.2, 300, 300, 100, 0};
+    static final double[] HIGH = {1.0, 3000, 4000, 1500, 10000};
+    static final int DIM = NAMES.length;
+
+    static final long AUTONOMOUS_TICKS = HeadlessMatch.AUTONOMOUS_MICROS / HeadlessRobot.PERIOD_MICROS;
+
+    final int configs, trials;
+    final double[] params;
+    final int[] points;
+    final long[] firedAt;
+
+    ParameterSweep(int configs, int trials, long seed) {
+        this.configs = configs;
+        this.trials = trials;
+        params = new double[configs * DIM];
+        points = new int[configs * trials];
+        firedAt = new long[configs * trials];
+
+        Random rand = new Random(seed);
+        AutonomousParams defaults = new AutonomousParams();
+        store(defaults, 0);
+        for (int c = 1; c < configs; c++) {
+            for (int d = 0; d < DIM; d++) {
+                params[c * DIM + d] = LOW[d] + rand.nextDouble() * (HIGH[d] - LOW[d]);
+            }
+        }
+    }
+
+    void store(AutonomousParams p, int c) {
+        double[] v = {p.driveSpeed, p.driveMicros / 1e3, p.windMicros / 1e3, p.fireMicros / 1e3,
+            p.hotTimeoutMicros / 1e3};
+        System.arraycopy(v, 0, params, c * DIM, DIM);
+    }
+
+    AutonomousParams load(int c) {
+        AutonomousParams p = new AutonomousParams();
+        int o = c * DIM;
+        p.driveSpeed = params[o];
+        p.driveMicros = (long) (params[o + 1] * 1e3);
+        p.windMicros = (long) (params[o + 2] * 1e3);
+        p.fireMicros = (long) (params[o + 3] * 1e3);
+        p.hotTimeoutMicros = (long) (params[o + 4] * 1e3);
+        return p;
+    }
+
+    /**
+     * Trial t of a configuration: even trials have the goal hot first, and the
+     * vision delay steps from 60ms up.
+     */
+    SimField field(int trial) {
+        return new SimField(trial % 2 == 0, 60000 + (trial / 2) * 40000L);
+    }
+
+    void simulate(int run) {
+        int c = run / trials, trial = run % trials;
+        HeadlessRobot robot = new HeadlessRobot(load(c), field(trial));
+        //WHETHER OR NOT THE ROBOT RUNS IT YET, THE ROUTINE IS WHAT'S SWEPT
+        robot.autoRoutine = true;
+        robot.robotInit();
+        robot.autonomousInit();
+        for (long i = 0; i < AUTONOMOUS_TICKS; i++) {
+            robot.step();
+        }
+        points[run] = robot.autonomousPoints();
+        firedAt[run] = robot.auto.getFiredAt();
+    }
+
+    /**
+     * @return Wall clock seconds
+     */
+    double run(int threads) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            pool.submit(() -> IntStream.range(0, configs * trials).parallel().forEach(this::simulate)).get();
+        } finally {
+            pool.shutdown();
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    void report(int top) {
+        double[] mean = new double[configs];
+        double[] fire = new double[configs];
+        for (int c = 0; c < configs; c++) {
+            long sum = 0, fireSum = 0;
+            for (int t = 0; t < trials; t++) {
+                int r = c * trials + t;
+                sum += points[r];
+                //NEVER FIRING COUNTS AS FIRING AT THE END
+                fireSum += firedAt[r] < 0 ? HeadlessMatch.AUTONOMOUS_MICROS : firedAt[r];
+            }
+            mean[c] = (double) sum / trials;
+            fire[c] = fireSum / 1e3 / trials;
+        }
+        int[] order = IntStream.range(0, configs).boxed()
+                .sorted((a, b) -> mean[a] != mean[b] ? Double.compare(mean[b], mean[a]) : Double.compare(fire[a], fire[b]))
+                .mapToInt(Integer::intValue).toArray();
+
+        System.out.printf("%4s %7s %9s  %s%n", "rank", "points", "fire ms", String.join(" ", NAMES));
+        for (int i = 0; i < Math.min(top, configs); i++) {
+            print(i, order[i], mean, fire);
+        }
+        for (int i = 0; i < configs; i++) {
+            if (order[i] == 0) {
+                System.out.println("current RobotMap values:");
+                print(i, 0, mean, fire);
+            }
+        }
+    }
+
+    private void print(int rank, int c, double[] mean, double[] fire) {
+        StringBuilder sb = new StringBuilder();
+        for (int d = 0; d < DIM; d++) {
+            sb.append(String.format(" %.2f", params[c * DIM + d]));
+        }
+        System.out.printf("%4d %7.2f %9.0f %s%n", rank + 1, mean[c], fire[c], sb);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int configs = 4096, trials = 4, top = 10;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1160;
+        boolean scaling = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--configs" -> configs = Integer.parseInt(args[++i]);
+                case "--trials" -> trials = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--top" -> top = Integer.parseInt(args[++i]);
+                case "--scaling" -> scaling = true;
+                default -> throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        if (scaling) {
+            //SAME SWEEP ON 1, 2, 4... THREADS, RUNS PER SECOND SHOULD GROW WITH THEM
+            for (int t = 1; t <= threads; t *= 2) {
+                ParameterSweep sweep = new ParameterSweep(configs, trials, seed);
+                double s = sweep.run(t);
+                System.out.printf("%d threads: %.0f runs/s%n", t, configs * trials / s);
+            }
+        }
+
+        ParameterSweep sweep = new ParameterSweep(configs, trials, seed);
+        double seconds = sweep.run(threads);
+        System.out.printf("%d configurations x %d trials = %d simulated autonomous periods on %d threads in %.2fs "
+                + "(%.0f runs/s)%n", configs, trials, configs * trials, threads, seconds, configs * trials / seconds);
+        sweep.report(top);
+    }
+}
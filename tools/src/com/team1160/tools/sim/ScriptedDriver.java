@@ -0,0 +1,54 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.RobotMap;
+import java.util.Random;
+
+/**
+ * A repeatable stand-in for a driver: sweeps the stick around, and every few
+ * seconds winds the shooter, fires, and cycles the piston. The seed only
+ * changes the timing, so runs with the same seed give the same match.
+ */
+public class ScriptedDriver implements DriverScript {
+
+    private final Random rand;
+    private final long cycleMicros;
+    private int held;
+    private long releaseAt;
+
+    public ScriptedDriver(long seed) {
+        rand = new Random(seed);
+        cycleMicros = 4000000 + rand.nextInt(2000000);
+    }
+
+    @Override
+    public void drive(long matchMicros, SimJoystick stick) {
+        double t = matchMicros / 1e6;
+        stick.setAxes(0.3 * Math.sin(t * 0.7), -0.8 * Math.cos(t * 0.23));
+
+        if (held != 0 && matchMicros >= releaseAt) {
+            stick.setButton(held, false);
+            held = 0;
+        }
+        if (held == 0) {
+            long phase = matchMicros % cycleMicros;
+            int button = 0;
+            if (phase < 20000) {
+                button = RobotMap.ADD_TENSION_BUT;
+            } else if (phase >= 2000000 && phase < 2020000) {
+                button = RobotMap.LET_GO_BUT;
+            } else if (phase >= 2500000 && phase < 2520000) {
+                button = RobotMap.EXTEND_PISTON_BUT;
+            } else if (phase >= 3000000 && phase < 3020000) {
+                button = RobotMap.RETRACT_PISTON_BUT;
+            } else if (rand.nextInt(2000) == 0) {
+                button = rand.nextBoolean() ? RobotMap.VISION_TRACK_BUT : RobotMap.STOP_VISION_TRACK_BUT;
+            }
+            if (button != 0) {
+                //HELD FOR A FEW PACKETS LIKE A REAL THUMB
+                stick.setButton(button, true);
+                held = button;
+                releaseAt = matchMicros + 60000 + rand.nextInt(100000);
+            }
+        }
+    }
+}
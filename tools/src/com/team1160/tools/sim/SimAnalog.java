@@ -0,0 +1,20 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.hal.AnalogInput;
+
+/**
+ * A sensor whose voltage the simulator sets.
+ */
+public class SimAnalog implements AnalogInput {
+
+    private double volts;
+
+    @Override
+    public double getVoltage() {
+        return volts;
+    }
+
+    public void setVoltage(double volts) {
+        this.volts = volts;
+    }
+}
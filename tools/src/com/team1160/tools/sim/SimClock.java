@@ -0,0 +1,25 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.util.Clock;
+
+/**
+ * Virtual time for the simulator. Only moves when advance() is called, so a
+ * match runs as fast as the code can step it.
+ */
+public class SimClock extends Clock {
+
+    private long micros;
+
+    @Override
+    public long now() {
+        return micros;
+    }
+
+    public void advance(long deltaMicros) {
+        micros += deltaMicros;
+    }
+
+    public void install() {
+        Clock.setSource(this);
+    }
+}
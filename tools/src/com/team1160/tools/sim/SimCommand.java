@@ -0,0 +1,59 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.actions.Action;
+import com.team1160.assistant.scheduler.FastCommand;
+
+/**
+ * Runs one of the robot's Actions on the simulator's FastScheduler, the way
+ * CommandBase runs it on the robot, without the WPILib Command around it or
+ * the profiling.
+ */
+public class SimCommand implements FastCommand {
+
+    private final Action action;
+    private final int requirements;
+
+    public SimCommand(Action action, int requirements) {
+        this.action = action;
+        this.requirements = requirements;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    @Override
+    public int getRequirements() {
+        return requirements;
+    }
+
+    @Override
+    public boolean isInterruptible() {
+        return true;
+    }
+
+    @Override
+    public void fastInitialize() {
+        action.initialize();
+    }
+
+    @Override
+    public void fastExecute() {
+        action.execute();
+    }
+
+    @Override
+    public boolean fastIsFinished() {
+        return action.isFinished();
+    }
+
+    @Override
+    public void fastEnd() {
+        action.end();
+    }
+
+    @Override
+    public void fastInterrupted() {
+        action.interrupted();
+    }
+}
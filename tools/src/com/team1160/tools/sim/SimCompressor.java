@@ -0,0 +1,33 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.hal.CompressorOutput;
+
+/**
+ * Enabled or not; SimPhysics does the pressure switch.
+ */
+public class SimCompressor implements CompressorOutput {
+
+    private boolean enabled;
+    private long writes;
+
+    @Override
+    public void start() {
+        enabled = true;
+        writes++;
+    }
+
+    @Override
+    public void stop() {
+        enabled = false;
+        writes++;
+    }
+
+    @Override
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+}
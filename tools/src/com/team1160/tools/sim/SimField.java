@@ -0,0 +1,64 @@
+package com.team1160.tools.sim;
+
+/**
+ * The 2014 field as far as autonomous cares. One goal is hot for the first
+ * five seconds and the other for the next five; which one is in front of the
+ * robot is picked per match. The robot starts GOAL_DISTANCE feet from the
+ * goal and earns the mobility bonus for crossing into the zone. A shot goes
+ * in when the winch tension carries the ball to the goal, give or take
+ * SHOT_TOLERANCE feet.
+ */
+public class SimField {
+
+    static final long HOT_PERIOD_MICROS = 5000000;
+
+    static final double GOAL_DISTANCE = 18;
+    static final double ZONE_LINE = 6;
+    static final double SHOT_RANGE = 24; //FEET AT FULL TENSION
+    static final double SHOT_TOLERANCE = 2;
+
+    static final int MOBILITY_POINTS = 5;
+    static final int GOAL_POINTS = 15;
+    static final int HOT_POINTS = 5;
+
+    public final boolean hotFirst;
+    public final long visionDelayMicros;
+
+    /**
+     * @param hotFirst True if the goal in front of the robot is hot for the
+     * first five seconds
+     * @param visionDelayMicros How long the vision takes to make its call
+     */
+    public SimField(boolean hotFirst, long visionDelayMicros) {
+        this.hotFirst = hotFirst;
+        this.visionDelayMicros = visionDelayMicros;
+    }
+
+    public boolean isHot(long autoMicros) {
+        boolean first = autoMicros < HOT_PERIOD_MICROS;
+        boolean second = autoMicros >= HOT_PERIOD_MICROS && autoMicros < 2 * HOT_PERIOD_MICROS;
+        return hotFirst ? first : second;
+    }
+
+    //WHAT THE VISION THREAD REPORTS, A LITTLE BEHIND THE LIGHTS
+    public boolean visionSaysHot(long autoMicros) {
+        return autoMicros >= visionDelayMicros && isHot(autoMicros - visionDelayMicros);
+    }
+
+    public static boolean shotScores(double x, double tension) {
+        return Math.abs(tension * SHOT_RANGE - (GOAL_DISTANCE - x)) <= SHOT_TOLERANCE;
+    }
+
+    /**
+     * Autonomous points for one run.
+     *
+     * @param fired False if the robot never shot
+     */
+    public static int points(double x, boolean fired, double shotX, double shotTension, boolean shotHot) {
+        int points = x >= ZONE_LINE ? MOBILITY_POINTS : 0;
+        if (fired && shotScores(shotX, shotTension)) {
+            points += GOAL_POINTS + (shotHot ? HOT_POINTS : 0);
+        }
+        return points;
+    }
+}
@@ -0,0 +1,84 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.hal.AnalogInput;
+import com.team1160.assistant.hal.CompressorOutput;
+import com.team1160.assistant.hal.JoystickInput;
+import com.team1160.assistant.hal.MotorOutput;
+import com.team1160.assistant.hal.RobotHardware;
+import com.team1160.assistant.hal.SolenoidOutput;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Simulated devices for everything RobotHardware can make. Asking twice for
+ * the same slot and channel gives back the same device, so the simulator can
+ * look up what the robot code is driving.
+ */
+public class SimHardware extends RobotHardware {
+
+    private final Map<String, SimMotor> motors = new LinkedHashMap<>();
+    private final Map<Integer, SimSolenoid> solenoids = new LinkedHashMap<>();
+    private final Map<String, SimCompressor> compressors = new LinkedHashMap<>();
+    private final Map<Integer, SimJoystick> joysticks = new LinkedHashMap<>();
+    private final Map<Integer, SimAnalog> analogs = new LinkedHashMap<>();
+
+    @Override
+    public MotorOutput motor(int slot, int channel) {
+        return getMotor(slot, channel);
+    }
+
+    @Override
+    public SolenoidOutput solenoid(int channel) {
+        return getSolenoid(channel);
+    }
+
+    @Override
+    public CompressorOutput compressor(int pressureSwitchChannel, int relayChannel) {
+        return getCompressor(pressureSwitchChannel, relayChannel);
+    }
+
+    @Override
+    public JoystickInput joystick(int port) {
+        return getJoystick(port);
+    }
+
+    @Override
+    public AnalogInput analog(int channel) {
+        return getAnalog(channel);
+    }
+
+    public SimMotor getMotor(int slot, int channel) {
+        return motors.computeIfAbsent(slot + "/" + channel, k -> new SimMotor());
+    }
+
+    public SimSolenoid getSolenoid(int channel) {
+        return solenoids.computeIfAbsent(channel, k -> new SimSolenoid());
+    }
+
+    public SimCompressor getCompressor(int pressureSwitchChannel, int relayChannel) {
+        return compressors.computeIfAbsent(pressureSwitchChannel + "/" + relayChannel, k -> new SimCompressor());
+    }
+
+    public SimJoystick getJoystick(int port) {
+        return joysticks.computeIfAbsent(port, k -> new SimJoystick());
+    }
+
+    public SimAnalog getAnalog(int channel) {
+        return analogs.computeIfAbsent(channel, k -> new SimAnalog());
+    }
+
+    //TOTAL OUTPUT WRITES, TO SEE HOW CHATTY THE ROBOT CODE IS
+    public long getWrites() {
+        long n = 0;
+        for (SimMotor m : motors.values()) {
+            n += m.getWrites();
+        }
+        for (SimSolenoid s : solenoids.values()) {
+            n += s.getWrites();
+        }
+        for (SimCompressor c : compressors.values()) {
+            n += c.getWrites();
+        }
+        return n;
+    }
+}
@@ -0,0 +1,43 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.hal.JoystickInput;
+import java.util.Arrays;
+
+/**
+ * A joystick the driver script moves. Buttons are numbered from 1.
+ */
+public class SimJoystick implements JoystickInput {
+
+    private static final int BUTTONS = 12;
+
+    private double x, y;
+    private final boolean[] buttons = new boolean[BUTTONS + 1];
+
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    @Override
+    public boolean getRawButton(int button) {
+        return button > 0 && button <= BUTTONS && buttons[button];
+    }
+
+    public void setAxes(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public void setButton(int button, boolean pressed) {
+        buttons[button] = pressed;
+    }
+
+    public void releaseAll() {
+        Arrays.fill(buttons, false);
+    }
+}
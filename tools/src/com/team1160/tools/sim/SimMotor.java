@@ -0,0 +1,27 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.hal.MotorOutput;
+
+/**
+ * Remembers the last speed it was given and how many times it was set.
+ */
+public class SimMotor implements MotorOutput {
+
+    private double speed;
+    private long writes;
+
+    @Override
+    public void set(double speed) {
+        this.speed = Math.max(-1, Math.min(1, speed));
+        writes++;
+    }
+
+    @Override
+    public double get() {
+        return speed;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+}
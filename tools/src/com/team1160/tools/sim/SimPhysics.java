@@ -0,0 +1,80 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.RobotMap;
+
+/**
+ * Just enough of the robot's physics to make a simulated match mean
+ * something: a differential drive integrating its pose, the air system's
+ * pressure with the pressure switch, and the shooter's winch tension, read
+ * back through the pot on the winch.
+ * Numbers are rough 2014 robot figures, not measurements.
+ */
+public class SimPhysics {
+
+    //DRIVE, FEET AND FEET PER SECOND
+    static final double MAX_SPEED = 12;
+    static final double TRACK_WIDTH = 2;
+
+    //AIR, PSI
+    static final double PRESSURE_MAX = 120;
+    static final double PRESSURE_SWITCH_ON = 95;
+    static final double COMPRESSOR_RATE = 1.5; //PSI PER SECOND
+    static final double PISTON_STROKE_COST = 4;
+
+    //SHOOTER, 0 SLACK TO 1 FULLY WOUND
+    static final double TENSION_RATE = 0.5; //PER SECOND AT FULL POWER
+
+    private final SimMotor left, right, winch;
+    private final SimCompressor compressor;
+    private final SimSolenoid extend;
+    private final SimAnalog pot;
+
+    public double x, y, heading;
+    public double distanceDriven;
+    public double pressure;
+    public boolean compressorRunning;
+    public boolean pistonExtended;
+    public int pistonStrokes;
+    public double tension;
+
+    public SimPhysics(SimMotor left, SimMotor right, SimMotor winch, SimCompressor compressor, SimSolenoid extend,
+            SimAnalog pot) {
+        this.left = left;
+        this.right = right;
+        this.winch = winch;
+        this.compressor = compressor;
+        this.extend = extend;
+        this.pot = pot;
+        pot.setVoltage(RobotMap.TENSION_SLACK_VOLTS);
+    }
+
+    public void step(double dt) {
+        //THE RIGHT SIDE IS MOUNTED MIRRORED, SO FORWARD IS NEGATIVE OUTPUT ON IT
+        double vl = left.get() * MAX_SPEED;
+        double vr = -right.get() * MAX_SPEED;
+        double v = (vl + vr) / 2;
+        heading += (vr - vl) / TRACK_WIDTH * dt;
+        x += v * Math.cos(heading) * dt;
+        y += v * Math.sin(heading) * dt;
+        distanceDriven += Math.abs(v) * dt;
+
+        //PRESSURE SWITCH WITH HYSTERESIS, ONLY WHILE THE COMPRESSOR IS ENABLED
+        if (!compressor.enabled() || pressure >= PRESSURE_MAX) {
+            compressorRunning = false;
+        } else if (pressure <= PRESSURE_SWITCH_ON) {
+            compressorRunning = true;
+        }
+        if (compressorRunning) {
+            pressure = Math.min(PRESSURE_MAX, pressure + COMPRESSOR_RATE * dt);
+        }
+        if (extend.get() != pistonExtended) {
+            pistonExtended = extend.get();
+            pistonStrokes++;
+            pressure = Math.max(0, pressure - PISTON_STROKE_COST);
+        }
+
+        tension = Math.max(0, Math.min(1, tension + winch.get() * TENSION_RATE * dt));
+        pot.setVoltage(RobotMap.TENSION_SLACK_VOLTS
+                + tension * (RobotMap.TENSION_WOUND_VOLTS - RobotMap.TENSION_SLACK_VOLTS));
+    }
+}
@@ -0,0 +1,24 @@
+package com.team1160.tools.sim;
+
+import com.team1160.assistant.hal.SolenoidOutput;
+
+public class SimSolenoid implements SolenoidOutput {
+
+    private boolean on;
+    private long writes;
+
+    @Override
+    public void set(boolean on) {
+        this.on = on;
+        writes++;
+    }
+
+    @Override
+    public boolean get() {
+        return on;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+}
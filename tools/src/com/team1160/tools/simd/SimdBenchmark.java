@@ -0,0 +1,208 @@
+package com.team1160.tools.simd;
+
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.FrameSource;
+import com.team1160.assistant.vision.HsvThreshold;
+import com.team1160.assistant.vision.ParticleLabeler;
+import com.team1160.assistant.vision.ParticleTable;
+import com.team1160.assistant.vision.VisionConfig;
+import com.team1160.tools.bench.Bench;
+import com.team1160.tools.vision.VisionProfile;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import jdk.incubator.vector.IntVector;
+
+/**
+ * Checks the vector kernels against the scalar code, then benchmarks them
+ * against it. HSV thresholding is checked on every 24 bit colour for the
+ * robot's thresholds and a few random ones, and on the frames. Run
+ * extraction is checked by labeling the frames' masks both ways and
+ * comparing every particle. Any difference fails the run.
+ *
+ * The kernels run at the JVM's preferred vector width. --widths runs this
+ * again in a new JVM for every width from 128 bits up to the largest the
+ * machine has, narrowing it with -XX:MaxVectorSize. 64 bit vectors are left
+ * out, x86 has no 2 lane int vectors.
+ *
+ * Needs the Vector API: java --add-modules jdk.incubator.vector ...
+ *
+ * Usage: SimdBenchmark [--widths] [frame directory | synthetic:WxH] [warmup ms] [measure ms] [csv file]
+ */
+public class SimdBenchmark {
+
+    private static final int FRAMES = 64;
+    private static final int RANDOM_CONFIGS = 4;
+
+    public static void main(String[] args) throws Exception {
+        if (!SimdKernels.isAvailable()) {
+            System.out.println("the Vector API is not loaded, run with --add-modules jdk.incubator.vector");
+            System.exit(1);
+        }
+        if (args.length > 0 && args[0].equals("--widths")) {
+            eachWidth(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        String input = args.length > 0 ? args[0] : "synthetic";
+        FrameSource source = VisionProfile.open(input);
+        int width = source.getWidth(), height = source.getHeight();
+        Frame[] frames = new Frame[FRAMES];
+        byte[][] masks = new byte[FRAMES][];
+        VisionConfig config = new VisionConfig();
+        for (int i = 0; i < FRAMES; i++) {
+            frames[i] = new Frame(width, height);
+            source.nextFrame(frames[i]);
+            masks[i] = new byte[width * height];
+            HsvThreshold.threshold(frames[i], config, masks[i]);
+        }
+        VectorHsvKernel kernel = VectorKernels.threshold();
+        VectorMaskScanner scanner = VectorKernels.scanner();
+        System.out.println(System.getProperty("os.arch") + ", " + kernel + ", " + scanner);
+
+        VisionConfig[] configs = new VisionConfig[RANDOM_CONFIGS + 1];
+        configs[0] = config;
+        Random rand = new Random(1160);
+        for (int c = 1; c < configs.length; c++) {
+            configs[c] = randomConfig(rand);
+        }
+        for (VisionConfig c : configs) {
+            checkColours(kernel, c);
+        }
+        checkFrames(kernel, frames, config);
+        checkLabels(scanner, masks, width, height, config.areaMinimum);
+        System.out.println("masks and particles identical to the scalar code");
+
+        Bench bench = Bench.fromArgs(args, 1);
+        String param = width + "x" + height;
+        byte[] mask = new byte[width * height];
+        double base = bench.run("threshold scalar", param, ops -> {
+            long s = 0;
+            for (int k = 0; k < ops; k++) {
+                HsvThreshold.threshold(frames[k % FRAMES], config, mask, 0, mask.length);
+                s += mask[k % mask.length];
+            }
+            return s;
+        }).nanosPerOp;
+        double t = bench.run("threshold vector " + kernel.getBits(), param, ops -> {
+            long s = 0;
+            for (int k = 0; k < ops; k++) {
+                kernel.threshold(frames[k % FRAMES], config, mask, 0, mask.length);
+                s += mask[k % mask.length];
+            }
+            return s;
+        }).nanosPerOp;
+        System.out.printf("  %.2fx%n", base / t);
+
+        ParticleLabeler labeler = new ParticleLabeler(width, height, 256);
+        base = bench.run("label scalar", param, ops -> label(labeler, masks, config, ops)).nanosPerOp;
+        labeler.setMaskScanner(scanner);
+        t = bench.run("label vector " + scanner.getBits(), param, ops -> label(labeler, masks, config, ops)).nanosPerOp;
+        System.out.printf("  %.2fx%n", base / t);
+
+        if (args.length > 3) {
+            bench.writeCsv(args[3], input + " " + System.getProperty("os.arch") + " " + kernel.getBits());
+        }
+    }
+
+    //THE SPECIES ARE FIXED WHEN THE JVM STARTS, SO EACH WIDTH GETS ITS OWN
+    private static void eachWidth(String[] args) throws IOException, InterruptedException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        int max = IntVector.SPECIES_MAX.vectorByteSize();
+        for (int bytes = 16; bytes <= Math.min(max, 64); bytes *= 2) {
+            List<String> command = new ArrayList<>(List.of(java, "--add-modules", "jdk.incubator.vector",
+                    "-XX:MaxVectorSize=" + bytes, "-cp", System.getProperty("java.class.path"),
+                    SimdBenchmark.class.getName()));
+            command.addAll(Arrays.asList(args));
+            System.out.println("== " + bytes * 8 + " bit");
+            int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+            if (exit != 0) {
+                System.exit(exit);
+            }
+        }
+    }
+
+    private static long label(ParticleLabeler labeler, byte[][] masks, VisionConfig config, int ops) {
+        long s = 0;
+        for (int k = 0; k < ops; k++) {
+            s += labeler.label(masks[k % FRAMES], config.areaMinimum);
+        }
+        return s;
+    }
+
+    private static VisionConfig randomConfig(Random rand) {
+        VisionConfig c = new VisionConfig();
+        c.hueLow = rand.nextInt(256);
+        c.hueHigh = c.hueLow + rand.nextInt(256 - c.hueLow);
+        c.satLow = rand.nextInt(256);
+        c.satHigh = c.satLow + rand.nextInt(256 - c.satLow);
+        c.valLow = rand.nextInt(128);
+        c.valHigh = c.valLow + rand.nextInt(256 - c.valLow);
+        return c;
+    }
+
+    //ALL 2^24 COLOURS, 65536 AT A TIME
+    private static void checkColours(VectorHsvKernel kernel, VisionConfig config) {
+        Frame colours = new Frame(256, 256);
+        byte[] expected = new byte[colours.pixels.length];
+        byte[] actual = new byte[colours.pixels.length];
+        for (int block = 0; block < 256; block++) {
+            for (int i = 0; i < colours.pixels.length; i++) {
+                colours.pixels[i] = block << 16 | i;
+            }
+            HsvThreshold.threshold(colours, config, expected, 0, expected.length);
+            kernel.threshold(colours, config, actual, 0, actual.length);
+            for (int i = 0; i < expected.length; i++) {
+                if (expected[i] != actual[i]) {
+                    fail(kernel + " disagrees on colour " + Integer.toHexString(colours.pixels[i]));
+                }
+            }
+        }
+    }
+
+    //ODD RANGES TOO, SO THE SCALAR TAIL IS COVERED
+    private static void checkFrames(VectorHsvKernel kernel, Frame[] frames, VisionConfig config) {
+        int n = frames[0].pixels.length;
+        byte[] expected = new byte[n];
+        byte[] actual = new byte[n];
+        for (Frame frame : frames) {
+            int from = (int) (frame.sequence % 7), to = n - (int) (frame.sequence % 5);
+            HsvThreshold.threshold(frame, config, expected, from, to);
+            kernel.threshold(frame, config, actual, from, to);
+            for (int i = from; i < to; i++) {
+                if (expected[i] != actual[i]) {
+                    fail(kernel + " disagrees on frame " + frame.sequence + " pixel " + i);
+                }
+            }
+        }
+    }
+
+    private static void checkLabels(VectorMaskScanner scanner, byte[][] masks, int width, int height, int area) {
+        ParticleLabeler scalar = new ParticleLabeler(width, height, 256);
+        ParticleLabeler vector = new ParticleLabeler(width, height, 256);
+        vector.setMaskScanner(scanner);
+        for (int f = 0; f < masks.length; f++) {
+            scalar.label(masks[f], area);
+            vector.label(masks[f], area);
+            ParticleTable a = scalar.getParticles(), b = vector.getParticles();
+            boolean same = a.count == b.count;
+            for (int i = 0; same && i < a.count; i++) {
+                same = a.particleArea[i] == b.particleArea[i] && a.perimeter[i] == b.perimeter[i]
+                        && a.boundingRectLeft[i] == b.boundingRectLeft[i]
+                        && a.boundingRectTop[i] == b.boundingRectTop[i]
+                        && a.boundingRectWidth[i] == b.boundingRectWidth[i]
+                        && a.boundingRectHeight[i] == b.boundingRectHeight[i]
+                        && a.center_mass_x[i] == b.center_mass_x[i] && a.center_mass_y[i] == b.center_mass_y[i];
+            }
+            if (!same) {
+                fail(scanner + " labels frame " + f + " differently");
+            }
+        }
+    }
+
+    private static void fail(String message) {
+        System.out.println("FAILED: " + message);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,61 @@
+package com.team1160.tools.simd;
+
+import com.team1160.assistant.vision.HsvThreshold;
+import com.team1160.assistant.vision.MaskScanner;
+import com.team1160.assistant.vision.ThresholdKernel;
+import com.team1160.assistant.vision.VisionPipeline;
+
+/**
+ * Picks the vectorized vision kernels when the JVM has the Vector API, and
+ * the plain scalar code when it doesn't. The Vector API is an incubator
+ * module, so it is only there when the JVM is started with
+ * --add-modules jdk.incubator.vector. The vector classes are only loaded
+ * through reflection once the module is known to be present, so tools run
+ * either way. -Dsimd=false forces the scalar code.
+ */
+public class SimdKernels {
+
+    private static final boolean AVAILABLE = !"false".equals(System.getProperty("simd"))
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    //THE VECTOR HSV KERNEL AT THE PREFERRED WIDTH, OR HsvThreshold
+    public static ThresholdKernel thresholdKernel() {
+        ThresholdKernel kernel = (ThresholdKernel) create("com.team1160.tools.simd.VectorKernels", "threshold");
+        return kernel != null ? kernel : HsvThreshold.KERNEL;
+    }
+
+    //THE VECTOR MASK SCANNER AT THE PREFERRED WIDTH, OR NULL FOR THE LABELER'S OWN LOOP
+    public static MaskScanner maskScanner() {
+        return (MaskScanner) create("com.team1160.tools.simd.VectorKernels", "scanner");
+    }
+
+    /**
+     * Gives the pipeline whatever kernels this JVM supports.
+     *
+     * @return What was installed, for printing
+     */
+    public static String install(VisionPipeline pipeline) {
+        ThresholdKernel kernel = thresholdKernel();
+        MaskScanner scanner = maskScanner();
+        pipeline.setPixelKernel(kernel);
+        pipeline.setMaskScanner(scanner);
+        return scanner == null ? "scalar kernels (start with --add-modules jdk.incubator.vector for SIMD)"
+                : kernel + ", " + scanner;
+    }
+
+    private static Object create(String className, String method) {
+        if (!AVAILABLE) {
+            return null;
+        }
+        try {
+            return Class.forName(className).getMethod(method).invoke(null);
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            System.err.println("vector kernels unavailable, using scalar: " + ex);
+            return null;
+        }
+    }
+}
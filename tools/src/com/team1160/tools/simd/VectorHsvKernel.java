@@ -0,0 +1,128 @@
+package com.team1160.tools.simd;
+
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.HsvThreshold;
+import com.team1160.assistant.vision.ThresholdKernel;
+import com.team1160.assistant.vision.VisionConfig;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * HsvThreshold with the Vector API: a whole vector of pixels is split into
+ * channels, range tested and written to the mask per instruction.
+ *
+ * The mask is bit-for-bit the one HsvThreshold writes. The channels are
+ * turned into floats once and everything after that stays in float lanes,
+ * because JDK 17 does not compile float to int conversions or int to float
+ * mask casts to vector code. Saturation and hue need Java's integer division
+ * rounded towards zero, and float does that exactly here: numerators stay
+ * under 2^16 and divisors under 256, so a quotient is either exactly an
+ * integer or at least 1/255 away from one, far more than float rounding can
+ * move it. Saturation is range tested on the quotient directly, hue is
+ * truncated by rounding q - 0.499 (towards zero) with the 1.5 * 2^23 trick.
+ * Lanes left over at the end of a range go through HsvThreshold itself.
+ *
+ * The JIT only turns Vector API calls into vector instructions when the
+ * species are constants, so they are static finals at the JVM's preferred
+ * width. -XX:MaxVectorSize picks a narrower one; SimdBenchmark uses that to
+ * measure every width.
+ */
+public class VectorHsvKernel implements ThresholdKernel {
+
+    //ADDING AND SUBTRACTING THIS ROUNDS A FLOAT UNDER 2^22 TO AN INTEGER
+    private static final float ROUND = 12582912f;
+    private static final float TRUNCATE = 0.499f;
+
+    static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+    //SPREAD[b] HAS BIT k OF b IN BYTE k, SO 8 LANES OF A MASK GO OUT AS ONE LONG
+    private static final long[] SPREAD = new long[256];
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            for (int k = 0; k < 8; k++) {
+                SPREAD[b] |= (long) (b >>> k & 1) << (8 * k);
+            }
+        }
+    }
+
+    @Override
+    public void threshold(Frame frame, VisionConfig config, byte[] mask, int from, int to) {
+        int[] pixels = frame.pixels;
+        int lanes = INTS.length();
+        int valLow = config.valLow, valHigh = config.valHigh;
+        float satLow = config.satLow, satLimit = config.satHigh + 1;
+        float hueLow = config.hueLow, hueHigh = config.hueHigh;
+
+        int i = from;
+        for (; i <= to - lanes; i += lanes) {
+            IntVector p = IntVector.fromArray(INTS, pixels, i);
+            FloatVector r = channel(p.lanewise(VectorOperators.LSHR, 16));
+            FloatVector g = channel(p.lanewise(VectorOperators.LSHR, 8));
+            FloatVector b = channel(p);
+
+            FloatVector max = r.max(g).max(b);
+            VectorMask<Float> in = max.compare(VectorOperators.GE, valLow)
+                    .and(max.compare(VectorOperators.LE, valHigh));
+            if (!in.anyTrue()) {
+                store(0, mask, i);
+                continue;
+            }
+            FloatVector delta = max.sub(r.min(g).min(b));
+
+            //sat = 255 * delta / max, 0 WHEN max IS 0
+            FloatVector sat = delta.mul(255f).div(max).blend(0f, max.eq(0f));
+            in = in.and(sat.compare(VectorOperators.GE, satLow)).and(sat.compare(VectorOperators.LT, satLimit));
+
+            //SAME SECTOR ORDER AS HsvThreshold.hue(): RED, THEN GREEN, THEN BLUE
+            VectorMask<Float> isR = max.eq(r);
+            VectorMask<Float> isG = max.eq(g).and(r.lt(max));
+            FloatVector num = r.sub(g).blend(b.sub(r), isG).blend(g.sub(b), isR).mul(43f);
+            FloatVector base = FloatVector.broadcast(FLOATS, 171f).blend(85f, isG).blend(0f, isR);
+            FloatVector q = num.div(delta);
+            FloatVector toward = FloatVector.broadcast(FLOATS, TRUNCATE).blend(-TRUNCATE, q.lt(0f));
+            FloatVector hue = q.sub(toward).add(ROUND).sub(ROUND).add(base);
+            hue = hue.blend(hue.add(256f), hue.lt(0f)).blend(0f, delta.eq(0f));
+            VectorMask<Float> hueIn = hue.compare(VectorOperators.GE, hueLow)
+                    .and(hue.compare(VectorOperators.LE, hueHigh));
+            store(in.and(hueIn).toLong(), mask, i);
+        }
+        if (i < to) {
+            HsvThreshold.threshold(frame, config, mask, i, to);
+        }
+    }
+
+    //ONE 8 BIT CHANNEL, AS FLOATS
+    private static FloatVector channel(IntVector shifted) {
+        return (FloatVector) shifted.and(0xFF).convertShape(VectorOperators.I2F, FLOATS, 0);
+    }
+
+    //ONE MASK BYTE PER LANE, 0 OR 1
+    private static void store(long bits, byte[] mask, int i) {
+        int k = 0;
+        for (; k + 8 <= INTS.length(); k += 8) {
+            LONGS.set(mask, i + k, SPREAD[(int) (bits >>> k) & 0xFF]);
+        }
+        for (; k < INTS.length(); k++) {
+            mask[i + k] = (byte) (bits >>> k & 1);
+        }
+    }
+
+    public int getBits() {
+        return INTS.vectorBitSize();
+    }
+
+    @Override
+    public String toString() {
+        return "vector HSV " + getBits() + " bit";
+    }
+}
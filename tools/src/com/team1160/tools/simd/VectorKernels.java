@@ -0,0 +1,16 @@
+package com.team1160.tools.simd;
+
+/**
+ * Factories for the vector kernels. Only touched through SimdKernels once it
+ * knows the Vector API module is loaded.
+ */
+public class VectorKernels {
+
+    public static VectorHsvKernel threshold() {
+        return new VectorHsvKernel();
+    }
+
+    public static VectorMaskScanner scanner() {
+        return new VectorMaskScanner();
+    }
+}
@@ -0,0 +1,52 @@
+package com.team1160.tools.simd;
+
+import com.team1160.assistant.vision.MaskScanner;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Finds run edges in a mask row a vector of bytes at a time: one compare
+ * tests up to 64 pixels and the run edge is its first true lane. Long
+ * stretches of background, which most of a frame is, cost one load per
+ * vector instead of one per pixel.
+ */
+public class VectorMaskScanner implements MaskScanner {
+
+    //A CONSTANT SO THE JIT COMPILES IT TO VECTOR CODE
+    static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    public int next(byte[] mask, int row, int x, int x1, boolean set) {
+        int lanes = BYTES.length();
+        //ONE LOOP PER CASE, THE COMPARISON HAS TO BE A CONSTANT TOO
+        if (set) {
+            for (; x <= x1 - lanes; x += lanes) {
+                int first = ByteVector.fromArray(BYTES, mask, row + x).compare(VectorOperators.NE, 0).firstTrue();
+                if (first < lanes) {
+                    return x + first;
+                }
+            }
+        } else {
+            for (; x <= x1 - lanes; x += lanes) {
+                int first = ByteVector.fromArray(BYTES, mask, row + x).compare(VectorOperators.EQ, 0).firstTrue();
+                if (first < lanes) {
+                    return x + first;
+                }
+            }
+        }
+        while (x < x1 && (mask[row + x] != 0) != set) {
+            x++;
+        }
+        return x;
+    }
+
+    public int getBits() {
+        return BYTES.vectorBitSize();
+    }
+
+    @Override
+    public String toString() {
+        return "vector mask scan " + BYTES.vectorBitSize() + " bit";
+    }
+}
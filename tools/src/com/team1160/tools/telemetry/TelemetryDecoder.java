@@ -0,0 +1,139 @@
+package com.team1160.tools.telemetry;
+
+import com.team1160.assistant.util.Telemetry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Turns the packets Telemetry sends back into samples. Batches that arrive
+ * before the first schema can't be decoded and are only counted; gaps in the
+ * batch numbers are counted as packets lost on the way.
+ */
+public class TelemetryDecoder {
+
+    public interface Listener {
+
+        /**
+         * Called for every sample in a batch, in order. values is reused for
+         * the next sample.
+         */
+        void sample(String[] names, long timestamp, float[] values);
+
+        //A NEW OR CHANGED SCHEMA ARRIVED
+        default void schema(String[] names) {
+        }
+    }
+
+    private final Listener listener;
+    private String[] names;
+    private float[] values = new float[0];
+    private long lastBatch = -1;
+
+    private long batches;
+    private long samples;
+    private long lost;
+    private long undecodable;
+    private long robotDropped;
+    private long latest;
+
+    public TelemetryDecoder(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Decodes one packet.
+     *
+     * @return False if it was not a telemetry packet
+     */
+    public boolean decode(byte[] data, int length) {
+        ByteBuffer in = ByteBuffer.wrap(data, 0, length);
+        if (length < 4 || (in.get() & 0xFF) != Telemetry.MAGIC) {
+            return false;
+        }
+        int type = in.get();
+        int channels = in.getShort() & 0xFFFF;
+        if (type == Telemetry.SCHEMA) {
+            schema(in, channels);
+            return true;
+        }
+        if (type != Telemetry.BATCH || length < Telemetry.HEADER) {
+            return false;
+        }
+
+        int rows = in.getShort() & 0xFFFF;
+        long batch = in.getInt() & 0xFFFFFFFFL;
+        long dropped = in.getInt() & 0xFFFFFFFFL;
+        long first = in.getLong();
+        if (lastBatch >= 0 && batch > lastBatch + 1) {
+            lost += batch - lastBatch - 1;
+        }
+        //A LOWER NUMBER MEANS THE ROBOT PROGRAM RESTARTED
+        lastBatch = batch;
+        batches++;
+        robotDropped = dropped;
+
+        if (names == null || names.length != channels) {
+            undecodable++;
+            return true;
+        }
+        int times = in.position();
+        int columns = times + 4 * rows;
+        for (int r = 0; r < rows; r++) {
+            long timestamp = first + in.getInt(times + 4 * r);
+            for (int c = 0; c < channels; c++) {
+                values[c] = in.getFloat(columns + 4 * (c * rows + r));
+            }
+            latest = timestamp;
+            samples++;
+            listener.sample(names, timestamp, values);
+        }
+        return true;
+    }
+
+    private void schema(ByteBuffer in, int channels) {
+        String[] n = new String[channels];
+        for (int c = 0; c < channels; c++) {
+            byte[] name = new byte[in.get() & 0xFF];
+            in.get(name);
+            n[c] = new String(name, StandardCharsets.US_ASCII);
+        }
+        if (names == null || !Arrays.equals(names, n)) {
+            names = n;
+            values = new float[channels];
+            listener.schema(n);
+        }
+    }
+
+    public String[] getNames() {
+        return names;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    //PACKETS MISSING FROM THE BATCH NUMBERS
+    public long getLost() {
+        return lost;
+    }
+
+    //BATCHES THAT CAME BEFORE ANY SCHEMA
+    public long getUndecodable() {
+        return undecodable;
+    }
+
+    //SAMPLES THE ROBOT COULDN'T QUEUE, AS OF THE LAST BATCH
+    public long getRobotDropped() {
+        return robotDropped;
+    }
+
+    //TIMESTAMP OF THE NEWEST SAMPLE, MICROSECONDS ON THE ROBOT CLOCK
+    public long getLatest() {
+        return latest;
+    }
+}
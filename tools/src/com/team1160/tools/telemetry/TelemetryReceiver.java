@@ -0,0 +1,106 @@
+package com.team1160.tools.telemetry;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.SocketTimeoutException;
+
+/**
+ * Listens for the robot's telemetry and shows the newest value of every
+ * channel once a second, with counts of packets lost on the network and
+ * samples the robot had to drop. --csv also writes every sample to a file.
+ *
+ * Run it on the driver station laptop, or anywhere with the simulator:
+ *
+ *     TelemetryReceiver 1190
+ *     HeadlessMatch 1 --telemetry localhost:1190
+ *
+ * Usage: TelemetryReceiver [port] [--csv samples.csv] [--packets n]
+ */
+public class TelemetryReceiver {
+
+    private static final int STATUS_MILLIS = 1000;
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 && !args[0].startsWith("--") ? Integer.parseInt(args[0]) : 1190;
+        String csv = null;
+        long stopAfter = Long.MAX_VALUE;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--csv")) {
+                csv = args[++i];
+            } else if (args[i].equals("--packets")) {
+                stopAfter = Long.parseLong(args[++i]);
+            }
+        }
+
+        PrintWriter out = csv != null ? new PrintWriter(csv) : null;
+        if (out != null) {
+            //THE RECEIVER IS USUALLY STOPPED WITH CTRL-C
+            Runtime.getRuntime().addShutdownHook(new Thread(out::close));
+        }
+        float[] latest = new float[64];
+        TelemetryDecoder decoder = new TelemetryDecoder(new TelemetryDecoder.Listener() {
+            @Override
+            public void sample(String[] names, long timestamp, float[] values) {
+                System.arraycopy(values, 0, latest, 0, Math.min(values.length, latest.length));
+                if (out != null) {
+                    out.print(timestamp);
+                    for (float v : values) {
+                        out.print(',');
+                        out.print(v);
+                    }
+                    out.println();
+                }
+            }
+
+            @Override
+            public void schema(String[] names) {
+                System.out.println("schema: " + String.join(", ", names));
+                if (out != null) {
+                    out.println("timestamp," + String.join(",", names));
+                }
+            }
+        });
+
+        System.out.println("listening for telemetry on udp port " + port);
+        byte[] buffer = new byte[65536];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        try (DatagramSocket socket = new DatagramSocket(port)) {
+            socket.setSoTimeout(STATUS_MILLIS);
+            long nextStatus = System.currentTimeMillis() + STATUS_MILLIS;
+            long lastSamples = 0;
+            while (decoder.getBatches() < stopAfter) {
+                try {
+                    socket.receive(packet);
+                    decoder.decode(buffer, packet.getLength());
+                } catch (SocketTimeoutException ex) {
+                }
+                long now = System.currentTimeMillis();
+                if (now >= nextStatus) {
+                    status(decoder, latest, decoder.getSamples() - lastSamples);
+                    lastSamples = decoder.getSamples();
+                    nextStatus = now + STATUS_MILLIS;
+                }
+            }
+            status(decoder, latest, decoder.getSamples() - lastSamples);
+        }
+    }
+
+    private static void status(TelemetryDecoder decoder, float[] latest, long newSamples) {
+        StringBuilder line = new StringBuilder();
+        line.append(String.format("[%.2f] %d samples/s, %d packets, %d lost, %d dropped on robot",
+                decoder.getLatest() / 1e6, newSamples, decoder.getBatches(), decoder.getLost(),
+                decoder.getRobotDropped()));
+        if (decoder.getUndecodable() > 0) {
+            line.append(", ").append(decoder.getUndecodable()).append(" before schema");
+        }
+        String[] names = decoder.getNames();
+        if (names != null && decoder.getSamples() > 0) {
+            for (int c = 0; c < names.length && c < latest.length; c++) {
+                line.append(c == 0 ? "\n  " : ", ").append(names[c]).append(' ').append(latest[c]);
+            }
+        }
+        System.out.println(line);
+    }
+}
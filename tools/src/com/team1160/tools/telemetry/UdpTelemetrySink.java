@@ -0,0 +1,43 @@
+package com.team1160.tools.telemetry;
+
+import com.team1160.assistant.util.TelemetrySink;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+
+/**
+ * Sends telemetry packets over UDP from a desktop JVM, so the simulator can
+ * stream to TelemetryReceiver the same way the robot does.
+ */
+public class UdpTelemetrySink implements TelemetrySink {
+
+    private final DatagramSocket socket;
+    private final DatagramPacket packet;
+
+    public UdpTelemetrySink(InetSocketAddress address) throws SocketException {
+        socket = new DatagramSocket();
+        packet = new DatagramPacket(new byte[0], 0, address);
+    }
+
+    /**
+     * @param hostPort For example "localhost:1190"
+     */
+    public static UdpTelemetrySink parse(String hostPort) throws SocketException {
+        int colon = hostPort.lastIndexOf(':');
+        return new UdpTelemetrySink(new InetSocketAddress(hostPort.substring(0, colon),
+                Integer.parseInt(hostPort.substring(colon + 1))));
+    }
+
+    @Override
+    public void send(byte[] data, int length) throws IOException {
+        packet.setData(data, 0, length);
+        socket.send(packet);
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+}
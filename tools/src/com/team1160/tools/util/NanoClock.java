@@ -0,0 +1,20 @@
+package com.team1160.tools.util;
+
+import com.team1160.assistant.util.Clock;
+
+/**
+ * Microsecond clock from System.nanoTime() for the desktop tools. The robot
+ * code defaults to milliseconds off the cRIO, which is too coarse to profile.
+ */
+public class NanoClock extends Clock {
+
+    private static final long ORIGIN = System.nanoTime();
+
+    public long now() {
+        return (System.nanoTime() - ORIGIN) / 1000;
+    }
+
+    public static void install() {
+        Clock.setSource(new NanoClock());
+    }
+}
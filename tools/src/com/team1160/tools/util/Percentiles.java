@@ -0,0 +1,59 @@
+package com.team1160.tools.util;
+
+import java.util.Arrays;
+
+/**
+ * Collects raw samples and reports exact percentiles. Only for offline tools,
+ * the robot uses LatencyHistogram-style fixed memory instead.
+ */
+public class Percentiles {
+
+    private long[] samples;
+    private int count;
+
+    public Percentiles(int expected) {
+        samples = new long[Math.max(16, expected)];
+    }
+
+    public void add(long sample) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = sample;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @param p Percentile between 0 and 100
+     */
+    public long percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    public double mean() {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * One line summary, samples are assumed to be nanoseconds and printed as
+     * microseconds.
+     */
+    public String summary() {
+        return String.format("n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus",
+                count, mean() / 1e3, percentile(50) / 1e3, percentile(90) / 1e3,
+                percentile(99) / 1e3, percentile(100) / 1e3);
+    }
+}
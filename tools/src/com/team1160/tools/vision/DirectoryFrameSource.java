@@ -0,0 +1,90 @@
+package com.team1160.tools.vision;
+
+import com.team1160.assistant.util.Clock;
+import com.team1160.assistant.vision.BufferFrameSource;
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.FrameSource;
+import com.team1160.assistant.vision.FrameSourceException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Serves the PPM images in a directory in file name order, reading each one
+ * from disk when it is asked for. Use load() instead to pull everything into
+ * memory first when the disk should stay out of the timing.
+ */
+public class DirectoryFrameSource implements FrameSource {
+
+    private final File[] files;
+    private final int width;
+    private final int height;
+    private int next;
+    private long sequence;
+
+    public DirectoryFrameSource(String directory) throws IOException {
+        files = list(directory);
+        PpmImage first = PpmImage.read(files[0].getPath());
+        width = first.width;
+        height = first.height;
+    }
+
+    public static File[] list(String directory) throws IOException {
+        File[] files = new File(directory).listFiles((dir, name) -> name.toLowerCase().endsWith(".ppm"));
+        if (files == null || files.length == 0) {
+            throw new IOException("no .ppm files in " + directory);
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * Reads every image in the directory into an in-memory source.
+     */
+    public static BufferFrameSource load(String directory, boolean loop) throws IOException {
+        File[] files = list(directory);
+        BufferFrameSource source = null;
+        for (File file : files) {
+            PpmImage image = PpmImage.read(file.getPath());
+            if (source == null) {
+                source = new BufferFrameSource(image.width, image.height, loop);
+            }
+            source.addFrame(image.pixels);
+        }
+        return source;
+    }
+
+    public String getName(int sequence) {
+        return files[sequence % files.length].getName();
+    }
+
+    public boolean nextFrame(Frame frame) throws FrameSourceException {
+        if (next >= files.length) {
+            return false;
+        }
+        try {
+            PpmImage image = PpmImage.read(files[next++].getPath());
+            if (image.width != width || image.height != height) {
+                throw new FrameSourceException(files[next - 1] + " is " + image.width + "x" + image.height
+                        + ", expected " + width + "x" + height);
+            }
+            System.arraycopy(image.pixels, 0, frame.pixels, 0, image.pixels.length);
+        } catch (IOException ex) {
+            throw new FrameSourceException(ex.toString());
+        }
+        frame.sequence = sequence++;
+        frame.timestamp = Clock.micros();
+        return true;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void close() {
+    }
+}
@@ -0,0 +1,66 @@
+package com.team1160.tools.vision;
+
+import com.team1160.assistant.vision.VisionCamera;
+import com.team1160.assistant.vision.VisionConfig;
+import com.team1160.assistant.vision.VisionManager;
+import com.team1160.tools.util.NanoClock;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Runs several cameras through one VisionManager and shows how they share its
+ * workers: frames per second for each camera, the total, and CPU time used.
+ * Every camera gets its own copy of the input, all of it in memory, so the
+ * numbers are the vision code alone. Total throughput is set by the worker
+ * count, not the camera count.
+ *
+ * Usage: MultiCameraProfile [cameras] [workers] [seconds] [ppm directory | synthetic:WxH]
+ */
+public class MultiCameraProfile {
+
+    public static void main(String[] args) throws Exception {
+        NanoClock.install();
+        int cameras = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+        String input = args.length > 3 ? args[3] : "synthetic";
+
+        VisionManager manager = null;
+        for (int i = 0; i < cameras; i++) {
+            VisionCamera camera = new VisionCamera("camera " + i, VisionProfile.open(input), new VisionConfig());
+            if (manager == null) {
+                manager = new VisionManager(workers, camera.getSource().getWidth(), camera.getSource().getHeight());
+            }
+            manager.addCamera(camera);
+        }
+        int width = manager.getCamera(0).getSource().getWidth(), height = manager.getCamera(0).getSource().getHeight();
+        System.out.printf("%d cameras on %d workers, %dx%d, %d KB of shared frame buffers%n", cameras, workers,
+                width, height, workers * width * height * 4 / 1024);
+
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        manager.start();
+        for (int i = 0; i < cameras; i++) {
+            manager.getCamera(i).start();
+        }
+        //THE FIRST SECOND WARMS THE JIT
+        Thread.sleep(1000);
+        int[] start = new int[cameras];
+        for (int i = 0; i < cameras; i++) {
+            start[i] = manager.getCamera(i).getFrames();
+        }
+        long cpu0 = os.getProcessCpuTime(), t0 = System.nanoTime();
+        Thread.sleep((long) (seconds * 1000));
+        long cpu = os.getProcessCpuTime() - cpu0, wall = System.nanoTime() - t0;
+        manager.stop();
+
+        int total = 0;
+        for (int i = 0; i < cameras; i++) {
+            VisionCamera camera = manager.getCamera(i);
+            int frames = camera.getFrames() - start[i];
+            total += frames;
+            System.out.printf("  %s: %.1f fps, found %s%n", camera.getName(), frames / (wall / 1e9),
+                    camera.getLatest().found);
+        }
+        System.out.printf("total %.1f fps, %.2f cores busy%n", total / (wall / 1e9), (double) cpu / wall);
+    }
+}
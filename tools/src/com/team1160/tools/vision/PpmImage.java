@@ -0,0 +1,95 @@
+package com.team1160.tools.vision;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Reads and writes binary PPM (P6) images as packed 0x00RRGGBB pixels, the
+ * layout Frame uses. PPM is what the recorder writes and what any image tool
+ * can convert camera dumps into.
+ */
+public class PpmImage {
+
+    public final int width;
+    public final int height;
+    public final int[] pixels;
+
+    public PpmImage(int width, int height, int[] pixels) {
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    public static PpmImage read(String path) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(path))) {
+            return read(in);
+        }
+    }
+
+    public static PpmImage read(InputStream in) throws IOException {
+        if (in.read() != 'P' || in.read() != '6') {
+            throw new IOException("not a binary PPM (P6)");
+        }
+        int width = readHeaderInt(in);
+        int height = readHeaderInt(in);
+        int maxval = readHeaderInt(in);
+        if (maxval != 255) {
+            throw new IOException("only 8 bit PPM is supported, maxval " + maxval);
+        }
+        byte[] raw = new byte[width * height * 3];
+        int off = 0;
+        while (off < raw.length) {
+            int n = in.read(raw, off, raw.length - off);
+            if (n < 0) {
+                throw new EOFException("PPM truncated at byte " + off);
+            }
+            off += n;
+        }
+        int[] pixels = new int[width * height];
+        for (int i = 0, b = 0; i < pixels.length; i++, b += 3) {
+            pixels[i] = ((raw[b] & 0xFF) << 16) | ((raw[b + 1] & 0xFF) << 8) | (raw[b + 2] & 0xFF);
+        }
+        return new PpmImage(width, height, pixels);
+    }
+
+    //HEADER FIELDS ARE WHITESPACE SEPARATED, # STARTS A COMMENT
+    private static int readHeaderInt(InputStream in) throws IOException {
+        int c = in.read();
+        while (c == '#' || Character.isWhitespace(c)) {
+            if (c == '#') {
+                while (c != '\n' && c != -1) {
+                    c = in.read();
+                }
+            }
+            c = in.read();
+        }
+        int value = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            c = in.read();
+        }
+        return value;
+    }
+
+    public static void write(String path, int width, int height, int[] pixels) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(path))) {
+            out.write(("P6\n" + width + " " + height + "\n255\n").getBytes("US-ASCII"));
+            byte[] row = new byte[width * 3];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0, b = 0; x < width; x++, b += 3) {
+                    int p = pixels[y * width + x];
+                    row[b] = (byte) (p >> 16);
+                    row[b + 1] = (byte) (p >> 8);
+                    row[b + 2] = (byte) p;
+                }
+                out.write(row);
+            }
+        }
+    }
+}
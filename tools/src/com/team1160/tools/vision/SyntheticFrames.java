@@ -0,0 +1,99 @@
+package com.team1160.tools.vision;
+
+import java.util.Random;
+
+/**
+ * Draws fake camera frames with the 2014 goal tape in them so the tools and
+ * benchmarks have something to chew on without recorded footage. The tape is
+ * drawn in a colour inside the default HSV threshold, the background is dark
+ * noise outside it.
+ */
+public class SyntheticFrames {
+
+    //HUE 160, SATURATION 199, VALUE 220 ON NI'S 0-255 SCALE
+    public static final int TAPE = 0x305CDC;
+
+    /**
+     * @param hot True to put the horizontal tape next to the vertical one
+     * @param clutter Number of extra random blobs in the tape colour
+     */
+    public static int[] scene(int width, int height, boolean hot, int clutter, long seed) {
+        Random rand = new Random(seed);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            int v = 20 + rand.nextInt(40);
+            pixels[i] = (v << 16) | (v << 8) | v;
+        }
+
+        int vertLeft = width / 2 + rand.nextInt(Math.max(1, width / 8));
+        int vertTop = height / 4 + rand.nextInt(Math.max(1, height / 8));
+        goal(pixels, width, height, vertLeft, vertTop, hot);
+        clutter(pixels, width, height, 0, clutter, rand);
+        return pixels;
+    }
+
+    /**
+     * A goal drifting across the frame the way it does while the robot turns,
+     * hot for the first half of the frames and not hot for the rest. The
+     * clutter stays put, the background noise changes every frame.
+     */
+    public static int[][] sequence(int width, int height, int frames, int clutter, long seed) {
+        Random rand = new Random(seed);
+        int[][] out = new int[frames][];
+        int[] background = new int[width * height];
+        //CLUTTER BELOW THE GOAL SO IT NEVER RUNS INTO IT
+        clutter(background, width, height, height * 5 / 8, clutter, rand);
+        int vertLeft = width / 4, vertTop = height / 4;
+        for (int f = 0; f < frames; f++) {
+            int[] pixels = background.clone();
+            for (int i = 0; i < pixels.length; i++) {
+                if (pixels[i] == 0) {
+                    int v = 20 + rand.nextInt(40);
+                    pixels[i] = (v << 16) | (v << 8) | v;
+                }
+            }
+            //A FEW PIXELS A FRAME, BOUNCING BETWEEN A QUARTER AND THREE QUARTERS ACROSS
+            int span = Math.max(1, width / 2);
+            int step = f * Math.max(1, width / 160) % (2 * span);
+            int x = vertLeft + (step < span ? step : 2 * span - step);
+            goal(pixels, width, height, x, vertTop + (f % 4) - 2, f < frames / 2);
+            out[f] = pixels;
+        }
+        return out;
+    }
+
+    /**
+     * Draws the vertical tape with its top left corner at vertLeft, vertTop and
+     * the horizontal tape next to it when hot.
+     */
+    public static void goal(int[] pixels, int width, int height, int vertLeft, int vertTop, boolean hot) {
+        //SIZES SCALE WITH RESOLUTION, 320x240 IS THE REFERENCE
+        double s = height / 240.0;
+        int vertW = (int) Math.max(2, 8 * s), vertH = (int) (64 * s);
+        int horizW = (int) (47 * s), horizH = (int) Math.max(2, 8 * s);
+        rect(pixels, width, height, vertLeft, vertTop, vertW, vertH, TAPE);
+
+        if (hot) {
+            //CENTER OF MASS WHERE THE LEFT AND VERTICAL SCORES PEAK
+            int horizCx = (int) (vertLeft - horizW / 1.2);
+            rect(pixels, width, height, horizCx - horizW / 2, vertTop - horizH / 2, horizW, horizH, TAPE);
+        }
+    }
+
+    private static void clutter(int[] pixels, int width, int height, int top, int clutter, Random rand) {
+        double s = height / 240.0;
+        for (int i = 0; i < clutter; i++) {
+            int w = 4 + rand.nextInt((int) (20 * s) + 1);
+            int h = 4 + rand.nextInt((int) (20 * s) + 1);
+            rect(pixels, width, height, rand.nextInt(width), top + rand.nextInt(height - top), w, h, TAPE);
+        }
+    }
+
+    public static void rect(int[] pixels, int width, int height, int left, int top, int w, int h, int colour) {
+        for (int y = Math.max(0, top); y < Math.min(height, top + h); y++) {
+            for (int x = Math.max(0, left); x < Math.min(width, left + w); x++) {
+                pixels[y * width + x] = colour;
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.team1160.tools.vision;
+
+import com.team1160.assistant.vision.ColorTable;
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.FrameSource;
+import com.team1160.assistant.vision.HsvThreshold;
+import com.team1160.assistant.vision.Target;
+import com.team1160.assistant.vision.ThresholdKernel;
+import com.team1160.assistant.vision.VisionConfig;
+import com.team1160.assistant.vision.VisionPipeline;
+import com.team1160.tools.bench.Bench;
+import com.team1160.tools.util.NanoClock;
+
+/**
+ * Compares per-pixel HSV thresholding against the ColorTable lookups: how
+ * long a table takes to build, how fast each thresholds a frame, how many
+ * colours and frame pixels the 5-6-5 table gets wrong, and whether the
+ * pipeline still finds the same targets.
+ *
+ * Usage: ThresholdBenchmark [frame directory | synthetic:WxH] [warmup ms] [measure ms]
+ */
+public class ThresholdBenchmark {
+
+    private static final int FRAMES = 64;
+    private static final int BUILDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        NanoClock.install();
+        String input = args.length > 0 ? args[0] : "synthetic";
+        FrameSource source = VisionProfile.open(input);
+        Frame[] frames = new Frame[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            frames[i] = new Frame(source.getWidth(), source.getHeight());
+            source.nextFrame(frames[i]);
+        }
+        VisionConfig config = new VisionConfig();
+
+        ColorTable rgb565 = new ColorTable(ColorTable.RGB565);
+        ColorTable rgb888 = new ColorTable(ColorTable.RGB888);
+        buildTimes(rgb565, config);
+        buildTimes(rgb888, config);
+        rgb565.update(config);
+        rgb888.update(config);
+
+        //EVERY 24 BIT COLOUR, THE 888 TABLE IS EXACT BY CONSTRUCTION
+        long wrongColours = 0;
+        for (int c = 0; c < 1 << 24; c++) {
+            if (rgb565.contains(c) != rgb888.contains(c)) {
+                wrongColours++;
+            }
+        }
+        System.out.printf("5-6-5 classifies %d of %d colours differently (%.3f%%)%n", wrongColours, 1 << 24,
+                100.0 * wrongColours / (1 << 24));
+        System.out.printf("frame pixels different from per-pixel: 5-6-5 %.4f%%, 24 bit %.4f%%%n",
+                mismatch(frames, config, rgb565), mismatch(frames, config, rgb888));
+        for (int bits : new int[] {0, ColorTable.RGB565, ColorTable.RGB888}) {
+            detections(frames, config, bits);
+        }
+
+        Bench bench = Bench.fromArgs(args, 1);
+        String param = source.getWidth() + "x" + source.getHeight();
+        byte[] mask = new byte[frames[0].pixels.length];
+        double base = bench.run("per-pixel HSV", param, ops -> run(HsvThreshold.KERNEL, frames, config, mask, ops))
+                .nanosPerOp;
+        double a = bench.run("table 5-6-5", param, ops -> run(rgb565, frames, config, mask, ops)).nanosPerOp;
+        double b = bench.run("table 24 bit", param, ops -> run(rgb888, frames, config, mask, ops)).nanosPerOp;
+        System.out.printf("speedup over per-pixel: 5-6-5 %.2fx, 24 bit %.2fx%n", base / a, base / b);
+    }
+
+    //NUDGES THE HUE SO EVERY BUILD IS A REAL REBUILD
+    private static void buildTimes(ColorTable table, VisionConfig config) {
+        VisionConfig c = config.copy();
+        long total = 0;
+        for (int i = 0; i < BUILDS; i++) {
+            c.hueLow = config.hueLow + (i & 1);
+            table.update(c);
+            total += table.getBuildMicros();
+        }
+        System.out.printf("%d bit table: %.1f ms per build%n", table.getBits(), total / 1e3 / BUILDS);
+    }
+
+    private static double mismatch(Frame[] frames, VisionConfig config, ThresholdKernel kernel) {
+        byte[] exact = new byte[frames[0].pixels.length];
+        byte[] mask = new byte[exact.length];
+        long wrong = 0, total = 0;
+        for (Frame frame : frames) {
+            HsvThreshold.threshold(frame, config, exact);
+            kernel.threshold(frame, config, mask, 0, mask.length);
+            for (int i = 0; i < mask.length; i++) {
+                if (mask[i] != exact[i]) {
+                    wrong++;
+                }
+            }
+            total += mask.length;
+        }
+        return 100.0 * wrong / total;
+    }
+
+    private static void detections(Frame[] frames, VisionConfig config, int bits) {
+        VisionConfig c = config.copy();
+        c.colorTableBits = bits;
+        c.roiEnabled = false;
+        VisionPipeline pipeline = new VisionPipeline(c, frames[0].width, frames[0].height);
+        int found = 0, hot = 0;
+        double score = 0;
+        for (Frame frame : frames) {
+            Target t = pipeline.process(frame);
+            if (t.found) {
+                found++;
+                score += t.totalScore;
+                if (t.Hot) {
+                    hot++;
+                }
+            }
+        }
+        System.out.printf("%-9s found %d, hot %d, mean score %.2f%n", bits == 0 ? "per-pixel" : bits + " bit",
+                found, hot, found > 0 ? score / found : 0);
+    }
+
+    private static long run(ThresholdKernel kernel, Frame[] frames, VisionConfig config, byte[] mask, int ops) {
+        long s = 0;
+        for (int k = 0; k < ops; k++) {
+            Frame frame = frames[k % frames.length];
+            kernel.threshold(frame, config, mask, 0, mask.length);
+            s += mask[k % mask.length];
+        }
+        return s;
+    }
+}
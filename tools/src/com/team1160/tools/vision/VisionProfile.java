@@ -0,0 +1,83 @@
+package com.team1160.tools.vision;
+
+import com.team1160.assistant.vision.BufferFrameSource;
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.FrameSource;
+import com.team1160.assistant.vision.Target;
+import com.team1160.assistant.vision.VisionConfig;
+import com.team1160.assistant.vision.VisionPipeline;
+import com.team1160.tools.simd.SimdKernels;
+import com.team1160.tools.util.NanoClock;
+import com.team1160.tools.util.Percentiles;
+
+/**
+ * Runs frames through VisionPipeline on a desktop machine and reports frames
+ * per second and per-frame latency. Pass noroi to scan every frame in full.
+ *
+ * Usage: VisionProfile [frame directory | synthetic WxH] [frames] [warmup] [noroi]
+ */
+public class VisionProfile {
+
+    public static void main(String[] args) throws Exception {
+        NanoClock.install();
+        String input = args.length > 0 ? args[0] : "synthetic";
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int warmup = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        VisionConfig config = new VisionConfig();
+        config.roiEnabled = !(args.length > 3 && args[3].equals("noroi"));
+
+        FrameSource source = open(input);
+        VisionPipeline pipeline = new VisionPipeline(config, source.getWidth(), source.getHeight());
+        System.out.println(SimdKernels.install(pipeline));
+        Frame frame = new Frame(source.getWidth(), source.getHeight());
+
+        for (int i = 0; i < warmup && source.nextFrame(frame); i++) {
+            pipeline.process(frame);
+        }
+
+        Percentiles latency = new Percentiles(frames);
+        int found = 0, hot = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < frames && source.nextFrame(frame); i++) {
+            long t0 = System.nanoTime();
+            Target target = pipeline.process(frame);
+            latency.add(System.nanoTime() - t0);
+            if (target.found) {
+                found++;
+                if (target.Hot) {
+                    hot++;
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%dx%d, %d frames in %.3fs: %.1f fps%n", source.getWidth(), source.getHeight(),
+                latency.count(), seconds, latency.count() / seconds);
+        System.out.println("latency " + latency.summary());
+        System.out.println("targets found " + found + ", hot " + hot);
+        System.out.println("full scans " + pipeline.getFullScans() + ", window scans " + pipeline.getWindowScans());
+    }
+
+    /**
+     * Opens either a directory of PPM files, loaded into memory and looped, or
+     * "synthetic" / "synthetic:WxH" for generated frames.
+     */
+    public static FrameSource open(String input) throws Exception {
+        if (input.startsWith("synthetic")) {
+            int width = 320, height = 240;
+            int colon = input.indexOf(':');
+            if (colon > 0) {
+                String[] size = input.substring(colon + 1).split("x");
+                width = Integer.parseInt(size[0]);
+                height = Integer.parseInt(size[1]);
+            }
+            BufferFrameSource source = new BufferFrameSource(width, height, true);
+            for (int[] pixels : SyntheticFrames.sequence(width, height, 64, 6, 1)) {
+                source.addFrame(pixels);
+            }
+            return source;
+        }
+        return DirectoryFrameSource.load(input, true);
+    }
+}
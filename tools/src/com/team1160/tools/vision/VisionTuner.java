@@ -0,0 +1,449 @@
+package com.team1160.tools.vision;
+
+import com.team1160.assistant.RobotMap;
+import com.team1160.assistant.vision.BufferFrameSource;
+import com.team1160.assistant.vision.ColorTable;
+import com.team1160.assistant.vision.Frame;
+import com.team1160.assistant.vision.HsvThreshold;
+import com.team1160.assistant.vision.Target;
+import com.team1160.assistant.vision.VisionConfig;
+import com.team1160.assistant.vision.VisionPipeline;
+import com.team1160.tools.replay.CaptureFile;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Tunes the vision threshold, area minimum and score limits against a set of
+ * labelled frames, on every core, and writes the best settings as a config
+ * file the robot reads over RobotMap (RobotMap.VISION_CONFIG_FILE).
+ *
+ * The candidates are every combination of some HSV ranges, a few area
+ * minimums and some sets of score limits, drawn at random within the ranges
+ * below. HSV set 0 and limit set 0 are always the current RobotMap values,
+ * for comparison. Work is split by HSV range: each range thresholds every
+ * frame once and keeps the masks, labels them once per area minimum and
+ * only rescores for each set of limits. Ranges share nothing and run on a
+ * ForkJoinPool, results go into primitive arrays indexed by candidate.
+ *
+ * A candidate gets a frame right when it finds a target on exactly the
+ * frames labelled found, and calls it hot on exactly those labelled hot.
+ * Candidates rank by frames right and then by what they cost per frame:
+ * the threshold, labeling and scoring time measured while they ran. Frames
+ * are taken one at a time, without the region of interest or fusion.
+ *
+ * Labels are a text file with a "frame found hot" line per labelled frame,
+ * frames numbered from 0 in the order the capture or the sorted directory
+ * gives them, found and hot 0 or 1, # for comments. Frames without a label
+ * are skipped. "synthetic" draws its own labelled frames: a third without
+ * the goal, a third not hot and a third hot, with tape-coloured clutter and
+ * blobs just outside the default hue range.
+ *
+ * Usage: VisionTuner [capture.cap | ppm directory] [labels] [--hsv n] [--limits n] [--areas a,b,...] [--threads n] [--seed n] [--top n] [--out vision.cfg]
+ *        VisionTuner synthetic[:WxH[:frames]] [--hsv n] ...
+ */
+public class VisionTuner {
+
+    static final String[] HSV_NAMES = {"hueLow", "hueHigh", "satLow", "satHigh", "valLow", "valHigh"};
+    static final int[] HSV_LOW = {96, 150, 0, 200, 40, 200};
+    static final int[] HSV_HIGH = {170, 230, 150, 255, 200, 255};
+    static final int HSV = HSV_NAMES.length;
+
+    static final String[] LIMIT_NAMES = {"rectangularity", "aspectRatio", "tapeWidth", "verticalScore", "lrScore"};
+    static final double LIMIT_LOW = 20, LIMIT_HIGH = 80;
+    static final int LIMITS = LIMIT_NAMES.length;
+
+    //BLUE-GREEN JUST BELOW THE TAPE'S HUE, 125 ON NI'S SCALE
+    static final int DISTRACTOR = 0x28DCCF;
+
+    final int width, height;
+    final int[][] frames;
+    final boolean[] found, hot;
+    final int ranges, areaCount, limitSets;
+    final int[] hsv;
+    final int[] areas;
+    final double[] limits;
+
+    //PER CANDIDATE, (range * areaCount + area) * limitSets + limitSet
+    final int[] right;
+    final long[] costNanos;
+    //PER RANGE, AND PER RANGE AND AREA
+    final long[] thresholdNanos;
+    final long[] labelNanos;
+
+    VisionTuner(int width, int height, int[][] frames, boolean[] found, boolean[] hot, int ranges, int[] areas,
+            int limitSets, long seed) {
+        this.width = width;
+        this.height = height;
+        this.frames = frames;
+        this.found = found;
+        this.hot = hot;
+        this.ranges = ranges;
+        this.areas = areas;
+        this.areaCount = areas.length;
+        this.limitSets = limitSets;
+        hsv = new int[ranges * HSV];
+        limits = new double[limitSets * LIMITS];
+        right = new int[ranges * areaCount * limitSets];
+        costNanos = new long[right.length];
+        thresholdNanos = new long[ranges];
+        labelNanos = new long[ranges * areaCount];
+
+        Random rand = new Random(seed);
+        VisionConfig defaults = new VisionConfig();
+        int[] current = {defaults.hueLow, defaults.hueHigh, defaults.satLow, defaults.satHigh, defaults.valLow,
+            defaults.valHigh};
+        System.arraycopy(current, 0, hsv, 0, HSV);
+        for (int r = 1; r < ranges; r++) {
+            for (int d = 0; d < HSV; d++) {
+                hsv[r * HSV + d] = HSV_LOW[d] + rand.nextInt(HSV_HIGH[d] - HSV_LOW[d] + 1);
+            }
+        }
+        double[] currentLimits = {defaults.rectangularityLimit, defaults.aspectRatioLimit, defaults.tapeWidthLimit,
+            defaults.verticalScoreLimit, defaults.lrScoreLimit};
+        System.arraycopy(currentLimits, 0, limits, 0, LIMITS);
+        for (int l = 1; l < limitSets; l++) {
+            for (int d = 0; d < LIMITS; d++) {
+                //WHOLE NUMBERS, LIKE THE HAND TUNED ONES
+                limits[l * LIMITS + d] = Math.floor(LIMIT_LOW + rand.nextDouble() * (LIMIT_HIGH - LIMIT_LOW + 1));
+            }
+        }
+    }
+
+    int candidates() {
+        return right.length;
+    }
+
+    int candidate(int range, int area, int limitSet) {
+        return (range * areaCount + area) * limitSets + limitSet;
+    }
+
+    VisionConfig config(int c) {
+        int l = c % limitSets, a = c / limitSets % areaCount, r = c / limitSets / areaCount;
+        VisionConfig config = new VisionConfig();
+        config.roiEnabled = false;
+        setHsv(config, r);
+        config.areaMinimum = areas[a];
+        setLimits(config, l);
+        return config;
+    }
+
+    private void setHsv(VisionConfig config, int r) {
+        int o = r * HSV;
+        config.hueLow = hsv[o];
+        config.hueHigh = hsv[o + 1];
+        config.satLow = hsv[o + 2];
+        config.satHigh = hsv[o + 3];
+        config.valLow = hsv[o + 4];
+        config.valHigh = hsv[o + 5];
+    }
+
+    private void setLimits(VisionConfig config, int l) {
+        int o = l * LIMITS;
+        config.rectangularityLimit = limits[o];
+        config.aspectRatioLimit = limits[o + 1];
+        config.tapeWidthLimit = limits[o + 2];
+        config.verticalScoreLimit = limits[o + 3];
+        config.lrScoreLimit = limits[o + 4];
+    }
+
+    /**
+     * Every candidate with HSV range r: one threshold per frame, one labeling
+     * per frame and area minimum, one scoring per frame and candidate.
+     */
+    void tuneRange(int r) {
+        VisionConfig config = config(candidate(r, 0, 0));
+        Frame frame = new Frame(width, height);
+        byte[][] masks = new byte[frames.length][width * height];
+        //THE ROBOT BUILDS ITS TABLE ONCE, SO THE BUILD ISN'T PART OF THE COST
+        ColorTable table = config.colorTableBits == 0 ? null : new ColorTable(config.colorTableBits);
+        if (table != null) {
+            table.update(config);
+        }
+        long t0 = System.nanoTime();
+        for (int f = 0; f < frames.length; f++) {
+            System.arraycopy(frames[f], 0, frame.pixels, 0, frame.pixels.length);
+            if (table != null) {
+                table.threshold(frame, config, masks[f], 0, frame.pixels.length);
+            } else {
+                HsvThreshold.threshold(frame, config, masks[f]);
+            }
+        }
+        thresholdNanos[r] = System.nanoTime() - t0;
+
+        VisionPipeline pipeline = new VisionPipeline(config, width, height);
+        for (int a = 0; a < areaCount; a++) {
+            config.areaMinimum = areas[a];
+            int base = candidate(r, a, 0);
+            long label = 0;
+            for (int f = 0; f < frames.length; f++) {
+                long t1 = System.nanoTime();
+                pipeline.processMask(masks[f]);
+                label += System.nanoTime() - t1;
+                for (int l = 0; l < limitSets; l++) {
+                    setLimits(config, l);
+                    long t2 = System.nanoTime();
+                    Target t = pipeline.rescore();
+                    costNanos[base + l] += System.nanoTime() - t2;
+                    if (t.found == found[f] && (!found[f] || t.Hot == hot[f])) {
+                        right[base + l]++;
+                    }
+                }
+            }
+            labelNanos[r * areaCount + a] = label;
+            for (int l = 0; l < limitSets; l++) {
+                costNanos[base + l] += thresholdNanos[r] + label;
+            }
+        }
+    }
+
+    /**
+     * @return Wall clock seconds
+     */
+    double run(int threads) throws Exception {
+        //THE FIRST RANGES WOULD OTHERWISE BE TIMED BEFORE THE JIT HAS COMPILED ANYTHING
+        VisionTuner warmup = new VisionTuner(width, height, frames, found, hot, 2, areas, 2, 0);
+        for (int i = 0; i < 5; i++) {
+            warmup.tuneRange(i % 2);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            pool.submit(() -> IntStream.range(0, ranges).parallel().forEach(this::tuneRange)).get();
+        } finally {
+            pool.shutdown();
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    //MICROSECONDS PER FRAME
+    double cost(int c) {
+        return costNanos[c] / 1e3 / frames.length;
+    }
+
+    int[] ranking() {
+        return IntStream.range(0, candidates()).boxed()
+                .sorted((a, b) -> right[a] != right[b] ? right[b] - right[a] : Double.compare(cost(a), cost(b)))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    void report(int[] order, int top) {
+        System.out.printf("%4s %7s %8s  %s areaMinimum %s%n", "rank", "right", "us/frame", String.join(" ", HSV_NAMES),
+                String.join(" ", LIMIT_NAMES));
+        for (int i = 0; i < Math.min(top, order.length); i++) {
+            print(i, order[i]);
+        }
+        int current = candidate(0, currentArea(), 0);
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] == current) {
+                System.out.println("current RobotMap values:");
+                print(i, current);
+            }
+        }
+    }
+
+    private int currentArea() {
+        for (int a = 0; a < areaCount; a++) {
+            if (areas[a] == RobotMap.AREA_MINIMUM) {
+                return a;
+            }
+        }
+        return 0;
+    }
+
+    private void print(int rank, int c) {
+        VisionConfig k = config(c);
+        System.out.printf("%4d %3d/%-3d %8.1f  %d %d %d %d %d %d %d %.0f %.0f %.0f %.0f %.0f%n", rank + 1, right[c],
+                frames.length, cost(c), k.hueLow, k.hueHigh, k.satLow, k.satHigh, k.valLow, k.valHigh, k.areaMinimum,
+                k.rectangularityLimit, k.aspectRatioLimit, k.tapeWidthLimit, k.verticalScoreLimit, k.lrScoreLimit);
+    }
+
+    void write(Path out, int c, String input) throws IOException {
+        try (PrintStream ps = new PrintStream(Files.newOutputStream(out))) {
+            ps.printf("# VisionTuner on %s: %d of %d frames right, %.1f us per frame%n", input, right[c],
+                    frames.length, cost(c));
+            config(c).store(ps);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String input = args.length > 0 && !args[0].startsWith("--") ? args[0] : "synthetic";
+        String labels = args.length > 1 && !args[1].startsWith("--") ? args[1] : null;
+        int ranges = 48, limitSets = 64, top = 10;
+        int[] areas = {50, 100, RobotMap.AREA_MINIMUM, 250, 400};
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1160;
+        String out = "vision.cfg";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--hsv" -> ranges = Integer.parseInt(args[++i]);
+                case "--limits" -> limitSets = Integer.parseInt(args[++i]);
+                case "--areas" -> areas = parseInts(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--top" -> top = Integer.parseInt(args[++i]);
+                case "--out" -> out = args[++i];
+                default -> {
+                    if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("unknown option " + args[i]);
+                    }
+                }
+            }
+        }
+
+        LabelledFrames set = input.startsWith("synthetic") ? synthetic(input, seed) : load(input, labels);
+        VisionTuner tuner = new VisionTuner(set.width, set.height, set.frames, set.found, set.hot, ranges, areas,
+                limitSets, seed);
+        double seconds = tuner.run(threads);
+        int n = set.frames.length;
+        System.out.printf("%d frames (%d found, %d hot), %dx%d, %d candidates on %d threads in %.2fs%n", n,
+                count(set.found), count(set.hot), set.width, set.height, tuner.candidates(), threads, seconds);
+        System.out.printf("%d thresholds, %d labelings, %d scorings; without sharing masks %d thresholds%n",
+                (long) ranges * n, (long) ranges * areas.length * n, (long) tuner.candidates() * n,
+                (long) tuner.candidates() * n);
+
+        int[] order = tuner.ranking();
+        tuner.report(order, top);
+        tuner.write(Paths.get(out), order[0], input);
+        System.out.println("best written to " + out + ", copy it to the robot as " + RobotMap.VISION_CONFIG_FILE);
+    }
+
+    static class LabelledFrames {
+        int width, height;
+        int[][] frames;
+        boolean[] found, hot;
+    }
+
+    /**
+     * Keeps the frames of a capture file or PPM directory that have a label.
+     */
+    static LabelledFrames load(String input, String labels) throws Exception {
+        if (labels == null) {
+            throw new IllegalArgumentException("a labels file is needed with " + input);
+        }
+        List<int[]> all = new ArrayList<>();
+        LabelledFrames set = new LabelledFrames();
+        if (input.endsWith(".cap")) {
+            try (CaptureFile capture = new CaptureFile(Paths.get(input))) {
+                set.width = capture.getWidth();
+                set.height = capture.getHeight();
+                Frame frame = new Frame(set.width, set.height);
+                for (int i = 0; i < capture.getFrameCount(); i++) {
+                    capture.read(i, frame);
+                    all.add(frame.pixels.clone());
+                }
+            }
+        } else {
+            BufferFrameSource source = DirectoryFrameSource.load(input, false);
+            set.width = source.getWidth();
+            set.height = source.getHeight();
+            Frame frame = new Frame(set.width, set.height);
+            while (source.nextFrame(frame)) {
+                all.add(frame.pixels.clone());
+            }
+        }
+
+        List<int[]> kept = new ArrayList<>();
+        List<boolean[]> calls = new ArrayList<>();
+        int number = 0;
+        for (String line : Files.readAllLines(Paths.get(labels))) {
+            number++;
+            int hash = line.indexOf('#');
+            String text = (hash >= 0 ? line.substring(0, hash) : line).trim();
+            if (text.isEmpty()) {
+                continue;
+            }
+            String[] f = text.split("[,\\s]+");
+            if (f.length != 3) {
+                throw new IOException(labels + " line " + number + ": expected \"frame found hot\"");
+            }
+            int index = Integer.parseInt(f[0]);
+            if (index < 0 || index >= all.size()) {
+                throw new IOException(labels + " line " + number + ": no frame " + index + " in " + input);
+            }
+            kept.add(all.get(index));
+            calls.add(new boolean[] {f[1].equals("1"), f[2].equals("1")});
+        }
+        set.frames = kept.toArray(new int[0][]);
+        set.found = new boolean[kept.size()];
+        set.hot = new boolean[kept.size()];
+        for (int i = 0; i < kept.size(); i++) {
+            set.found[i] = calls.get(i)[0];
+            set.hot[i] = calls.get(i)[0] && calls.get(i)[1];
+        }
+        return set;
+    }
+
+    /**
+     * "synthetic", "synthetic:WxH" or "synthetic:WxH:frames".
+     */
+    static LabelledFrames synthetic(String input, long seed) {
+        LabelledFrames set = new LabelledFrames();
+        set.width = 320;
+        set.height = 240;
+        int n = 120;
+        String[] parts = input.split(":");
+        if (parts.length > 1) {
+            String[] size = parts[1].split("x");
+            set.width = Integer.parseInt(size[0]);
+            set.height = Integer.parseInt(size[1]);
+        }
+        if (parts.length > 2) {
+            n = Integer.parseInt(parts[2]);
+        }
+        Random rand = new Random(seed);
+        set.frames = new int[n][];
+        set.found = new boolean[n];
+        set.hot = new boolean[n];
+        int w = set.width, h = set.height;
+        double s = h / 240.0;
+        for (int f = 0; f < n; f++) {
+            int[] pixels = new int[w * h];
+            for (int i = 0; i < pixels.length; i++) {
+                int v = 20 + rand.nextInt(40);
+                pixels[i] = (v << 16) | (v << 8) | v;
+            }
+            //A TALL THIN BLOB JUST OUTSIDE THE TAPE'S HUE, A VERTICAL TARGET TO A WIDE RANGE
+            SyntheticFrames.rect(pixels, w, h, rand.nextInt(w / 4), h / 4 + rand.nextInt(h / 4),
+                    (int) Math.max(2, 8 * s), (int) (64 * s), DISTRACTOR);
+            for (int i = 0; i < 4; i++) {
+                int size = (int) ((4 + rand.nextInt(16)) * s);
+                SyntheticFrames.rect(pixels, w, h, rand.nextInt(w), h * 5 / 8 + rand.nextInt(h * 3 / 8), size, size,
+                        SyntheticFrames.TAPE);
+            }
+            set.found[f] = f % 3 != 0;
+            set.hot[f] = f % 3 == 2;
+            if (set.found[f]) {
+                SyntheticFrames.goal(pixels, w, h, w / 2 + rand.nextInt(w / 4), h / 4 + rand.nextInt(h / 8),
+                        set.hot[f]);
+            }
+            set.frames[f] = pixels;
+        }
+        return set;
+    }
+
+    private static int[] parseInts(String list) {
+        String[] s = list.split(",");
+        int[] v = new int[s.length];
+        for (int i = 0; i < s.length; i++) {
+            v[i] = Integer.parseInt(s[i].trim());
+        }
+        return v;
+    }
+
+    private static int count(boolean[] b) {
+        int n = 0;
+        for (boolean x : b) {
+            n += x ? 1 : 0;
+        }
+        return n;
+    }
+}